@@ -0,0 +1,97 @@
+// Copyright (c) 2018 K Team. All Rights Reserved.
+package org.kframework.benchmarks;
+
+import org.kframework.attributes.Att;
+import org.kframework.backend.java.builtins.IntToken;
+import org.kframework.backend.java.kil.BuiltinMap;
+import org.kframework.backend.java.kil.KItem;
+import org.kframework.backend.java.kil.KLabelConstant;
+import org.kframework.backend.java.kil.KList;
+import org.kframework.backend.java.kil.Term;
+import org.kframework.backend.java.kil.TermContext;
+import org.kframework.kil.Attribute;
+import org.kframework.kore.KORE;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the invocation of builtin (hooked) functions through {@link KItem#evaluateFunction}, which includes
+ * the dispatch to the Java implementation of the hook.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class BuiltinFunctionBenchmark {
+
+    private static final int MAP_SIZE = 64;
+
+    private TermContext context;
+    private KItem intAdd;
+    private KItem intLt;
+    private KItem mapLookup;
+    private KItem mapUpdate;
+
+    @Setup(Level.Trial)
+    public void setUp(ImpDefinition imp) {
+        context = imp.newTermContext();
+        BuiltinMap.Builder mapBuilder = BuiltinMap.builder(imp.global);
+        for (int i = 0; i < MAP_SIZE; i++) {
+            mapBuilder.put(IntToken.of(i), IntToken.of(i));
+        }
+        Term map = mapBuilder.build();
+        IntToken key = IntToken.of(MAP_SIZE / 2);
+
+        intAdd = KItem.of(hookedLabel(imp, "INT.add"), KList.concatenate(IntToken.of(40), IntToken.of(2)), imp.global);
+        intLt = KItem.of(hookedLabel(imp, "INT.lt"), KList.concatenate(IntToken.of(40), IntToken.of(2)), imp.global);
+        mapLookup = KItem.of(hookedLabel(imp, "MAP.lookup"), KList.concatenate(map, key), imp.global);
+        mapUpdate = KItem.of(hookedLabel(imp, "MAP.update"), KList.concatenate(map, key, IntToken.of(-1)),
+                imp.global);
+    }
+
+    /**
+     * Returns the label of the function of the definition implemented by the given hook.
+     */
+    private static KLabelConstant hookedLabel(ImpDefinition imp, String hook) {
+        for (Map.Entry<String, Att> entry : imp.definition.kLabelAttributes().entrySet()) {
+            if (hook.equals(entry.getValue().getOptional(Attribute.HOOK_KEY).orElse(null))) {
+                return KLabelConstant.of(KORE.KLabel(entry.getKey()), imp.definition);
+            }
+        }
+        throw new IllegalArgumentException("no function implemented by hook " + hook);
+    }
+
+    @Benchmark
+    public Term intAdd() {
+        return intAdd.evaluateFunction(context);
+    }
+
+    @Benchmark
+    public Term intLt() {
+        return intLt.evaluateFunction(context);
+    }
+
+    @Benchmark
+    public Term mapLookup() {
+        return mapLookup.evaluateFunction(context);
+    }
+
+    @Benchmark
+    public Term mapUpdate() {
+        return mapUpdate.evaluateFunction(context);
+    }
+}
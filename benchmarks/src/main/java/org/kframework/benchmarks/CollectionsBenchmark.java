@@ -0,0 +1,96 @@
+// Copyright (c) 2018 K Team. All Rights Reserved.
+package org.kframework.benchmarks;
+
+import org.kframework.backend.java.builtins.BuiltinListOperations;
+import org.kframework.backend.java.builtins.BuiltinMapOperations;
+import org.kframework.backend.java.builtins.BuiltinSetOperations;
+import org.kframework.backend.java.builtins.IntToken;
+import org.kframework.backend.java.kil.BuiltinList;
+import org.kframework.backend.java.kil.BuiltinMap;
+import org.kframework.backend.java.kil.BuiltinSet;
+import org.kframework.backend.java.kil.Term;
+import org.kframework.backend.java.kil.TermContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the operations of the builtin map, set and list collections of the Java backend.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class CollectionsBenchmark {
+
+    @Param({"16", "1024"})
+    public int size;
+
+    private TermContext context;
+    private BuiltinMap map;
+    private BuiltinSet set;
+    private BuiltinList list;
+    private IntToken key;
+    private IntToken value;
+
+    @Setup(Level.Trial)
+    public void setUp(ImpDefinition imp) {
+        context = imp.newTermContext();
+        BuiltinMap.Builder mapBuilder = BuiltinMap.builder(imp.global);
+        BuiltinSet.Builder setBuilder = BuiltinSet.builder(imp.global);
+        BuiltinList.Builder listBuilder = BuiltinList.builder(imp.global);
+        for (int i = 0; i < size; i++) {
+            mapBuilder.put(IntToken.of(i), IntToken.of(i));
+            setBuilder.add(IntToken.of(i));
+            listBuilder.add(IntToken.of(i));
+        }
+        map = (BuiltinMap) mapBuilder.build();
+        set = (BuiltinSet) setBuilder.build();
+        list = (BuiltinList) listBuilder.build();
+        key = IntToken.of(size / 2);
+        value = IntToken.of(-1);
+    }
+
+    @Benchmark
+    public Term mapLookup() {
+        return BuiltinMapOperations.lookup(map, key, context);
+    }
+
+    @Benchmark
+    public Term mapUpdate() {
+        return BuiltinMapOperations.update(map, key, value, context);
+    }
+
+    @Benchmark
+    public Term setIn() {
+        return BuiltinSetOperations.in(key, set, context);
+    }
+
+    @Benchmark
+    public Term setUnion() {
+        return BuiltinSetOperations.constructor(set, BuiltinSetOperations.element(value, context), context);
+    }
+
+    @Benchmark
+    public Term listGet() {
+        return BuiltinListOperations.get(list, key, context);
+    }
+
+    @Benchmark
+    public Term listConcatenate() {
+        return BuiltinListOperations.constructor(list, list, context);
+    }
+}
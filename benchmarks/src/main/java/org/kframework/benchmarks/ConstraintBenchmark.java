@@ -0,0 +1,75 @@
+// Copyright (c) 2018 K Team. All Rights Reserved.
+package org.kframework.benchmarks;
+
+import org.kframework.backend.java.builtins.BoolToken;
+import org.kframework.backend.java.builtins.IntToken;
+import org.kframework.backend.java.kil.GlobalContext;
+import org.kframework.backend.java.kil.KItem;
+import org.kframework.backend.java.kil.KLabelConstant;
+import org.kframework.backend.java.kil.KList;
+import org.kframework.backend.java.kil.Sort;
+import org.kframework.backend.java.kil.Term;
+import org.kframework.backend.java.kil.Variable;
+import org.kframework.backend.java.symbolic.ConjunctiveFormula;
+import org.kframework.backend.java.symbolic.KILtoSMTLib;
+import org.kframework.kore.KORE;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the simplification of path conditions and their translation to SMT-LIB.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class ConstraintBenchmark {
+
+    private ConjunctiveFormula substitutionConstraint;
+    private ConjunctiveFormula arithmeticConstraint;
+
+    @Setup(Level.Trial)
+    public void setUp(ImpDefinition imp) {
+        GlobalContext global = imp.global;
+        Variable x = new Variable("X", Sort.INT);
+        Variable y = new Variable("Y", Sort.INT);
+        Variable z = new Variable("Z", Sort.INT);
+
+        substitutionConstraint = ConjunctiveFormula.of(global)
+                .add(x, IntToken.of(1))
+                .add(y, apply(global, "_+Int_", x, z))
+                .add(apply(global, "_<=Int_", y, IntToken.of(10)), BoolToken.TRUE);
+
+        arithmeticConstraint = ConjunctiveFormula.of(global)
+                .add(apply(global, "_<=Int_", x, y), BoolToken.TRUE)
+                .add(apply(global, "_<=Int_", y, apply(global, "_+Int_", z, IntToken.of(10))), BoolToken.TRUE)
+                .add(apply(global, "_<Int_", IntToken.of(0), x), BoolToken.TRUE);
+    }
+
+    private static Term apply(GlobalContext global, String label, Term... arguments) {
+        return KItem.of(KLabelConstant.of(KORE.KLabel(label), global.getDefinition()), KList.concatenate(arguments), global);
+    }
+
+    @Benchmark
+    public ConjunctiveFormula simplify() {
+        return substitutionConstraint.simplify();
+    }
+
+    @Benchmark
+    public String translateToSMTLib() {
+        return KILtoSMTLib.translateConstraint(arithmeticConstraint);
+    }
+}
@@ -0,0 +1,102 @@
+// Copyright (c) 2018 K Team. All Rights Reserved.
+package org.kframework.benchmarks;
+
+import org.kframework.kompile.CompiledDefinition;
+import org.kframework.main.GlobalOptions;
+import org.kframework.utils.BinaryLoader;
+import org.kframework.utils.errorsystem.KExceptionManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the loading of a compiled definition at the startup of krun, through the buffered streams of
+ * {@link BinaryLoader}, against deserializing it from a memory mapping of the file.
+ * <p>
+ * {@link BinaryLoader} does not map files: kompile and the caches rewrite them in place, which fails on Windows while
+ * a mapping is open, and makes a reader on Linux crash with SIGBUS when the file is truncated under it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class DefinitionLoadingBenchmark {
+
+    @Param("k-distribution/tutorial/1_k/2_imp/lesson_4/imp-kompiled")
+    public String kompiledDirectory;
+
+    private BinaryLoader loader;
+    private File compiledFile;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        loader = new BinaryLoader(new KExceptionManager(new GlobalOptions()));
+        compiledFile = new File(kompiledDirectory, "compiled.bin");
+    }
+
+    @Benchmark
+    public CompiledDefinition bufferedStream() {
+        return loader.loadOrDie(CompiledDefinition.class, compiledFile);
+    }
+
+    @Benchmark
+    public CompiledDefinition memoryMapped() throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(compiledFile.toPath(), StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        return loader.loadOrDie(CompiledDefinition.class, new ByteBufferInputStream(buffer),
+                compiledFile.getAbsolutePath());
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
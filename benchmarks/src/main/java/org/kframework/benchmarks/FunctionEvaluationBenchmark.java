@@ -0,0 +1,31 @@
+// Copyright (c) 2018 K Team. All Rights Reserved.
+package org.kframework.benchmarks;
+
+import org.kframework.backend.java.kil.Term;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the evaluation of functions and anywhere rules
+ * ({@link org.kframework.backend.java.kil.KItem#resolveFunctionAndAnywhere}) on the initial configuration, which
+ * is built by the configuration initialization functions of the definition.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FunctionEvaluationBenchmark {
+
+    @Benchmark
+    public Term evaluateInitialConfiguration(ImpDefinition imp) {
+        return imp.unevaluatedConfiguration.evaluate(imp.newTermContext());
+    }
+}
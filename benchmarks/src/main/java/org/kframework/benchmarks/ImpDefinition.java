@@ -0,0 +1,129 @@
+// Copyright (c) 2018 K Team. All Rights Reserved.
+package org.kframework.benchmarks;
+
+import com.google.inject.util.Providers;
+import org.apache.commons.io.FileUtils;
+import org.kframework.attributes.Source;
+import org.kframework.backend.java.compile.KOREtoBackendKIL;
+import org.kframework.backend.java.kil.ConstrainedTerm;
+import org.kframework.backend.java.kil.Definition;
+import org.kframework.backend.java.kil.GlobalContext;
+import org.kframework.backend.java.kil.Term;
+import org.kframework.backend.java.kil.TermContext;
+import org.kframework.backend.java.symbolic.InitializeRewriter;
+import org.kframework.backend.java.symbolic.JavaRewritingOptions;
+import org.kframework.backend.java.symbolic.Stage;
+import org.kframework.backend.java.symbolic.SymbolicRewriter;
+import org.kframework.backend.java.util.HookProvider;
+import org.kframework.builtin.Sorts;
+import org.kframework.compile.ExpandMacros;
+import org.kframework.compile.ResolveSemanticCasts;
+import org.kframework.definition.Module;
+import org.kframework.kompile.CompiledDefinition;
+import org.kframework.kore.K;
+import org.kframework.krun.KRunOptions;
+import org.kframework.krun.ioserver.filesystem.portable.PortableFileSystem;
+import org.kframework.main.GlobalOptions;
+import org.kframework.utils.BinaryLoader;
+import org.kframework.utils.errorsystem.KExceptionManager;
+import org.kframework.utils.file.FileUtil;
+import org.kframework.utils.options.SMTOptions;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.kframework.kore.KORE.*;
+
+/**
+ * A definition kompiled with the Java backend and a program of that definition, loaded once per benchmark run.
+ * <p>
+ * The defaults are the IMP definition and the sum program of the K tutorial, which must be kompiled before the
+ * benchmarks are run. The executable benchmarks jar is only packaged with the {@code benchmarks} profile. From the
+ * root of the repository:
+ * <pre>
+ *     mvn package -P benchmarks -DskipTests
+ *     kompile --backend java k-distribution/tutorial/1_k/2_imp/lesson_4/imp.k
+ *     java -jar benchmarks/target/benchmarks.jar
+ * </pre>
+ * Other definitions and programs can be benchmarked with {@code -p kompiledDirectory=... -p program=...}.
+ */
+@State(Scope.Benchmark)
+public class ImpDefinition {
+
+    @Param("k-distribution/tutorial/1_k/2_imp/lesson_4/imp-kompiled")
+    public String kompiledDirectory;
+
+    @Param("k-distribution/tutorial/1_k/2_imp/lesson_4/tests/sum.imp")
+    public String program;
+
+    public KExceptionManager kem;
+    public FileUtil files;
+    public CompiledDefinition compiledDefinition;
+    public String programText;
+    public Source programSource;
+    public K initialKoreConfiguration;
+
+    public GlobalContext global;
+    public Definition definition;
+    public KOREtoBackendKIL converter;
+    /**
+     * The initial configuration, converted to the Java backend but with its functions not yet evaluated.
+     */
+    public Term unevaluatedConfiguration;
+    public SymbolicRewriter rewriter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        GlobalOptions globalOptions = new GlobalOptions();
+        kem = new KExceptionManager(globalOptions);
+        File workingDir = new File(".");
+        files = new FileUtil(workingDir, Providers.of(workingDir), workingDir,
+                Providers.of(new File(kompiledDirectory)), globalOptions, System.getenv());
+        compiledDefinition = new BinaryLoader(kem).loadOrDie(CompiledDefinition.class,
+                new File(kompiledDirectory, "compiled.bin"));
+        programText = FileUtils.readFileToString(new File(program));
+        programSource = Source.apply(program);
+
+        K pgm = compiledDefinition.getProgramParser(files, kem).apply(programText, programSource);
+        initialKoreConfiguration = KApply(compiledDefinition.topCellInitializer,
+                KApply(KLabel("_Map_"), KApply(KLabel(".Map")),
+                        KApply(KLabel("_|->_"), KToken("$PGM", Sorts.KConfigVar()), pgm)));
+
+        Module module = compiledDefinition.executionModule();
+        KRunOptions krunOptions = new KRunOptions();
+        JavaRewritingOptions rewritingOptions = new JavaRewritingOptions();
+        SMTOptions smtOptions = new SMTOptions();
+        PortableFileSystem fs = new PortableFileSystem(kem, files);
+        GlobalContext initializingContext = new GlobalContext(fs, false, globalOptions, krunOptions,
+                rewritingOptions, kem, smtOptions, HookProvider.get(kem), files, Stage.INITIALIZING);
+        definition = new InitializeRewriter.InitializeDefinition().invoke(module, kem, initializingContext);
+        global = new GlobalContext(fs, false, globalOptions, krunOptions,
+                rewritingOptions, kem, smtOptions, HookProvider.get(kem), files, Stage.REWRITING);
+        global.setDefinition(definition);
+
+        converter = new KOREtoBackendKIL(module, definition, global, false);
+        unevaluatedConfiguration = converter.convert(
+                new ExpandMacros(module, files, compiledDefinition.kompileOptions, false).expand(
+                        new ResolveSemanticCasts(true).resolve(initialKoreConfiguration)));
+        rewriter = new SymbolicRewriter(global, compiledDefinition.kompileOptions.transition, converter);
+    }
+
+    public TermContext newTermContext() {
+        TermContext termContext = TermContext.builder(global).freshCounter(0).build();
+        termContext.setKOREtoBackendKILConverter(converter);
+        return termContext;
+    }
+
+    /**
+     * Returns the initial configuration of the program, with its functions evaluated.
+     */
+    public ConstrainedTerm initialConfiguration() {
+        TermContext termContext = newTermContext();
+        return new ConstrainedTerm(unevaluatedConfiguration.evaluate(termContext), termContext);
+    }
+}
@@ -0,0 +1,90 @@
+// Copyright (c) 2018 K Team. All Rights Reserved.
+package org.kframework.benchmarks;
+
+import org.kframework.attributes.Source;
+import org.kframework.definition.Module;
+import org.kframework.kore.K;
+import org.kframework.parser.concrete2kore.ParseInModule;
+import org.kframework.parser.concrete2kore.ParserUtils;
+import org.kframework.parser.concrete2kore.kernel.Scanner;
+import org.kframework.utils.errorsystem.ParseFailedException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import scala.Tuple2;
+import scala.util.Either;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.kframework.kore.KORE.*;
+
+/**
+ * Benchmarks the concrete2kore {@link org.kframework.parser.concrete2kore.kernel.Parser} on generated programs of
+ * increasing size, to measure how parsing scales with the length of the input, independently of any kompiled
+ * definition. The programs are sequences of statements made of left-associative sums. Their parse trees are as deep
+ * as the programs are long, hence the larger stack of the forked JVM.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xss64m")
+@State(Scope.Thread)
+public class LargeInputParserBenchmark {
+
+    private static final String DEFINITION = "" +
+            "module LARGE " +
+            "syntax Exp ::= r\"[0-9]+\" [token] " +
+            "| Exp \"+\" Exp [klabel('Plus), left] " +
+            "| \"(\" Exp \")\" [bracket] " +
+            "syntax Stmt ::= Exp \";\" [klabel('Stmt)] " +
+            "syntax Stmts ::= Stmt " +
+            "| Stmt Stmts [klabel('Stmts)] " +
+            "endmodule";
+
+    @Param({"100", "1000", "10000"})
+    public int statements;
+
+    @Param({"false", "true"})
+    public boolean inJvmScanner;
+
+    private ParseInModule parser;
+    private Scanner scanner;
+    private String program;
+    private final Source source = Source.apply("generated by LargeInputParserBenchmark");
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Module module = ParserUtils.parseMainModuleOuterSyntax(DEFINITION, source, "LARGE");
+        parser = new ParseInModule(module);
+        scanner = parser.getScanner(null, inJvmScanner);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < statements; i++) {
+            sb.append(i).append("+(").append(i).append("+1)+2;");
+        }
+        program = sb.toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        scanner.close();
+    }
+
+    @Benchmark
+    public Either<Set<ParseFailedException>, K> parseProgram() {
+        Tuple2<Either<Set<ParseFailedException>, K>, Set<ParseFailedException>> result =
+                parser.parseString(program, Sort("Stmts"), scanner, source, 1, 1, true);
+        return result._1();
+    }
+}
@@ -0,0 +1,44 @@
+// Copyright (c) 2018 K Team. All Rights Reserved.
+package org.kframework.benchmarks;
+
+import org.kframework.attributes.Source;
+import org.kframework.kore.K;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * Benchmarks parsing the program with the concrete2kore {@link org.kframework.parser.concrete2kore.kernel.Parser}
+ * generated for the definition.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class ParserBenchmark {
+
+    private BiFunction<String, Source, K> parser;
+
+    @Setup(Level.Trial)
+    public void setUp(ImpDefinition imp) {
+        parser = imp.compiledDefinition.getProgramParser(imp.files, imp.kem);
+    }
+
+    @Benchmark
+    public K parseProgram(ImpDefinition imp) {
+        return parser.apply(imp.programText, imp.programSource);
+    }
+}
@@ -0,0 +1,73 @@
+// Copyright (c) 2018 K Team. All Rights Reserved.
+package org.kframework.benchmarks;
+
+import org.kframework.RewriterResult;
+import org.kframework.backend.java.kil.ConstrainedTerm;
+import org.kframework.backend.java.symbolic.FastRuleMatcher;
+import org.kframework.backend.java.utils.BitSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the matching of the rules of the definition and the rewriting of the program.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class RewriterBenchmark {
+
+    @Param("100")
+    public int steps;
+
+    private ConstrainedTerm initialConfiguration;
+    private FastRuleMatcher matcher;
+    private BitSet allRules;
+
+    @Setup(Level.Trial)
+    public void setUp(ImpDefinition imp) {
+        initialConfiguration = imp.initialConfiguration();
+        int ruleCount = imp.definition.ruleTable.size();
+        matcher = new FastRuleMatcher(imp.global, ruleCount);
+        allRules = BitSet.apply(ruleCount);
+        allRules.makeOnes(ruleCount);
+    }
+
+    @Benchmark
+    public List<FastRuleMatcher.RuleMatchResult> matchRulePattern(ImpDefinition imp) {
+        return matcher.matchRulePattern(
+                initialConfiguration,
+                imp.definition.automaton.leftHandSide(),
+                allRules,
+                false,
+                true,
+                imp.compiledDefinition.kompileOptions.transition,
+                false,
+                initialConfiguration.termContext());
+    }
+
+    @Benchmark
+    public List<ConstrainedTerm> fastComputeRewriteStep(ImpDefinition imp) {
+        return imp.rewriter.fastComputeRewriteStep(initialConfiguration, true, false, false);
+    }
+
+    @Benchmark
+    public RewriterResult rewrite(ImpDefinition imp) {
+        return imp.rewriter.rewrite(imp.initialConfiguration(), steps);
+    }
+}
@@ -6,15 +6,18 @@ import com.google.inject.Binder;
 import com.google.inject.Module;
 import com.google.inject.TypeLiteral;
 import com.google.inject.multibindings.MapBinder;
+import com.google.inject.multibindings.Multibinder;
 import com.google.inject.name.Names;
 import org.kframework.backend.java.symbolic.InitializeRewriter;
 import org.kframework.backend.java.symbolic.JavaBackend;
+import org.kframework.backend.java.symbolic.JavaRewritingOptions;
 import org.kframework.compile.Backend;
 import org.kframework.kprove.KProve;
 import org.kframework.krun.ToolActivation;
 import org.kframework.krun.modes.ExecutionMode;
 import org.kframework.main.AbstractKModule;
 import org.kframework.rewriter.Rewriter;
+import org.kframework.utils.inject.Options;
 
 import java.util.Collections;
 import java.util.List;
@@ -49,6 +52,7 @@ public class JavaBackendKModule extends AbstractKModule {
             @Override
             protected void configure() {
                 installJavaRewriter(binder());
+                bindJavaRewritingOptions(binder());
 
                 MapBinder<String, Integer> checkPointBinder = MapBinder.newMapBinder(
                         binder(), String.class, Integer.class, Names.named("checkpointIntervalMap"));
@@ -64,10 +68,18 @@ public class JavaBackendKModule extends AbstractKModule {
             protected void configure() {
                 installJavaBackend(binder());
                 installJavaRewriter(binder());
+                bindJavaRewritingOptions(binder());
             }
         });
     }
 
+    private void bindJavaRewritingOptions(Binder binder) {
+        Multibinder<Object> optionsBinder = Multibinder.newSetBinder(binder, Object.class, Options.class);
+        optionsBinder.addBinding().to(JavaRewritingOptions.class);
+        Multibinder<Class<?>> experimentalOptionsBinder = Multibinder.newSetBinder(binder, new TypeLiteral<Class<?>>() {}, Options.class);
+        experimentalOptionsBinder.addBinding().toInstance(JavaRewritingOptions.class);
+    }
+
     private void installJavaRewriter(Binder binder) {
         MapBinder<String, Function<org.kframework.definition.Module, Rewriter>> rewriterBinder = MapBinder.newMapBinder(
                 binder, TypeLiteral.get(String.class), new TypeLiteral<Function<org.kframework.definition.Module, Rewriter>>() {
@@ -0,0 +1,260 @@
+// Copyright (c) 2018 K Team. All Rights Reserved.
+package org.kframework.backend.java.builtins;
+
+import org.kframework.backend.java.kil.KItem;
+import org.kframework.backend.java.kil.KLabelConstant;
+import org.kframework.backend.java.kil.KList;
+import org.kframework.backend.java.kil.Term;
+import org.kframework.backend.java.kil.TermContext;
+import org.kframework.kore.KLabel;
+import org.kframework.kore.KORE;
+
+import java.nio.charset.CharacterCodingException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Table of {@code public static} methods on builtin byte arrays.
+ * <p>
+ * Module BYTES-SYMBOLIC represents byte arrays as lists built from {@code nilBytes} and {@code consBytes}, which may
+ * end with a {@link BytesToken}, as returned by {@code .Bytes} and the other operations. A method evaluates its
+ * arguments if they are concrete, that is if they are tokens or lists of concrete bytes. Otherwise, it returns the
+ * call with the tokens in its arguments expanded into lists, so that the rules of BYTES-SYMBOLIC apply to them, or
+ * {@code null} if there is no token to expand.
+ *
+ * @see include/builtin/domains.k
+ */
+public class BuiltinBytesOperations {
+
+    private static final KLabel NIL = KORE.KLabel("nilBytes");
+    private static final KLabel CONS = KORE.KLabel("consBytes");
+
+    public static BytesToken empty(TermContext context) {
+        return BytesToken.EMPTY;
+    }
+
+    public static Term bytes2int(Term bytes, Term endianness, Term signedness, TermContext context) {
+        BytesToken concrete = concrete(bytes);
+        String endiannessLabel = constantLabel(endianness);
+        String signednessLabel = constantLabel(signedness);
+        if (concrete == null || endiannessLabel == null || signednessLabel == null) {
+            return expand("Bytes2Int", context, bytes, endianness, signedness);
+        }
+        return IntToken.of(concrete.toBigInteger(
+                endiannessLabel.equals("bigEndianBytes"),
+                signednessLabel.equals("signedBytes")));
+    }
+
+    public static BytesToken int2bytes(IntToken length, IntToken value, Term endianness, TermContext context) {
+        String endiannessLabel = constantLabel(endianness);
+        if (endiannessLabel == null || length.bigIntegerValue().signum() < 0) {
+            return null;
+        }
+        try {
+            return BytesToken.of(value.bigIntegerValue(), length.intValue(), endiannessLabel.equals("bigEndianBytes"));
+        } catch (ArithmeticException e) {
+            return null;
+        }
+    }
+
+    public static Term bytes2string(Term bytes, TermContext context) {
+        BytesToken concrete = concrete(bytes);
+        if (concrete == null) {
+            return expand("Bytes2String", context, bytes);
+        }
+        return StringToken.of(concrete.bytes());
+    }
+
+    public static BytesToken string2bytes(StringToken string, TermContext context) {
+        try {
+            return BytesToken.of(string.byteArrayValue());
+        } catch (CharacterCodingException e) {
+            return null;
+        }
+    }
+
+    public static Term substr(Term bytes, IntToken start, IntToken end, TermContext context) {
+        BytesToken concrete = concrete(bytes);
+        if (concrete == null) {
+            return expand("substrBytes", context, bytes, start, end);
+        }
+        try {
+            return concrete.slice(start.intValue(), end.intValue());
+        } catch (IndexOutOfBoundsException | ArithmeticException e) {
+            return null;
+        }
+    }
+
+    public static Term replaceAt(Term bytes, IntToken index, Term replacement, TermContext context) {
+        BytesToken concrete = concrete(bytes);
+        BytesToken concreteReplacement = concrete(replacement);
+        if (concrete == null || concreteReplacement == null) {
+            return expand("replaceAtBytes", context, bytes, index, replacement);
+        }
+        try {
+            return concrete.replaceAt(index.intValue(), concreteReplacement);
+        } catch (IndexOutOfBoundsException | ArithmeticException e) {
+            return null;
+        }
+    }
+
+    public static Term padRight(Term bytes, IntToken length, IntToken value, TermContext context) {
+        BytesToken concrete = concrete(bytes);
+        if (concrete == null) {
+            return expand("padRightBytes", context, bytes, length, value);
+        }
+        if (!isByte(value)) {
+            return null;
+        }
+        try {
+            return concrete.padRight(length.intValue(), (byte) value.intValue());
+        } catch (ArithmeticException e) {
+            return null;
+        }
+    }
+
+    public static Term padLeft(Term bytes, IntToken length, IntToken value, TermContext context) {
+        BytesToken concrete = concrete(bytes);
+        if (concrete == null) {
+            return expand("padLeftBytes", context, bytes, length, value);
+        }
+        if (!isByte(value)) {
+            return null;
+        }
+        try {
+            return concrete.padLeft(length.intValue(), (byte) value.intValue());
+        } catch (ArithmeticException e) {
+            return null;
+        }
+    }
+
+    public static Term reverse(Term bytes, TermContext context) {
+        BytesToken concrete = concrete(bytes);
+        if (concrete == null) {
+            return expand("reverseBytes", context, bytes);
+        }
+        return concrete.reverse();
+    }
+
+    public static Term length(Term bytes, TermContext context) {
+        BytesToken concrete = concrete(bytes);
+        if (concrete == null) {
+            return expand("lengthBytes", context, bytes);
+        }
+        return IntToken.of(concrete.length());
+    }
+
+    public static Term concat(Term bytes1, Term bytes2, TermContext context) {
+        BytesToken concrete1 = concrete(bytes1);
+        BytesToken concrete2 = concrete(bytes2);
+        if (concrete1 == null || concrete2 == null) {
+            return expand("_+Bytes_", context, bytes1, bytes2);
+        }
+        return concrete1.concat(concrete2);
+    }
+
+    /**
+     * Returns the token holding the bytes of the given term, or {@code null} if the term is not a token, nor a
+     * list of integers between 0 and 255 ending with {@code nilBytes} or with a token.
+     */
+    private static BytesToken concrete(Term term) {
+        if (term instanceof BytesToken) {
+            return (BytesToken) term;
+        }
+        List<Term> elements = new ArrayList<>();
+        while (isList(term, CONS, 2)) {
+            elements.add(argument(term, 0));
+            term = argument(term, 1);
+        }
+        BytesToken tail;
+        if (term instanceof BytesToken) {
+            tail = (BytesToken) term;
+        } else if (isList(term, NIL, 0)) {
+            tail = BytesToken.EMPTY;
+        } else {
+            return null;
+        }
+        byte[] head = new byte[elements.size()];
+        for (int i = 0; i < head.length; i++) {
+            if (!(elements.get(i) instanceof IntToken) || !isByte((IntToken) elements.get(i))) {
+                return null;
+            }
+            head[i] = (byte) ((IntToken) elements.get(i)).intValue();
+        }
+        return BytesToken.of(head).concat(tail);
+    }
+
+    /**
+     * Returns the given term with the token it ends with, if any, expanded into a list of integers ending with
+     * {@code nilBytes}.
+     */
+    private static Term symbolic(Term term, TermContext context) {
+        if (term instanceof BytesToken) {
+            BytesToken bytes = (BytesToken) term;
+            Term list = KItem.of(KLabelConstant.of(NIL, context.definition()), KList.EMPTY, context.global());
+            for (int i = bytes.length() - 1; i >= 0; i--) {
+                list = cons(IntToken.of(bytes.get(i)), list, context);
+            }
+            return list;
+        } else if (isList(term, CONS, 2)) {
+            Term tail = argument(term, 1);
+            Term symbolicTail = symbolic(tail, context);
+            return symbolicTail == tail ? term : cons(argument(term, 0), symbolicTail, context);
+        }
+        return term;
+    }
+
+    private static Term cons(Term head, Term tail, TermContext context) {
+        return KItem.of(
+                KLabelConstant.of(CONS, context.definition()),
+                KList.concatenate(head, tail),
+                context.global());
+    }
+
+    /**
+     * Returns the call to the given operation with the tokens in its arguments expanded by {@link #symbolic}, or
+     * {@code null} if the arguments have no token to expand.
+     */
+    private static Term expand(String label, TermContext context, Term... arguments) {
+        Term[] symbolicArguments = new Term[arguments.length];
+        boolean expanded = false;
+        for (int i = 0; i < arguments.length; i++) {
+            symbolicArguments[i] = symbolic(arguments[i], context);
+            expanded |= symbolicArguments[i] != arguments[i];
+        }
+        if (!expanded) {
+            return null;
+        }
+        return KItem.of(
+                KLabelConstant.of(KORE.KLabel(label), context.definition()),
+                KList.concatenate(symbolicArguments),
+                context.global());
+    }
+
+    private static boolean isList(Term term, KLabel label, int arity) {
+        return term instanceof KItem && ((KItem) term).kLabel() instanceof KLabelConstant
+                && ((KLabelConstant) ((KItem) term).kLabel()).label().equals(label.name())
+                && ((KItem) term).kList() instanceof KList && ((KList) ((KItem) term).kList()).size() == arity;
+    }
+
+    private static Term argument(Term term, int index) {
+        return ((KList) ((KItem) term).kList()).get(index);
+    }
+
+    private static boolean isByte(IntToken value) {
+        return value.bigIntegerValue().signum() >= 0 && value.bigIntegerValue().bitLength() <= 8;
+    }
+
+    /**
+     * Returns the label of a constant such as {@code LE} or {@code Signed}, or {@code null} if the given term is not
+     * a constant.
+     */
+    private static String constantLabel(Term term) {
+        if (term instanceof KItem && ((KItem) term).kLabel() instanceof KLabelConstant
+                && ((KItem) term).items().isEmpty()) {
+            return ((KLabelConstant) ((KItem) term).kLabel()).label();
+        }
+        return null;
+    }
+
+}
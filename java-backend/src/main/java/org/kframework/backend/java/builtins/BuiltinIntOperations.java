@@ -7,25 +7,52 @@ import java.math.BigInteger;
 import java.util.Random;
 
 /**
- * Table of {@code public static} methods on builtin integers.
+ * Table of {@code public static} methods on builtin integers. The operations on integers which fit in a
+ * {@code long} use overflow-checked {@code long} arithmetic, and fall back to {@link BigInteger} arithmetic
+ * on overflow.
  *
  * @author: AndreiS
  */
 public class BuiltinIntOperations {
 
     public static IntToken add(IntToken term1, IntToken term2, TermContext context) {
+        if (term1.isLong() && term2.isLong()) {
+            try {
+                return IntToken.of(Math.addExact(term1.longValue(), term2.longValue()));
+            } catch (ArithmeticException e) {
+                /* overflow */
+            }
+        }
         return IntToken.of(term1.bigIntegerValue().add(term2.bigIntegerValue()));
     }
 
     public static IntToken sub(IntToken term1, IntToken term2, TermContext context) {
+        if (term1.isLong() && term2.isLong()) {
+            try {
+                return IntToken.of(Math.subtractExact(term1.longValue(), term2.longValue()));
+            } catch (ArithmeticException e) {
+                /* overflow */
+            }
+        }
         return IntToken.of(term1.bigIntegerValue().subtract(term2.bigIntegerValue()));
     }
 
     public static IntToken mul(IntToken term1, IntToken term2, TermContext context) {
+        if (term1.isLong() && term2.isLong()) {
+            try {
+                return IntToken.of(Math.multiplyExact(term1.longValue(), term2.longValue()));
+            } catch (ArithmeticException e) {
+                /* overflow */
+            }
+        }
         return IntToken.of(term1.bigIntegerValue().multiply(term2.bigIntegerValue()));
     }
 
     public static IntToken div(IntToken term1, IntToken term2, TermContext context) {
+        if (term1.isLong() && term2.isLong() && term2.longValue() != 0
+                && !(term1.longValue() == Long.MIN_VALUE && term2.longValue() == -1)) {
+            return IntToken.of(term1.longValue() / term2.longValue());
+        }
         try {
             return IntToken.of(term1.bigIntegerValue().divide(term2.bigIntegerValue()));
         } catch (ArithmeticException e) {
@@ -44,6 +71,9 @@ public class BuiltinIntOperations {
     }
 
     public static IntToken rem(IntToken term1, IntToken term2, TermContext context) {
+        if (term1.isLong() && term2.isLong() && term2.longValue() != 0) {
+            return IntToken.of(term1.longValue() % term2.longValue());
+        }
         try {
             return IntToken.of(term1.bigIntegerValue().remainder(term2.bigIntegerValue()));
         } catch (ArithmeticException e) {
@@ -52,6 +82,10 @@ public class BuiltinIntOperations {
     }
 
     public static IntToken mod(IntToken term1, IntToken term2, TermContext context) {
+        if (term1.isLong() && term2.isLong() && term2.longValue() > 0) {
+            long result = term1.longValue() % term2.longValue();
+            return IntToken.of(result < 0 ? result + term2.longValue() : result);
+        }
         return IntToken.of(term1.bigIntegerValue().mod(term2.bigIntegerValue()));
     }
 
@@ -68,6 +102,9 @@ public class BuiltinIntOperations {
     }
 
     public static IntToken shr(IntToken term1, IntToken term2, TermContext context) {
+        if (term1.isLong() && term2.isLong() && term2.longValue() >= 0) {
+            return IntToken.of(term1.longValue() >> Math.min(term2.longValue(), Long.SIZE - 1));
+        }
         try {
             return IntToken.of(term1.bigIntegerValue().shiftRight(term2.bigIntegerValue().intValueExact()));
         } catch (ArithmeticException e) {
@@ -80,34 +117,53 @@ public class BuiltinIntOperations {
     }
 
     public static IntToken not(IntToken term, TermContext context) {
+        if (term.isLong()) {
+            return IntToken.of(~term.longValue());
+        }
         return IntToken.of(term.bigIntegerValue().not());
     }
 
     public static IntToken and(IntToken term1, IntToken term2, TermContext context) {
+        if (term1.isLong() && term2.isLong()) {
+            return IntToken.of(term1.longValue() & term2.longValue());
+        }
         return IntToken.of(term1.bigIntegerValue().and(term2.bigIntegerValue()));
     }
 
     public static IntToken or(IntToken term1, IntToken term2, TermContext context) {
+        if (term1.isLong() && term2.isLong()) {
+            return IntToken.of(term1.longValue() | term2.longValue());
+        }
         return IntToken.of(term1.bigIntegerValue().or(term2.bigIntegerValue()));
     }
 
     public static IntToken xor(IntToken term1, IntToken term2, TermContext context) {
+        if (term1.isLong() && term2.isLong()) {
+            return IntToken.of(term1.longValue() ^ term2.longValue());
+        }
         return IntToken.of(term1.bigIntegerValue().xor(term2.bigIntegerValue()));
     }
 
     public static IntToken min(IntToken term1, IntToken term2, TermContext context) {
-        return IntToken.of(term1.bigIntegerValue().min(term2.bigIntegerValue()));
+        return term1.compareTo(term2) <= 0 ? term1 : term2;
     }
 
     public static IntToken max(IntToken term1, IntToken term2, TermContext context) {
-        return IntToken.of(term1.bigIntegerValue().max(term2.bigIntegerValue()));
+        return term1.compareTo(term2) >= 0 ? term1 : term2;
     }
 
     public static IntToken abs(IntToken term, TermContext context) {
+        if (term.isLong() && term.longValue() != Long.MIN_VALUE) {
+            return IntToken.of(Math.abs(term.longValue()));
+        }
         return IntToken.of(term.bigIntegerValue().abs());
     }
 
     public static IntToken log2(IntToken term, TermContext context) {
+        if (term.isLong()) {
+            long val = term.longValue();
+            return val > 0 ? IntToken.of(Long.SIZE - 1 - Long.numberOfLeadingZeros(val)) : null;
+        }
         BigInteger val = term.bigIntegerValue();
         if (val.compareTo(BigInteger.ZERO) <= 0)
             return null;
@@ -120,27 +176,27 @@ public class BuiltinIntOperations {
     }
 
     public static BoolToken eq(IntToken term1, IntToken term2, TermContext context) {
-        return BoolToken.of(term1.bigIntegerValue().compareTo(term2.bigIntegerValue()) == 0);
+        return BoolToken.of(term1.compareTo(term2) == 0);
     }
 
     public static BoolToken ne(IntToken term1, IntToken term2, TermContext context) {
-        return BoolToken.of(term1.bigIntegerValue().compareTo(term2.bigIntegerValue()) != 0);
+        return BoolToken.of(term1.compareTo(term2) != 0);
     }
 
     public static BoolToken gt(IntToken term1, IntToken term2, TermContext context) {
-        return BoolToken.of(term1.bigIntegerValue().compareTo(term2.bigIntegerValue()) > 0);
+        return BoolToken.of(term1.compareTo(term2) > 0);
     }
 
     public static BoolToken ge(IntToken term1, IntToken term2, TermContext context) {
-        return BoolToken.of(term1.bigIntegerValue().compareTo(term2.bigIntegerValue()) >= 0);
+        return BoolToken.of(term1.compareTo(term2) >= 0);
     }
 
     public static BoolToken lt(IntToken term1, IntToken term2, TermContext context) {
-        return BoolToken.of(term1.bigIntegerValue().compareTo(term2.bigIntegerValue()) < 0);
+        return BoolToken.of(term1.compareTo(term2) < 0);
     }
 
     public static BoolToken le(IntToken term1, IntToken term2, TermContext context) {
-        return BoolToken.of(term1.bigIntegerValue().compareTo(term2.bigIntegerValue()) <= 0);
+        return BoolToken.of(term1.compareTo(term2) <= 0);
     }
 
     private static final Random randomGenerator = new Random();
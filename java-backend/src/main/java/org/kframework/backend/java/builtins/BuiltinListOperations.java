@@ -13,6 +13,7 @@ import org.kframework.backend.java.kil.TermContext;
 import org.kframework.backend.java.kil.Variable;
 import org.kframework.builtin.KLabels;
 
+import java.math.BigInteger;
 import java.util.stream.IntStream;
 
 
@@ -39,13 +40,15 @@ public class BuiltinListOperations {
             try {
                 BuiltinList builtinList = (BuiltinList) list;
                 if (index.intValue() >= 0) {
-                    if (IntStream.range(0, index.intValue()).allMatch(builtinList::isElement)) {
+                    if (builtinList.isConcreteCollection()
+                            || IntStream.range(0, index.intValue()).allMatch(builtinList::isElement)) {
                         return builtinList.get(index.intValue());
                     } else {
                         return null;
                     }
                 } else {
-                    if (IntStream.range(builtinList.size() + index.intValue() + 1, builtinList.size()).allMatch(builtinList::isElement)) {
+                    if (builtinList.isConcreteCollection()
+                            || IntStream.range(builtinList.size() + index.intValue() + 1, builtinList.size()).allMatch(builtinList::isElement)) {
                         return builtinList.get(builtinList.size() + index.intValue());
                     } else {
                         return null;
@@ -108,6 +111,9 @@ public class BuiltinListOperations {
         if (list instanceof BuiltinList) {
             try {
                 BuiltinList builtinList = (BuiltinList) list;
+                if (builtinList.isConcreteCollection()) {
+                    return builtinList.range(removeLeft, builtinList.size() - removeRight);
+                }
 
                 int toRemoveFromLeft = IntStream.range(0, removeLeft)
                         .filter(i -> !builtinList.isElement(i))
@@ -144,6 +150,35 @@ public class BuiltinListOperations {
         }
     }
 
+    public static Term update(Term list, IntToken index, Term value, TermContext context) {
+        if (list instanceof BuiltinList) {
+            BuiltinList builtinList = (BuiltinList) list;
+            if (!builtinList.isConcreteCollection()) {
+                return null;
+            }
+            if (index.bigIntegerValue().signum() < 0
+                    || index.bigIntegerValue().compareTo(BigInteger.valueOf(builtinList.size())) >= 0) {
+                return Bottom.BOTTOM;
+            }
+            return builtinList.update(index.intValue(), wrapListItem(value, context));
+        } else {
+            /* the list must consist of exactly one element */
+            if (list.sort() != Sort.LIST) {
+                throw new IllegalArgumentException();
+            }
+
+            if (list instanceof Variable) {
+                return null;
+            }
+
+            if (index.bigIntegerValue().signum() == 0) {
+                return wrapListItem(value, context);
+            } else {
+                return Bottom.BOTTOM;
+            }
+        }
+    }
+
     public static KItem wrapListItem(Term element, TermContext context) {
         return KItem.of(
                 KLabelConstant.of(KLabels.ListItem, context.definition()),
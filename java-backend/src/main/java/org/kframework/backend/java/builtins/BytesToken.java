@@ -0,0 +1,213 @@
+// Copyright (c) 2018 K Team. All Rights Reserved.
+package org.kframework.backend.java.builtins;
+
+import org.kframework.backend.java.kil.Sort;
+import org.kframework.backend.java.kil.Token;
+import org.kframework.utils.StringUtil;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A byte array token. The bytes are never modified once the token is created, so that a token may be a view of a
+ * range of the array of another token: {@link #slice} does not copy the bytes, while the operations modifying the
+ * bytes ({@link #replaceAt}, {@link #concat}, the paddings) copy them into a new array.
+ *
+ * @see include/builtin/domains.k (module BYTES)
+ */
+public final class BytesToken extends Token {
+
+    public static final Sort SORT = Sort.BYTES;
+
+    public static final BytesToken EMPTY = new BytesToken(new byte[0], 0, 0);
+
+    private final byte[] array;
+    private final int offset;
+    private final int length;
+
+    private BytesToken(byte[] array, int offset, int length) {
+        this.array = array;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * Returns a {@code BytesToken} representation of a copy of the given bytes.
+     */
+    public static BytesToken of(byte[] bytes) {
+        return wrap(bytes.clone());
+    }
+
+    /**
+     * Returns a {@code BytesToken} representation of the given bytes, which must not be modified afterwards.
+     */
+    private static BytesToken wrap(byte[] bytes) {
+        return bytes.length == 0 ? EMPTY : new BytesToken(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Returns the two's complement representation of the given integer in the given byte order, truncated or
+     * sign-extended to the given length.
+     */
+    public static BytesToken of(BigInteger value, int length, boolean bigEndian) {
+        byte[] bytes = new byte[length];
+        byte[] twosComplement = value.toByteArray();
+        byte extension = (byte) (value.signum() < 0 ? 0xff : 0);
+        for (int i = 0; i < length; i++) {
+            int j = twosComplement.length - 1 - i;
+            bytes[bigEndian ? length - 1 - i : i] = j >= 0 ? twosComplement[j] : extension;
+        }
+        return wrap(bytes);
+    }
+
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Returns the byte at the given index as an unsigned value.
+     */
+    public int get(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index: " + index + ", length: " + length);
+        }
+        return array[offset + index] & 0xff;
+    }
+
+    /**
+     * Returns a copy of the bytes of this token.
+     */
+    public byte[] bytes() {
+        return Arrays.copyOfRange(array, offset, offset + length);
+    }
+
+    /**
+     * Returns the bytes in the given range, sharing the underlying array of this token.
+     */
+    public BytesToken slice(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > length || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("fromIndex: " + fromIndex + ", toIndex: " + toIndex
+                    + ", length: " + length);
+        }
+        if (fromIndex == 0 && toIndex == length) {
+            return this;
+        }
+        return fromIndex == toIndex ? EMPTY : new BytesToken(array, offset + fromIndex, toIndex - fromIndex);
+    }
+
+    /**
+     * Returns the bytes of this token with the bytes starting at the given index replaced by the given bytes.
+     */
+    public BytesToken replaceAt(int index, BytesToken bytes) {
+        if (index < 0 || index + bytes.length > length) {
+            throw new IndexOutOfBoundsException("index: " + index + ", replacement: " + bytes.length
+                    + ", length: " + length);
+        }
+        if (bytes.length == 0) {
+            return this;
+        }
+        byte[] result = bytes();
+        System.arraycopy(bytes.array, bytes.offset, result, index, bytes.length);
+        return wrap(result);
+    }
+
+    public BytesToken concat(BytesToken bytes) {
+        if (length == 0) {
+            return bytes;
+        } else if (bytes.length == 0) {
+            return this;
+        }
+        byte[] result = Arrays.copyOfRange(array, offset, offset + length + bytes.length);
+        System.arraycopy(bytes.array, bytes.offset, result, length, bytes.length);
+        return wrap(result);
+    }
+
+    /**
+     * Returns the bytes of this token padded on the right up to the given length with the given byte.
+     */
+    public BytesToken padRight(int newLength, byte value) {
+        if (newLength <= length) {
+            return this;
+        }
+        byte[] result = Arrays.copyOfRange(array, offset, offset + newLength);
+        Arrays.fill(result, length, newLength, value);
+        return wrap(result);
+    }
+
+    /**
+     * Returns the bytes of this token padded on the left up to the given length with the given byte.
+     */
+    public BytesToken padLeft(int newLength, byte value) {
+        if (newLength <= length) {
+            return this;
+        }
+        byte[] result = new byte[newLength];
+        Arrays.fill(result, 0, newLength - length, value);
+        System.arraycopy(array, offset, result, newLength - length, length);
+        return wrap(result);
+    }
+
+    public BytesToken reverse() {
+        byte[] result = new byte[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = array[offset + length - 1 - i];
+        }
+        return wrap(result);
+    }
+
+    /**
+     * Returns the integer represented by the bytes of this token in the given byte order, as an unsigned value or
+     * as a two's complement value.
+     */
+    public BigInteger toBigInteger(boolean bigEndian, boolean signed) {
+        if (length == 0) {
+            return BigInteger.ZERO;
+        }
+        byte[] bytes = bigEndian ? bytes() : reverse().array;
+        return signed ? new BigInteger(bytes) : new BigInteger(1, bytes);
+    }
+
+    @Override
+    public Sort sort() {
+        return SORT;
+    }
+
+    /**
+     * Returns the bytes of this token as a K string literal of code points in the Latin-1 block.
+     */
+    @Override
+    public String javaBackendValue() {
+        return StringUtil.enquoteKString(new String(array, offset, length, StandardCharsets.ISO_8859_1));
+    }
+
+    @Override
+    protected int computeHash() {
+        int hashCode = 1;
+        for (int i = offset; i < offset + length; i++) {
+            hashCode = 31 * hashCode + array[i];
+        }
+        return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (this == object) {
+            return true;
+        }
+        if (!(object instanceof BytesToken)) {
+            return false;
+        }
+        BytesToken bytes = (BytesToken) object;
+        if (bytes.length != length || bytes.hashCode() != hashCode()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (array[offset + i] != bytes.array[bytes.offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
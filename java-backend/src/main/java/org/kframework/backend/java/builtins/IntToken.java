@@ -11,7 +11,9 @@ import java.math.BigInteger;
 
 
 /**
- * An integer token. Integer tokens have arbitrary precision.
+ * An integer token. Integer tokens have arbitrary precision, but the integers which fit in a {@code long} are
+ * represented by a {@code long} rather than a {@link BigInteger}, so that {@link BuiltinIntOperations} can compute
+ * on them without allocating {@code BigInteger}s. Each integer has exactly one representation.
  *
  * @author AndreiS
  */
@@ -19,30 +21,54 @@ public final class IntToken extends Token {
 
     public static final Sort SORT = Sort.INT;
 
-    /* BigInteger javaBackendValue wrapped by this IntToken */
+    private static final int CACHE_LOW = -128;
+    private static final int CACHE_HIGH = 1024;
+
+    /* IntToken cache of the small integers */
+    private static final IntToken[] cache = new IntToken[CACHE_HIGH - CACHE_LOW + 1];
+
+    static {
+        for (int i = 0; i < cache.length; i++) {
+            cache[i] = new IntToken(i + CACHE_LOW, null);
+        }
+    }
+
+    private static final BigInteger LONG_MIN = BigInteger.valueOf(Long.MIN_VALUE);
+    private static final BigInteger LONG_MAX = BigInteger.valueOf(Long.MAX_VALUE);
+
+    /* long javaBackendValue wrapped by this IntToken, if it fits in a long */
+    private final long smallValue;
+    /* BigInteger javaBackendValue wrapped by this IntToken if it does not fit in a long, null otherwise */
     private final BigInteger value;
 
-    private IntToken(BigInteger value) {
+    private IntToken(long smallValue, BigInteger value) {
+        this.smallValue = smallValue;
         this.value = value;
     }
 
     /**
      * Returns a {@code IntToken} representation of the given {@link BigInteger} javaBackendValue. The
-     * {@code IntToken} instances are cached to ensure uniqueness (subsequent invocations of this
-     * method with the same {@code BigInteger} javaBackendValue return the same {@code IntToken} object).
+     * {@code IntToken} instances of small integers are cached (subsequent invocations of this
+     * method with the same small {@code BigInteger} javaBackendValue return the same {@code IntToken} object).
      */
     public static IntToken of(BigInteger value) {
         assert value != null;
-        return new IntToken(value);
+        if (value.bitLength() < Long.SIZE) {
+            return of(value.longValue());
+        }
+        return new IntToken(0, value);
     }
 
     public static IntToken of(long value) {
-        return of(BigInteger.valueOf(value));
+        if (value >= CACHE_LOW && value <= CACHE_HIGH) {
+            return cache[(int) value - CACHE_LOW];
+        }
+        return new IntToken(value, null);
     }
 
     public static IntToken of(String value) {
         try {
-            return IntToken.of(new BigInteger(value));
+            return value.length() < 19 ? IntToken.of(Long.parseLong(value)) : IntToken.of(new BigInteger(value));
         } catch (NumberFormatException e) {
             if (value.codePointCount(0, value.length()) == 1) {
                 int numericValue = Character.getNumericValue(value.codePointAt(0));
@@ -54,11 +80,19 @@ public final class IntToken extends Token {
         }
     }
 
+    /**
+     * Returns true if the (interpreted) javaBackendValue of this IntToken fits in a {@code long}, in which case
+     * {@link #longValue()} does not throw.
+     */
+    public boolean isLong() {
+        return value == null;
+    }
+
     /**
      * Returns a {@link BigInteger} representation of the (interpreted) javaBackendValue of this IntToken.
      */
     public BigInteger bigIntegerValue() {
-        return value;
+        return value != null ? value : BigInteger.valueOf(smallValue);
     }
 
     /**
@@ -67,13 +101,16 @@ public final class IntToken extends Token {
      * @throws ArithmeticException Integer does not fit in an int.
      */
     public int intValue() {
-        if (value.compareTo(BigInteger.valueOf(Integer.MAX_VALUE)) > 0) {
+        if (value != null || smallValue > Integer.MAX_VALUE) {
+            if (value != null && value.signum() < 0) {
+                throw new ArithmeticException("IntToken too low for Int");
+            }
             throw new ArithmeticException("IntToken too large for Int");
         }
-        if (value.compareTo(BigInteger.valueOf(Integer.MIN_VALUE)) < 0) {
+        if (smallValue < Integer.MIN_VALUE) {
             throw new ArithmeticException("IntToken too low for Int");
         }
-        return (int)value.longValue();
+        return (int) smallValue;
     }
 
     /**
@@ -82,13 +119,23 @@ public final class IntToken extends Token {
      * @throws ArithmeticException Integer does not fit in a long.
      */
     public long longValue() {
-        if (value.compareTo(BigInteger.valueOf(Long.MAX_VALUE)) > 0) {
-            throw new ArithmeticException("IntToken too large for Long");
-        }
-        if (value.compareTo(BigInteger.valueOf(Long.MIN_VALUE)) < 0) {
+        if (value != null) {
+            if (value.signum() > 0) {
+                throw new ArithmeticException("IntToken too large for Long");
+            }
             throw new ArithmeticException("IntToken too low for Long");
         }
-        return value.longValue();
+        return smallValue;
+    }
+
+    /**
+     * Compares the (interpreted) javaBackendValues of this IntToken and the given IntToken.
+     */
+    public int compareTo(IntToken intToken) {
+        if (value == null && intToken.value == null) {
+            return Long.compare(smallValue, intToken.smallValue);
+        }
+        return bigIntegerValue().compareTo(intToken.bigIntegerValue());
     }
 
     /**
@@ -97,13 +144,16 @@ public final class IntToken extends Token {
      * @throws ArithmeticException Integer is not in the range of an unsigned byte.
      */
     public byte unsignedByteValue() {
-        if (value.compareTo(BigInteger.valueOf(255)) > 0) {
+        if (value != null || smallValue > 255) {
+            if (value != null && value.signum() < 0) {
+                throw new ArithmeticException("IntToken too low for byte");
+            }
             throw new ArithmeticException("IntToken too large for byte");
         }
-        if (value.compareTo(BigInteger.valueOf(0)) < 0) {
+        if (smallValue < 0) {
             throw new ArithmeticException("IntToken too low for byte");
         }
-        return (byte)value.longValue();
+        return (byte) smallValue;
     }
 
     @Override
@@ -116,12 +166,19 @@ public final class IntToken extends Token {
      */
     @Override
     public String javaBackendValue() {
-        return value.toString();
+        return value != null ? value.toString() : Long.toString(smallValue);
     }
 
     @Override
     protected int computeHash() {
-        return value.hashCode();
+        if (value != null) {
+            return value.hashCode();
+        }
+        /* the hash code of BigInteger.valueOf(smallValue), computed from its magnitude without allocating it */
+        long magnitude = Math.abs(smallValue);
+        int high = (int) (magnitude >>> 32);
+        int low = (int) magnitude;
+        return (high != 0 ? 31 * high + low : low) * Long.signum(smallValue);
     }
 
     @Override
@@ -131,8 +188,8 @@ public final class IntToken extends Token {
 
         IntToken intToken = (IntToken) o;
 
-        return value.equals(intToken.value);
-
+        return value == null ? intToken.value == null && smallValue == intToken.smallValue
+                : value.equals(intToken.value);
     }
 
     @Override
@@ -145,4 +202,12 @@ public final class IntToken extends Token {
         visitor.visit(this);
     }
 
+    /**
+     * Returns the cached instance rather than the de-serialized instance if there is a cached
+     * instance.
+     */
+    private Object readResolve() {
+        return value == null && smallValue >= CACHE_LOW && smallValue <= CACHE_HIGH ? of(smallValue) : this;
+    }
+
 }
@@ -5,6 +5,7 @@ import com.google.common.collect.ImmutableList;
 import org.kframework.backend.java.symbolic.Transformer;
 import org.kframework.backend.java.symbolic.Visitor;
 import org.kframework.backend.java.util.Constants;
+import org.kframework.backend.java.util.PersistentVector;
 import org.kframework.builtin.KLabels;
 import org.kframework.backend.java.utils.BitSet;
 
@@ -18,33 +19,41 @@ import java.util.stream.Collectors;
 public class BuiltinList extends Collection implements CollectionInternalRepresentation, HasGlobalContext {
 
     /**
-     * Flattened list of children.
+     * Flattened list of children. It is a persistent list, so that a list built from another one (e.g., by
+     * {@link #range} or concatenation) shares the structure of its children instead of copying them.
      */
-    public final ImmutableList<Term> children;
+    public final PersistentVector<Term> children;
     public final Sort sort;
     public final KLabelConstant operatorKLabel;
     public final KLabelConstant unitKLabel;
     private final GlobalContext global;
+    /**
+     * The number of children which are not elements, e.g., list variables.
+     */
+    private final int nonElements;
 
-    private final ElementTailSplit elementTailSplits[];
+    /**
+     * Allocated on the first call to {@link #splitElementTail}, which only concerns the lists of rule patterns.
+     */
+    private ElementTailSplit elementTailSplits[];
 
     /**
      * Private constructor used by {@link BuiltinList.Builder}.
      */
     private BuiltinList(
-            ImmutableList<Term> children,
+            PersistentVector<Term> children,
+            int nonElements,
             Sort sort,
             KLabelConstant operatorKLabel,
             KLabelConstant unitKLabel,
             GlobalContext global) {
         super(null, sort.equals(Sort.KSEQUENCE) ? Kind.K : Kind.KITEM);
         this.children = children;
+        this.nonElements = nonElements;
         this.sort = sort;
         this.operatorKLabel = operatorKLabel;
         this.unitKLabel = unitKLabel;
         this.global = global;
-
-        elementTailSplits = new ElementTailSplit[children.size()];
     }
 
     /**
@@ -76,6 +85,9 @@ public class BuiltinList extends Collection implements CollectionInternalReprese
      * Returns the element component and the tail component of the list child on position index.
      */
     public ElementTailSplit splitElementTail(int index, int bitSetLength) {
+        if (elementTailSplits == null) {
+            elementTailSplits = new ElementTailSplit[children.size()];
+        }
         if (elementTailSplits[index] == null) {
             BitSet emptyListMask = BitSet.apply(bitSetLength);
             emptyListMask.makeOnes(bitSetLength);
@@ -145,26 +157,47 @@ public class BuiltinList extends Collection implements CollectionInternalReprese
     }
 
     public boolean isElement(int index) {
-        return isElement(children.get(index));
+        return nonElements == 0 || isElement(children.get(index));
     }
 
     private boolean isElement(Term term) {
+        return isElement(term, sort);
+    }
+
+    private static boolean isElement(Term term, Sort sort) {
         //assert global.getDefinition().subsorts().isSubsortedEq(sort, term.sort());
         //TODO: restore the assertion after fixing variables _:K generated fom ...
-        return !(isListVariable(term)
+        return !(isListVariable(term, sort)
                 || term instanceof BuiltinList && ((BuiltinList) term).sort.equals(sort)
-                || term instanceof RuleAutomatonDisjunction && ((RuleAutomatonDisjunction) term).disjunctions().stream().anyMatch(p -> !isElement(p.getLeft()))
-                || term instanceof KItem && KLabels.KREWRITE.equals(((KItem) term).kLabel()) && !isElement(((KList) ((KItem) term).kList()).get(0)));
+                || term instanceof RuleAutomatonDisjunction && ((RuleAutomatonDisjunction) term).disjunctions().stream().anyMatch(p -> !isElement(p.getLeft(), sort))
+                || term instanceof KItem && KLabels.KREWRITE.equals(((KItem) term).kLabel()) && !isElement(((KList) ((KItem) term).kList()).get(0), sort));
     }
 
     private boolean isListVariable(Term term) {
+        return isListVariable(term, sort);
+    }
+
+    private static boolean isListVariable(Term term, Sort sort) {
         //TODO: remove Sort.KSEQUENCE case after fixing variables _:K generated fom ...
         return term instanceof Variable && (term.sort().equals(sort) || term.sort().equals(Sort.KSEQUENCE));
     }
 
     public Term range(int beginIndex, int endIndex) {
+        PersistentVector<Term> range = children.subList(beginIndex, endIndex);
+        return BuiltinList.builder(sort, operatorKLabel, unitKLabel, global)
+                .addAll(range, nonElements == 0 ? 0 : (int) range.stream().filter(e -> !isElement(e)).count())
+                .build();
+    }
+
+    /**
+     * Returns this list with the child at the given index replaced by the given element.
+     */
+    public Term update(int index, Term element) {
+        if (!isElement(element)) {
+            throw new IllegalArgumentException("expected a list element, found " + element);
+        }
         return BuiltinList.builder(sort, operatorKLabel, unitKLabel, global)
-                .addAll(children.subList(beginIndex, endIndex))
+                .addAll(children.with(index, element), isElement(index) ? nonElements : nonElements - 1)
                 .build();
     }
 
@@ -182,17 +215,20 @@ public class BuiltinList extends Collection implements CollectionInternalReprese
 
     @Override
     public ImmutableList<Variable> collectionVariables() {
+        if (nonElements == 0) {
+            return ImmutableList.of();
+        }
         return ImmutableList.copyOf(children.stream().filter(e -> !isElement(e)).map(Variable.class::cast).collect(Collectors.toList()));
     }
 
     @Override
     public int concreteSize() {
-        return (int) children.stream().filter(this::isElement).count();
+        return children.size() - nonElements;
     }
 
     @Override
     public final boolean isConcreteCollection() {
-        return children.stream().allMatch(this::isElement);
+        return nonElements == 0;
     }
 
     @Override
@@ -288,7 +324,8 @@ public class BuiltinList extends Collection implements CollectionInternalReprese
 
     public static class Builder {
 
-        private final ImmutableList.Builder<Term> childrenBuilder = new ImmutableList.Builder<>();
+        private final PersistentVector.Builder<Term> childrenBuilder = new PersistentVector.Builder<>();
+        private int nonElements = 0;
         private final Sort sort;
         private final KLabelConstant operatorKLabel;
         private final KLabelConstant unitKLabel;
@@ -305,15 +342,25 @@ public class BuiltinList extends Collection implements CollectionInternalReprese
             if (term instanceof BuiltinList && sort.equals(term.sort())
                     && operatorKLabel.equals(((BuiltinList) term).operatorKLabel)
                     && unitKLabel.equals(((BuiltinList) term).unitKLabel)) {
-                return addAll(((BuiltinList) term).children);
+                /* the children of a list are already flattened */
+                return addAll(((BuiltinList) term).children, ((BuiltinList) term).nonElements);
             } else {
                 //assert global.getDefinition().subsorts().isSubsortedEq(sort, term.sort()) :
                 //        "unexpected term: " + term + " of sort " + term.sort() + " added to list of sort " + sort;
                 childrenBuilder.add(term);
+                if (!isElement(term, sort)) {
+                    nonElements++;
+                }
                 return this;
             }
         }
 
+        private Builder addAll(PersistentVector<Term> children, int nonElements) {
+            childrenBuilder.addAll(children);
+            this.nonElements += nonElements;
+            return this;
+        }
+
         public Builder addAll(List<Term> terms) {
             terms.forEach(this::add);
             return this;
@@ -329,6 +376,7 @@ public class BuiltinList extends Collection implements CollectionInternalReprese
         public Term build() {
             BuiltinList builtinList = new BuiltinList(
                     childrenBuilder.build(),
+                    nonElements,
                     sort,
                     operatorKLabel,
                     unitKLabel,
@@ -352,7 +400,8 @@ public class BuiltinList extends Collection implements CollectionInternalReprese
      */
     public static class SingletonBuiltinList extends BuiltinList {
         private SingletonBuiltinList(Term child, GlobalContext global, Sort sort, KLabelConstant operatorKLabel, KLabelConstant unitKLabel) {
-            super(ImmutableList.of(child), sort, operatorKLabel, unitKLabel, global);
+            super(PersistentVector.<Term>empty().plus(child), isElement(child, sort) ? 0 : 1, sort, operatorKLabel,
+                    unitKLabel, global);
         }
     }
 
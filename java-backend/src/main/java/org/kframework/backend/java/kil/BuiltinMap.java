@@ -4,17 +4,16 @@ package org.kframework.backend.java.kil;
 import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableMultiset;
 import com.google.common.collect.Lists;
-import org.apache.commons.collections4.map.UnmodifiableMap;
 import org.apache.commons.lang3.tuple.Triple;
 import org.kframework.backend.java.symbolic.Transformer;
 import org.kframework.backend.java.symbolic.Visitor;
 import org.kframework.backend.java.util.Constants;
+import org.kframework.backend.java.util.PersistentHashMap;
 import org.kframework.builtin.KLabels;
 import org.kframework.utils.errorsystem.KEMException;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -27,13 +26,17 @@ import java.util.stream.Collectors;
  */
 public class BuiltinMap extends AssociativeCommutativeCollection {
 
-    private final UnmodifiableMap<Term, Term> entries;
+    /**
+     * The entries are kept in a persistent map, so that a map built from another one (e.g., by an update) shares
+     * the structure of its entries instead of copying them.
+     */
+    private final PersistentHashMap<Term, Term> entries;
 
     /**
      * Private efficient constructor used by {@link BuiltinMap.Builder}.
      */
     private BuiltinMap(
-            UnmodifiableMap<Term, Term> entries,
+            PersistentHashMap<Term, Term> entries,
             ImmutableMultiset<KItem> collectionPatterns,
             ImmutableMultiset<Term> collectionFunctions,
             ImmutableMultiset<Variable> collectionVariables,
@@ -63,7 +66,10 @@ public class BuiltinMap extends AssociativeCommutativeCollection {
         return entries.get(key);
     }
 
-    public UnmodifiableMap<Term, Term> getEntries() {
+    /**
+     * Returns an unmodifiable view of the entries of this map.
+     */
+    public Map<Term, Term> getEntries() {
         return entries;
     }
 
@@ -168,7 +174,7 @@ public class BuiltinMap extends AssociativeCommutativeCollection {
 
     public static class Builder {
 
-        private final Map<Term, Term> entries = new HashMap<>();
+        private final PersistentHashMap.Builder<Term, Term> entries = new PersistentHashMap.Builder<>();
         private final ImmutableMultiset.Builder<KItem> patternsBuilder = new ImmutableMultiset.Builder<>();
         private final ImmutableMultiset.Builder<Term> functionsBuilder = new ImmutableMultiset.Builder<>();
         private final ImmutableMultiset.Builder<Variable> variablesBuilder = new ImmutableMultiset.Builder<>();
@@ -195,7 +201,7 @@ public class BuiltinMap extends AssociativeCommutativeCollection {
         }
 
         public Map<Term, Term> getEntries() {
-            return UnmodifiableMap.unmodifiableMap(entries);
+            return entries.build();
         }
 
         private void concatenate(Term term, boolean update) {
@@ -208,10 +214,15 @@ public class BuiltinMap extends AssociativeCommutativeCollection {
             if (term instanceof BuiltinMap) {
                 BuiltinMap map = (BuiltinMap) term;
 
-                if (!update && entries.keySet().stream().anyMatch(key -> map.entries.containsKey(key) && !entries.get(key).equals(map.entries.get(key)))) {
-                    List<Triple<Term, Term, Term>> clashingKeys = entries.keySet().stream().filter(map.entries::containsKey).map(k -> Triple.of(k, entries.get(k), map.entries.get(k))).collect(Collectors.toList());
-                    throw KEMException.criticalError("failed to concatenate maps with common keys: "
-                            + clashingKeys);
+                if (!update && !entries.isEmpty()) {
+                    List<Triple<Term, Term, Term>> clashingKeys = map.entries.entrySet().stream()
+                            .filter(e -> entries.containsKey(e.getKey()) && !entries.get(e.getKey()).equals(e.getValue()))
+                            .map(e -> Triple.of(e.getKey(), entries.get(e.getKey()), e.getValue()))
+                            .collect(Collectors.toList());
+                    if (!clashingKeys.isEmpty()) {
+                        throw KEMException.criticalError("failed to concatenate maps with common keys: "
+                                + clashingKeys);
+                    }
                 }
 
                 entries.putAll(map.entries);
@@ -257,12 +268,8 @@ public class BuiltinMap extends AssociativeCommutativeCollection {
         }
 
         public Term build() {
-            // YilongL: Guava's ImmutableMap.copyOf(entries) is not smart enough
-            // to avoid actually copying the entries, because entries is not an
-            // ImmutableMap yet; using Apache's decorate method because it would
-            // avoid creating nesting wrappers
             BuiltinMap builtinMap = new BuiltinMap(
-                    (UnmodifiableMap<Term, Term>) UnmodifiableMap.unmodifiableMap(entries),
+                    entries.build(),
                     patternsBuilder.build(),
                     functionsBuilder.build(),
                     variablesBuilder.build(),
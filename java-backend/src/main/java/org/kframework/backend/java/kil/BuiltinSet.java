@@ -3,16 +3,15 @@ package org.kframework.backend.java.kil;
 
 import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableMultiset;
-import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import org.kframework.backend.java.symbolic.Transformer;
 import org.kframework.backend.java.symbolic.Visitor;
 import org.kframework.backend.java.util.Constants;
+import org.kframework.backend.java.util.PersistentHashSet;
 import org.kframework.utils.errorsystem.KEMException;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -24,10 +23,14 @@ import java.util.Set;
  */
 public class BuiltinSet extends AssociativeCommutativeCollection {
 
-    private final ImmutableSet<Term> elements;
+    /**
+     * The elements are kept in a persistent set, so that a set built from another one shares the structure of its
+     * elements instead of copying them.
+     */
+    private final PersistentHashSet<Term> elements;
 
     private BuiltinSet(
-            ImmutableSet<Term> elements,
+            PersistentHashSet<Term> elements,
             ImmutableMultiset<KItem> collectionPatterns,
             ImmutableMultiset<Term> collectionFunctions,
             ImmutableMultiset<Variable> collectionVariables,
@@ -60,6 +63,9 @@ public class BuiltinSet extends AssociativeCommutativeCollection {
         return elements.contains(element);
     }
 
+    /**
+     * Returns an unmodifiable view of the elements of this set.
+     */
     public Set<Term> elements() {
         return elements;
     }
@@ -156,7 +162,7 @@ public class BuiltinSet extends AssociativeCommutativeCollection {
 
     public static class Builder {
 
-        private final Set<Term> elements = new HashSet<>();
+        private final PersistentHashSet.Builder<Term> elements = new PersistentHashSet.Builder<>();
         private final ImmutableMultiset.Builder<KItem> patternsBuilder = new ImmutableMultiset.Builder<>();
         private final ImmutableMultiset.Builder<Term> functionsBuilder = new ImmutableMultiset.Builder<>();
         private final ImmutableMultiset.Builder<Variable> variablesBuilder = new ImmutableMultiset.Builder<>();
@@ -210,7 +216,7 @@ public class BuiltinSet extends AssociativeCommutativeCollection {
 
         public Term build() {
             BuiltinSet builtinSet = new BuiltinSet(
-                    ImmutableSet.copyOf(elements),
+                    elements.build(),
                     patternsBuilder.build(),
                     functionsBuilder.build(),
                     variablesBuilder.build(),
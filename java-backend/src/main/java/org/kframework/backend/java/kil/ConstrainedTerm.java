@@ -176,7 +176,7 @@ public class ConstrainedTerm extends JavaSymbolicObject {
      * Each solution is a triple of (1) the unification constraint, (2) whether the constraint is a matching of the variables of the argument constrainedTerm,
      * and (3) the inner rewrites from the constrainedTerm.
      */
-    public List<Triple<ConjunctiveFormula, Boolean, Map<scala.collection.immutable.List<Pair<Integer, Integer>>, Term>>> unify(
+    public List<Triple<ConjunctiveFormula, Boolean, Map<RewritePath, Term>>> unify(
             ConstrainedTerm constrainedTerm,
             Set<Variable> variables) {
         /* unify the subject term and the pattern term without considering those associated constraints */
@@ -197,7 +197,7 @@ public class ConstrainedTerm extends JavaSymbolicObject {
                 context);
     }
 
-    public static List<Triple<ConjunctiveFormula, Boolean, Map<scala.collection.immutable.List<Pair<Integer, Integer>>, Term>>> evaluateConstraints(
+    public static List<Triple<ConjunctiveFormula, Boolean, Map<RewritePath, Term>>> evaluateConstraints(
             ConjunctiveFormula constraint,
             ConjunctiveFormula subjectConstraint,
             ConjunctiveFormula patternConstraint,
@@ -215,11 +215,11 @@ public class ConstrainedTerm extends JavaSymbolicObject {
                 .filter(c -> !c.isFalse())
                 .collect(Collectors.toList());
 
-        List<Triple<ConjunctiveFormula, Boolean, Map<scala.collection.immutable.List<Pair<Integer, Integer>>, Term>>> solutions = Lists.newArrayList();
+        List<Triple<ConjunctiveFormula, Boolean, Map<RewritePath, Term>>> solutions = Lists.newArrayList();
         for (ConjunctiveFormula candidate : candidates) {
             candidate = candidate.orientSubstitution(variables);
 
-            Pair<Map<scala.collection.immutable.List<Pair<Integer, Integer>>, Term>, ConjunctiveFormula> pair = ConstrainedTerm.splitRewrites(candidate);
+            Pair<Map<RewritePath, Term>, ConjunctiveFormula> pair = ConstrainedTerm.splitRewrites(candidate);
             ConjunctiveFormula candidateConstraint = pair.getRight();
 
             context.setTopConstraint(null);
@@ -273,10 +273,10 @@ public class ConstrainedTerm extends JavaSymbolicObject {
      * {@link FastRuleMatcher} encodes the information about the inner rewrites (path to rewrite and what to rewrite to) as a boolean predicate in the constraint.
      * This method method reverses the encoding.
      */
-    private static Pair<Map<scala.collection.immutable.List<Pair<Integer, Integer>>, Term>, ConjunctiveFormula> splitRewrites(ConjunctiveFormula constraint) {
+    private static Pair<Map<RewritePath, Term>, ConjunctiveFormula> splitRewrites(ConjunctiveFormula constraint) {
         Map<Boolean, List<Equality>> split = constraint.equalities().stream()
                 .collect(Collectors.partitioningBy(e -> e.leftHandSide() instanceof LocalRewriteTerm));
-        Map<scala.collection.immutable.List<Pair<Integer, Integer>>, Term> rewrites = split.get(true).stream()
+        Map<RewritePath, Term> rewrites = split.get(true).stream()
                 .map(Equality::leftHandSide)
                 .map(LocalRewriteTerm.class::cast)
                 .collect(Collectors.toMap(e -> e.path, e -> e.rewriteRHS));
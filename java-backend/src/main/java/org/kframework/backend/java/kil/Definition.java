@@ -26,6 +26,7 @@ import scala.collection.JavaConversions;
 import scala.collection.JavaConverters;
 
 import java.io.Serializable;
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -35,6 +36,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import static org.kframework.Collections.*;
@@ -100,7 +102,20 @@ public class Definition extends JavaSymbolicObject {
 
     public final Map<Integer, Integer> reverseRuleTable = new HashMap<>();
 
-    private final Map<KItem.CacheTableColKey, KItem.CacheTableValue> sortCacheTable = new HashMap<>();
+    /**
+     * The number of slots of {@link #sortCacheTable}, a power of two.
+     */
+    private static final int SORT_CACHE_SIZE = 1 << 14;
+
+    /**
+     * A cache of the sorts of the {@link KItem}s, bounded by {@link #SORT_CACHE_SIZE}. Each entry is stored in the
+     * slot of the hash code of its key, and replaces the previous entry of the slot. The entries are immutable, so
+     * that the cache is read and written by several threads without locking.
+     */
+    private transient volatile AbstractMap.SimpleImmutableEntry<KItem.CacheTableColKey, KItem.CacheTableValue>[]
+            sortCacheTable;
+
+    private transient volatile ConcurrentHashMap<KLabelConstant, FunctionRuleIndex> functionRuleIndices;
 
     public Definition(org.kframework.definition.Module module, KExceptionManager kem) {
         kLabels = new HashSet<>();
@@ -231,6 +246,9 @@ public class Definition extends JavaSymbolicObject {
     public void addRule(Rule rule) {
         if (rule.isFunction()) {
             functionRules.put(rule.definedKLabel(), rule);
+            if (functionRuleIndices != null) {
+                functionRuleIndices.remove(rule.definedKLabel());
+            }
             if (rule.isSortPredicate()) {
                 sortPredicateRules.put((KLabelConstant) rule.sortPredicateArgument().kLabel(), rule);
             }
@@ -284,6 +302,24 @@ public class Definition extends JavaSymbolicObject {
         return functionRules;
     }
 
+    /**
+     * Returns the function rules of the given KLabel which may match a call with the given arguments, in the order
+     * of {@link #functionRules()}.
+     */
+    public List<Rule> functionRulesFor(KLabelConstant kLabel, KList arguments) {
+        ConcurrentHashMap<KLabelConstant, FunctionRuleIndex> indices = functionRuleIndices;
+        if (indices == null) {
+            synchronized (this) {
+                indices = functionRuleIndices;
+                if (indices == null) {
+                    functionRuleIndices = indices = new ConcurrentHashMap<>();
+                }
+            }
+        }
+        return indices.computeIfAbsent(kLabel, l -> new FunctionRuleIndex(new ArrayList<>(functionRules.get(l))))
+                .candidates(arguments);
+    }
+
     public Multimap<KLabelConstant, Rule> anywhereRules() {
         return anywhereRules;
     }
@@ -330,15 +366,32 @@ public class Definition extends JavaSymbolicObject {
     }
 
     public KItem.CacheTableValue getSortCacheValue(KItem.CacheTableColKey key) {
-        synchronized (sortCacheTable) {
-            return sortCacheTable.get(key);
-        }
+        AbstractMap.SimpleImmutableEntry<KItem.CacheTableColKey, KItem.CacheTableValue> entry =
+                sortCacheTable()[sortCacheSlot(key)];
+        return entry != null && entry.getKey().equals(key) ? entry.getValue() : null;
     }
 
     public void putSortCacheValue(KItem.CacheTableColKey key, KItem.CacheTableValue value) {
-        synchronized (sortCacheTable) {
-            sortCacheTable.put(key, value);
+        sortCacheTable()[sortCacheSlot(key)] = new AbstractMap.SimpleImmutableEntry<>(key, value);
+    }
+
+    private static int sortCacheSlot(KItem.CacheTableColKey key) {
+        int hashCode = key.hashCode();
+        return (hashCode ^ (hashCode >>> 16)) & (SORT_CACHE_SIZE - 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private AbstractMap.SimpleImmutableEntry<KItem.CacheTableColKey, KItem.CacheTableValue>[] sortCacheTable() {
+        AbstractMap.SimpleImmutableEntry<KItem.CacheTableColKey, KItem.CacheTableValue>[] result = sortCacheTable;
+        if (result == null) {
+            synchronized (this) {
+                result = sortCacheTable;
+                if (result == null) {
+                    sortCacheTable = result = new AbstractMap.SimpleImmutableEntry[SORT_CACHE_SIZE];
+                }
+            }
         }
+        return result;
     }
 
     // added from context
@@ -0,0 +1,121 @@
+// Copyright (c) 2018 K Team. All Rights Reserved.
+package org.kframework.backend.java.kil;
+
+import org.kframework.builtin.KLabels;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An index of the function rules of a KLabel on the head symbols (constructor KLabels and token values) of the
+ * arguments of their left-hand sides. For a function call, it returns the rules whose left-hand side may match the
+ * call, in the order of {@link Definition#functionRules()}, so that the evaluation of functions with many rules
+ * (e.g., dispatch tables) only tries to match the few rules which can apply.
+ * <p>
+ * The index is conservative: an argument of a rule whose head is not a constructor or a token (e.g., a variable,
+ * a function call, a collection) matches any head, and an argument of a call whose head is not a constructor or a
+ * token does not exclude any rule.
+ */
+public class FunctionRuleIndex {
+
+    private final List<Rule> rules;
+    /**
+     * For each argument position, the rules which may match each head, or {@code null} if no rule has a known head
+     * at that position.
+     */
+    private final Map<Term, BitSet>[] rulesByHead;
+    /**
+     * For each argument position, the rules which match any head.
+     */
+    private final BitSet[] anyHeadRules;
+
+    @SuppressWarnings("unchecked")
+    public FunctionRuleIndex(List<Rule> rules) {
+        this.rules = rules;
+        int arity = 0;
+        for (Rule rule : rules) {
+            arity = Math.max(arity, arguments(rule).size());
+        }
+        rulesByHead = (Map<Term, BitSet>[]) new Map[arity];
+        anyHeadRules = new BitSet[arity];
+
+        for (int position = 0; position < arity; position++) {
+            Map<Term, BitSet> positionRules = new HashMap<>();
+            BitSet anyHead = new BitSet(rules.size());
+            for (int i = 0; i < rules.size(); i++) {
+                List<Term> arguments = arguments(rules.get(i));
+                Term head = position < arguments.size() ? head(arguments.get(position)) : null;
+                if (head == null) {
+                    anyHead.set(i);
+                } else {
+                    positionRules.computeIfAbsent(head, h -> new BitSet(rules.size())).set(i);
+                }
+            }
+            if (!positionRules.isEmpty()) {
+                positionRules.values().forEach(headRules -> headRules.or(anyHead));
+                rulesByHead[position] = positionRules;
+            }
+            anyHeadRules[position] = anyHead;
+        }
+    }
+
+    /**
+     * Returns the arguments of the left-hand side of the rule, or no arguments if their number is not fixed, which
+     * makes the rule match any head at every position.
+     */
+    private static List<Term> arguments(Rule rule) {
+        Term kList = ((KItem) rule.leftHandSide()).kList();
+        if (kList instanceof KList && !((KList) kList).hasFrame()) {
+            return ((KList) kList).getContents();
+        }
+        return Collections.emptyList();
+    }
+
+    private static Term head(Term term) {
+        if (term instanceof Token) {
+            return term;
+        } else if (term instanceof KItem && ((KItem) term).kLabel() instanceof KLabelConstant) {
+            KLabelConstant kLabel = (KLabelConstant) ((KItem) term).kLabel();
+            if (!kLabel.isFunction() && !kLabel.isPattern()
+                    && !KLabels.KSEQ.equals(kLabel) && !KLabels.DOTK.equals(kLabel)) {
+                return kLabel;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the rules which may match a call with the given arguments.
+     */
+    public List<Rule> candidates(KList arguments) {
+        BitSet candidates = null;
+        for (int position = 0; position < rulesByHead.length && position < arguments.size(); position++) {
+            if (rulesByHead[position] == null) {
+                continue;
+            }
+            Term head = head(arguments.get(position));
+            if (head == null) {
+                continue;
+            }
+            BitSet headRules = rulesByHead[position].getOrDefault(head, anyHeadRules[position]);
+            if (candidates == null) {
+                candidates = (BitSet) headRules.clone();
+            } else {
+                candidates.and(headRules);
+            }
+        }
+        if (candidates == null) {
+            return rules;
+        }
+
+        List<Rule> result = new ArrayList<>(candidates.cardinality());
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            result.add(rules.get(i));
+        }
+        return result;
+    }
+}
@@ -6,8 +6,10 @@ import com.google.inject.Inject;
 import org.kframework.backend.java.kil.KItem.KItemOperations;
 import org.kframework.backend.java.symbolic.BuiltinFunction;
 import org.kframework.backend.java.symbolic.Equality.EqualityOperations;
+import org.kframework.backend.java.symbolic.JavaRewritingOptions;
 import org.kframework.backend.java.symbolic.SMTOperations;
 import org.kframework.backend.java.symbolic.Stage;
+import org.kframework.backend.java.util.FunctionCache;
 import org.kframework.backend.java.util.Z3Wrapper;
 import org.kframework.krun.KRunOptions;
 import org.kframework.krun.api.io.FileSystem;
@@ -28,6 +30,7 @@ public class GlobalContext implements Serializable {
     public final transient SMTOperations constraintOps;
     public final transient KItemOperations kItemOps;
     public final transient KRunOptions krunOptions;
+    public final transient JavaRewritingOptions rewritingOptions;
     public final transient KExceptionManager kem;
     private final transient Map<String, MethodHandle> hookProvider;
     public final transient FileUtil files;
@@ -38,6 +41,7 @@ public class GlobalContext implements Serializable {
             boolean deterministicFunctions,
             GlobalOptions globalOptions,
             KRunOptions krunOptions,
+            JavaRewritingOptions rewritingOptions,
             KExceptionManager kem,
             SMTOptions smtOptions,
             Map<String, MethodHandle> hookProvider,
@@ -46,12 +50,14 @@ public class GlobalContext implements Serializable {
         this.fs = fs;
         this.globalOptions = globalOptions;
         this.krunOptions = krunOptions;
+        this.rewritingOptions = rewritingOptions;
         this.kem = kem;
         this.hookProvider = hookProvider;
         this.files = files;
         this.equalityOps = new EqualityOperations(() -> def);
-        this.constraintOps = new SMTOperations(() -> def, smtOptions, new Z3Wrapper(smtOptions, kem, globalOptions, files), kem, globalOptions);
-        this.kItemOps = new KItemOperations(stage, deterministicFunctions, kem, this::builtins, globalOptions);
+        this.constraintOps = new SMTOperations(() -> def, smtOptions, new Z3Wrapper(smtOptions, kem, globalOptions, files), kem, globalOptions, files);
+        this.kItemOps = new KItemOperations(stage, deterministicFunctions, kem, this::builtins, globalOptions,
+                new FunctionCache(rewritingOptions));
         this.stage = stage;
     }
 
@@ -61,11 +67,12 @@ public class GlobalContext implements Serializable {
             SMTOptions smtOptions,
             KExceptionManager kem,
             KRunOptions krunOptions,
+            JavaRewritingOptions rewritingOptions,
             FileSystem fs,
             FileUtil files,
             Map<String, MethodHandle> hookProvider,
             Stage stage) {
-        this(fs, false, globalOptions, krunOptions, kem, smtOptions, hookProvider, files, stage);
+        this(fs, false, globalOptions, krunOptions, rewritingOptions, kem, smtOptions, hookProvider, files, stage);
     }
 
     private transient BuiltinFunction builtinFunction;
@@ -78,6 +85,24 @@ public class GlobalContext implements Serializable {
         return b;
     }
 
+    private transient volatile TermInterner termInterner;
+
+    /**
+     * Returns the table of the terms interned while rewriting in this context.
+     */
+    public TermInterner termInterner() {
+        TermInterner result = termInterner;
+        if (result == null) {
+            synchronized (this) {
+                result = termInterner;
+                if (result == null) {
+                    termInterner = result = new TermInterner();
+                }
+            }
+        }
+        return result;
+    }
+
     public void setDefinition(Definition def) {
         this.def = def;
     }
@@ -8,6 +8,7 @@ import org.kframework.backend.java.builtins.BoolToken;
 import org.kframework.backend.java.builtins.MetaK;
 import org.kframework.backend.java.builtins.SortMembership;
 import org.kframework.backend.java.symbolic.*;
+import org.kframework.backend.java.util.FunctionCache;
 import org.kframework.backend.java.util.ImpureFunctionException;
 import org.kframework.backend.java.util.Profiler;
 import org.kframework.backend.java.util.RewriteEngineUtils;
@@ -28,7 +29,6 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 
 /**
@@ -64,6 +64,12 @@ public class KItem extends Term implements KItemRepresentation, HasGlobalContext
 
     private BitSet[] childrenDontCareRuleMask = null;
 
+    /**
+     * The table this KItem is the canonical instance in, if any. Two distinct KItems interned in the same table
+     * are never equal.
+     */
+    private transient TermInterner interner = null;
+
     public KItem(KLabel kLabel, Term kList, Sort sort, boolean isExactSort, Att att) {
         this(kLabel, kList, sort, isExactSort, Collections.singleton(sort), att);
     }
@@ -86,7 +92,20 @@ public class KItem extends Term implements KItemRepresentation, HasGlobalContext
         kList = KCollection.upKind(kList, Kind.KLIST);
 
         // TODO(yilongli): break the dependency on the Tool object
-        return new KItem(kLabel, kList, global, global.stage, att, childrenDontCareRuleMask);
+        KItem kItem = new KItem(kLabel, kList, global, global.stage, att, childrenDontCareRuleMask);
+        if (childrenDontCareRuleMask == null && att.equals(Att.empty())
+                && TermInterner.isEnabled(global) && kItem.isGround()) {
+            return kItem.intern(global.termInterner());
+        }
+        return kItem;
+    }
+
+    private KItem intern(TermInterner termInterner) {
+        KItem canonical = termInterner.intern(this);
+        if (canonical == this) {
+            interner = termInterner;
+        }
+        return canonical;
     }
 
     public KItem(Term kLabel, Term kList, Sort sort, boolean isExactSort) {
@@ -306,18 +325,21 @@ public class KItem extends Term implements KItemRepresentation, HasGlobalContext
         private final KExceptionManager kem;
         private final Provider<BuiltinFunction> builtins;
         private final GlobalOptions options;
+        private final FunctionCache functionCache;
 
         public KItemOperations(
                 Stage stage,
                 boolean deterministicFunctions,
                 KExceptionManager kem,
                 Provider<BuiltinFunction> builtins,
-                GlobalOptions options) {
+                GlobalOptions options,
+                FunctionCache functionCache) {
             this.stage = stage;
             this.deterministicFunctions = deterministicFunctions;
             this.kem = kem;
             this.builtins = builtins;
             this.options = options;
+            this.functionCache = functionCache;
         }
 
         private static final String TRACE_MSG = "Function evaluation triggered infinite recursion. Trace:";
@@ -396,8 +418,25 @@ public class KItem extends Term implements KItemRepresentation, HasGlobalContext
                 return kItem;
             }
 
+            /* with --deterministic-functions, every call goes through the rules to check that only one applies */
+            if (stage != Stage.REWRITING
+                    || deterministicFunctions
+                    || !functionCache.isMemoized((KLabelConstant) kItem.kLabel)
+                    || !kItem.kList.isGround()
+                    || !kItem.kList.isNormal()
+                    || RuleAuditing.isAuditBegun()
+                    || RuleAuditing.getAuditingRule() != null) {
+                return applyFunction(kItem, context);
+            }
+            return functionCache.evaluate(kItem, context, () -> applyFunction(kItem, context));
+        }
+
+        private Term applyFunction(KItem kItem, TermContext context) {
             Definition definition = context.definition();
             KLabelConstant kLabelConstant = (KLabelConstant) kItem.kLabel;
+            if (kLabelConstant.getAttr(Attribute.IMPURE_KEY) != null) {
+                FunctionCache.recordImpureEvaluation();
+            }
 
             Profiler.startTimer(Profiler.getTimerForFunction(kLabelConstant));
 
@@ -415,6 +454,7 @@ public class KItem extends Term implements KItemRepresentation, HasGlobalContext
                         // DISABLE EXCEPTION CHECKSTYLE
                     } catch (ImpureFunctionException e) {
                         // do not do anything further: immediately assume this function is not ready to be evaluated yet.
+                        FunctionCache.recordImpureEvaluation();
                         return kItem;
                     } catch (Throwable t) {
                         // ENABLE EXCEPTION CHECKSTYLE
@@ -449,8 +489,18 @@ public class KItem extends Term implements KItemRepresentation, HasGlobalContext
                     Term owiseResult = null;
 
                     // an argument is concrete if it doesn't contain variables or unresolved functions
-                    boolean isConcrete = kList.getContents().stream().filter(elem -> !elem.isGround() || !elem.isNormal()).collect(Collectors.toList()).isEmpty();
-                    for (Rule rule : definition.functionRules().get(kLabelConstant)) {
+                    boolean isConcrete = true;
+                    for (Term argument : kList.getContents()) {
+                        if (!argument.isGround() || !argument.isNormal()) {
+                            isConcrete = false;
+                            break;
+                        }
+                    }
+                    // while auditing, every rule is tried so that the audited rule reports why it did not apply
+                    Iterable<Rule> rules = RuleAuditing.isAuditBegun() || RuleAuditing.getAuditingRule() != null
+                            ? definition.functionRules().get(kLabelConstant)
+                            : definition.functionRulesFor(kLabelConstant, kList);
+                    for (Rule rule : rules) {
                         try {
                             if (rule == RuleAuditing.getAuditingRule()) {
                                 RuleAuditing.beginAudit();
@@ -693,6 +743,9 @@ public class KItem extends Term implements KItemRepresentation, HasGlobalContext
         }
 
         KItem kItem = (KItem) object;
+        if (interner != null && interner == kItem.interner) {
+            return false;
+        }
         return kLabel.equals(kItem.kLabel) && kList.equals(kItem.kList);
     }
 
@@ -734,19 +787,24 @@ public class KItem extends Term implements KItemRepresentation, HasGlobalContext
     /**
      * The sort information of this {@code KItem}, namely {@link KItem#sort} and
      * {@link KItem#isExactSort}, depends only on the {@code KLabelConstant} and
-     * the sorts of its children.
+     * the sorts of its children. The key holds the {@code KLabelConstant} and
+     * the sort of each child together with whether this sort is exact. The
+     * {@code KLabelConstant} is compared by reference and the sorts with
+     * {@link Sort#equals}; their ordinals are not used, since they are not
+     * unique once objects have been deserialized.
      */
     static final class CacheTableColKey {
 
         final KLabelConstant kLabelConstant;
         final Sort[] sorts;
-        final boolean[] bools;
+        final boolean[] exactSorts;
         final int hashCode;
 
         public CacheTableColKey(KLabelConstant kLabelConstant, KList kList) {
             this.kLabelConstant = kLabelConstant;
             sorts = new Sort[kList.concreteSize()];
-            bools = new boolean[kList.concreteSize()];
+            exactSorts = new boolean[kList.concreteSize()];
+            int hashCode = kLabelConstant.hashCode();
             int idx = 0;
             for (Term term : kList) {
                 if (term instanceof KItem) {
@@ -756,18 +814,11 @@ public class KItem extends Term implements KItemRepresentation, HasGlobalContext
                     }
                 }
                 sorts[idx] = term.sort();
-                bools[idx] = term.isExactSort();
+                exactSorts[idx] = term.isExactSort();
+                hashCode = hashCode * Constants.HASH_PRIME + (sorts[idx].hashCode() << 1 | (exactSorts[idx] ? 1 : 0));
                 idx++;
             }
-            hashCode = computeHash();
-        }
-
-        private int computeHash() {
-            int hashCode = 1;
-            hashCode = hashCode * Constants.HASH_PRIME + kLabelConstant.hashCode();
-            hashCode = hashCode * Constants.HASH_PRIME + Arrays.deepHashCode(sorts);
-            hashCode = hashCode * Constants.HASH_PRIME + Arrays.hashCode(bools);
-            return hashCode;
+            this.hashCode = hashCode;
         }
 
         @Override
@@ -781,9 +832,10 @@ public class KItem extends Term implements KItemRepresentation, HasGlobalContext
                 return false;
             }
             CacheTableColKey key = (CacheTableColKey) object;
-            return kLabelConstant.equals(key.kLabelConstant)
-                    && Arrays.deepEquals(sorts, key.sorts)
-                    && Arrays.equals(bools, key.bools);
+            return hashCode == key.hashCode
+                    && kLabelConstant == key.kLabelConstant
+                    && Arrays.equals(sorts, key.sorts)
+                    && Arrays.equals(exactSorts, key.exactSorts);
         }
     }
 
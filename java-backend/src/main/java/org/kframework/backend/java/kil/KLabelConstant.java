@@ -14,6 +14,7 @@ import org.kframework.kil.Attributes;
 import org.kframework.utils.errorsystem.KEMException;
 import scala.collection.Seq;
 
+import java.lang.invoke.MethodHandle;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -70,6 +71,12 @@ public class KLabelConstant extends KLabel implements org.kframework.kore.KLabel
 
     private final String smtlib;
 
+    /*
+     * the Java implementation of the builtin (hooked) operation represented by this {@code KLabelConstant},
+     * set by {@link org.kframework.backend.java.symbolic.BuiltinFunction}
+     */
+    private transient volatile MethodHandle builtinHandle;
+
     private KLabelConstant(
             String label,
             Seq<org.kframework.kore.Sort> params,
@@ -193,6 +200,18 @@ public class KLabelConstant extends KLabel implements org.kframework.kore.KLabel
         return smtlib;
     }
 
+    /**
+     * Returns the Java implementation of the builtin (hooked) operation represented by this
+     * {@code KLabelConstant}, or {@code null} if it is not a builtin operation.
+     */
+    public MethodHandle builtinHandle() {
+        return builtinHandle;
+    }
+
+    public void setBuiltinHandle(MethodHandle builtinHandle) {
+        this.builtinHandle = builtinHandle;
+    }
+
     @Override
     public String name() {
         return label;
@@ -1,20 +1,16 @@
 // Copyright (c) 2015-2018 K Team. All Rights Reserved.
 package org.kframework.backend.java.kil;
 
-import org.apache.commons.lang3.tuple.Pair;
-import scala.collection.immutable.List;
-
-
 /**
  * {@link Term} representation of a local rewrite (path in the subject to the rewrite, and the right-hand-side of the rewrite).
  * It can be stored in a {@link org.kframework.backend.java.symbolic.ConjunctiveFormula}.
  */
 public class LocalRewriteTerm extends SMTLibTerm {
 
-    public final scala.collection.immutable.List<Pair<Integer, Integer>> path;
+    public final RewritePath path;
     public final Term rewriteRHS;
 
-    public LocalRewriteTerm(List<Pair<Integer, Integer>> path, Term rewriteRHS) {
+    public LocalRewriteTerm(RewritePath path, Term rewriteRHS) {
         super(null);
         this.path = path;
         this.rewriteRHS = rewriteRHS;
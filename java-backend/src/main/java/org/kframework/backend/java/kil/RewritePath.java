@@ -0,0 +1,81 @@
+// Copyright (c) 2018 K Team. All Rights Reserved.
+package org.kframework.backend.java.kil;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * A path from the root of a term to the position of an inner rewrite, stored as a flat array holding one
+ * {@code [begin, end)} interval per level. The path is an interval rather than a single index at each level
+ * because for associative operators a rule may rewrite a range of elements rather than only one element.
+ * <p>
+ * Paths are ordered lexicographically by their {@code begin} indices, so that sorting the paths of the rewrites of
+ * a rule groups together the rewrites under the same subterm.
+ */
+public final class RewritePath implements Comparable<RewritePath>, Serializable {
+
+    public static final RewritePath EMPTY = new RewritePath(new int[0]);
+
+    private final int[] steps;
+
+    private RewritePath(int[] steps) {
+        this.steps = steps;
+    }
+
+    /**
+     * Returns the path made of the first {@code length} intervals stored in the given array.
+     */
+    public static RewritePath of(int[] steps, int length) {
+        return length == 0 ? EMPTY : new RewritePath(Arrays.copyOf(steps, 2 * length));
+    }
+
+    public int length() {
+        return steps.length / 2;
+    }
+
+    public boolean isEmpty() {
+        return steps.length == 0;
+    }
+
+    public int begin(int level) {
+        return steps[2 * level];
+    }
+
+    public int end(int level) {
+        return steps[2 * level + 1];
+    }
+
+    @Override
+    public int compareTo(RewritePath that) {
+        int length = Math.min(length(), that.length());
+        for (int i = 0; i < length; i++) {
+            int cmp = Integer.compare(begin(i), that.begin(i));
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(length(), that.length());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof RewritePath && Arrays.equals(steps, ((RewritePath) o).steps);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(steps);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < length(); i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append('(').append(begin(i)).append(',').append(end(i)).append(')');
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -47,6 +47,7 @@ public final class Sort implements org.kframework.kore.Sort, Serializable {
     public static final Sort FLOAT          =   Sort.of(Sorts.Float());
     public static final Sort STRING         =   Sort.of(Sorts.String());
     public static final Sort BIT_VECTOR     =   Sort.of(Sorts.MInt());
+    public static final Sort BYTES          =   Sort.of(Sorts.Bytes());
 
     public static final Sort KVARIABLE      =   Sort.of(KORE.Sort("KVariable"));
 
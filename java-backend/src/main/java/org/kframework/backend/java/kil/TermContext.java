@@ -54,7 +54,21 @@ public class TermContext extends JavaSymbolicObject {
      * Forks an identical {@link TermContext}.
      */
     public TermContext fork() {
-        return counter != null ? new TermContext(global, new AtomicLong(counter.get())) : this;
+        return counter != null ? fork(new AtomicLong(counter.get())) : this;
+    }
+
+    /**
+     * Forks an identical {@link TermContext} whose fresh counter starts at the given value.
+     */
+    public TermContext fork(long counterValue) {
+        return fork(new AtomicLong(counterValue));
+    }
+
+    private TermContext fork(AtomicLong counter) {
+        TermContext forked = new TermContext(global, counter);
+        forked.initialVariables = initialVariables;
+        forked.converter = converter;
+        return forked;
     }
 
     public BigInteger freshConstant() {
@@ -68,6 +82,14 @@ public class TermContext extends JavaSymbolicObject {
         return counter.get();
     }
 
+    /**
+     * Advances the fresh counter to at least the given value, so that it never draws the fresh constants drawn by
+     * the contexts forked with {@link #fork(long)}.
+     */
+    public void advanceCounter(long value) {
+        counter.accumulateAndGet(value, Math::max);
+    }
+
     public Definition definition() {
         return global.getDefinition();
     }
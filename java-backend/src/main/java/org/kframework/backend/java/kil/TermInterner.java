@@ -0,0 +1,37 @@
+// Copyright (c) 2018 K Team. All Rights Reserved.
+package org.kframework.backend.java.kil;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import org.kframework.backend.java.symbolic.Stage;
+
+/**
+ * A weak interning table of the ground terms built while rewriting in a {@link GlobalContext}, so that
+ * structurally equal ground terms share one instance along with its lazily computed caches
+ * (e.g., {@link JavaSymbolicObject#isGround()}, {@link JavaSymbolicObject#variableSet()}).
+ * <p>
+ * Terms are only interned when {@code --intern-terms} is given. Each {@link GlobalContext} has its own table: an
+ * interned {@link KItem} keeps the context it was built with and evaluates its functions in it, and a definition is
+ * shared by the rewriters of several contexts (e.g., the requests of a kserver).
+ */
+public final class TermInterner {
+
+    private final Interner<Term> interner = Interners.newWeakInterner();
+
+    TermInterner() { }
+
+    public static boolean isEnabled(GlobalContext global) {
+        return global.stage == Stage.REWRITING
+                && global.rewritingOptions != null
+                && global.rewritingOptions.internTerms;
+    }
+
+    /**
+     * Returns the canonical instance of the given ground term.
+     */
+    @SuppressWarnings("unchecked")
+    <T extends Term> T intern(T term) {
+        assert term.isGround() : "only ground terms can be interned: " + term;
+        return (T) interner.intern(term);
+    }
+}
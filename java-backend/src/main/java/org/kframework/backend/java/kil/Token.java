@@ -3,6 +3,7 @@ package org.kframework.backend.java.kil;
 
 import org.kframework.backend.java.builtins.BitVector;
 import org.kframework.backend.java.builtins.BoolToken;
+import org.kframework.backend.java.builtins.BytesToken;
 import org.kframework.backend.java.builtins.FloatToken;
 import org.kframework.backend.java.builtins.IntToken;
 import org.kframework.backend.java.builtins.StringToken;
@@ -12,6 +13,8 @@ import org.kframework.backend.java.symbolic.Visitor;
 import org.kframework.kore.KToken;
 import org.kframework.utils.StringUtil;
 
+import java.nio.charset.StandardCharsets;
+
 
 /**
  * A K term of the form {@code SORT(#"VALUE")}.
@@ -32,6 +35,8 @@ public abstract class Token extends Term implements KoreRepresentation, KToken {
         } else if (sort.equals(BitVector.SORT)) {
             String[] values = value.split("'");
             return BitVector.of(Long.parseLong(values[1]), Integer.parseInt(values[0]));
+        } else if (sort.equals(BytesToken.SORT)) {
+            return BytesToken.of(StringUtil.unquoteKString(value).getBytes(StandardCharsets.ISO_8859_1));
         } else {
             return UninterpretedToken.of(sort, value);
         }
@@ -16,9 +16,8 @@ import org.kframework.utils.errorsystem.KExceptionManager;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
-import java.lang.reflect.Method;
+import java.lang.invoke.WrongMethodTypeException;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -30,15 +29,28 @@ import java.util.Map;
 public class BuiltinFunction {
 
     /**
-     * Map of {@link KLabelConstant} representation of builtin (hooked) operations to
-     * {@link Method} representation of Java implementation of said operations.
+     * The largest arity of the builtin operations which are invoked through a call site of a fixed type.
      */
-    private final Map<KLabelConstant, MethodHandle> table = new HashMap<>();
+    private static final int MAX_EXACT_ARITY = 4;
+
+    /**
+     * The types {@code (Term, ..., Term, TermContext)Term} of the call sites in {@link #invoke}, indexed by arity.
+     */
+    private static final MethodType[] EXACT_TYPES = new MethodType[MAX_EXACT_ARITY + 1];
+
+    static {
+        for (int arity = 0; arity <= MAX_EXACT_ARITY; arity++) {
+            Class<?>[] parameterTypes = new Class<?>[arity + 1];
+            Arrays.fill(parameterTypes, Term.class);
+            parameterTypes[arity] = TermContext.class;
+            EXACT_TYPES[arity] = MethodType.methodType(Term.class, parameterTypes);
+        }
+    }
 
 
     /**
-     * Constructs a builtin function table mapping KLabels to the methods that implement their builtin
-     * functions.
+     * Resolves the methods that implement the builtin functions of the KLabels, and stores them on the
+     * {@link KLabelConstant}s, adapted to the type of their call site in {@link #invoke}.
      *
      * The "impure" attribute on productions is used to exclude functions from evaluation during compilation,
      * when each rule's right-hand side and condition are partially evaluated. Certain functions, like functions
@@ -64,7 +76,7 @@ public class BuiltinFunction {
                 // TODO(KORE): removed check to allow the rewrite engine to execute impure functions when the Stage flag is incorrectly set.
                 // this allows impure function to execute statically so we need to figure out an alternate solution soon.
 //                if (stage == Stage.INITIALIZING && entry.getValue().getAttr(Attribute.IMPURE_KEY) != null) {
-//                    table.put(KLabelConstant.of(entry.getKey(), definition), throwImpureExceptionHandle);
+//                    KLabelConstant.of(entry.getKey(), definition).setBuiltinHandle(throwImpureExceptionHandle);
 //                    continue;
 //                }
 
@@ -73,11 +85,31 @@ public class BuiltinFunction {
                     continue;
                 }
 
-                table.put(KLabelConstant.of(KORE.KLabel(entry.getKey()), definition), hookProvider.get(hookAttribute));
+                KLabelConstant.of(KORE.KLabel(entry.getKey()), definition)
+                        .setBuiltinHandle(adapt(hookProvider.get(hookAttribute)));
             }
         }
     }
 
+    /**
+     * Adapts the handle of a Java implementation {@code (T1, ..., Tn, TermContext)R} of a builtin operation,
+     * where the {@code Ti} and {@code R} are subtypes of {@link Term}, to the type
+     * {@code (Term, ..., Term, TermContext)Term}, so that the JIT compiler can inline its invocation. The adapted
+     * handle casts its arguments, and throws {@link ClassCastException} if they do not have the expected types.
+     * Returns the given handle if it cannot be adapted.
+     */
+    private static MethodHandle adapt(MethodHandle handle) {
+        int arity = handle.type().parameterCount() - 1;
+        if (arity < 0 || arity > MAX_EXACT_ARITY || handle.isVarargsCollector()) {
+            return handle;
+        }
+        try {
+            return handle.asType(EXACT_TYPES[arity]);
+        } catch (WrongMethodTypeException e) {
+            return handle;
+        }
+    }
+
     private static Term throwImpureException(Object... args) {
         throw new ImpureFunctionException();
     }
@@ -99,12 +131,26 @@ public class BuiltinFunction {
     public Term invoke(TermContext context, KLabelConstant label, Term... arguments)
             throws Throwable {
     // ENABLE EXCEPTION CHECKSTYLE
+        MethodHandle handle = label.builtinHandle();
+        if (arguments.length <= MAX_EXACT_ARITY && handle.type() == EXACT_TYPES[arguments.length]) {
+            switch (arguments.length) {
+            case 0:
+                return (Term) handle.invokeExact(context);
+            case 1:
+                return (Term) handle.invokeExact(arguments[0], context);
+            case 2:
+                return (Term) handle.invokeExact(arguments[0], arguments[1], context);
+            case 3:
+                return (Term) handle.invokeExact(arguments[0], arguments[1], arguments[2], context);
+            case 4:
+                return (Term) handle.invokeExact(arguments[0], arguments[1], arguments[2], arguments[3], context);
+            default:
+                throw new AssertionError("unreachable");
+            }
+        }
         Object[] args = Arrays.copyOf(arguments, arguments.length + 1, Object[].class);
         args[arguments.length] = context;
-        // TODO(YilongL): is reflection/exception really the best way to
-        // deal with builtin functions? builtin functions are supposed to be
-        // super-fast...
-        return (Term) table.get(label).invokeWithArguments(args);
+        return (Term) handle.invokeWithArguments(args);
     }
 
     /**
@@ -116,7 +162,7 @@ public class BuiltinFunction {
      *         otherwise, false
      */
     public boolean isBuiltinKLabel(KLabelConstant label) {
-        return table.containsKey(label);
+        return label.builtinHandle() != null;
     }
 
 }
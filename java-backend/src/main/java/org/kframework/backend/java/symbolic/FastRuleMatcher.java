@@ -18,6 +18,7 @@ import org.kframework.kore.KApply;
 import org.kframework.backend.java.utils.BitSet;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -43,7 +44,14 @@ public class FastRuleMatcher {
     private ConjunctiveFormula[] constraints;
     private final int ruleCount;
 
-    private BitSet empty;
+    /**
+     * The empty rule mask returned on failure. It is never modified, and thus shared by all matches.
+     */
+    private final BitSet empty;
+    /**
+     * The initial constraint of every rule. It is immutable, and thus shared by all matches.
+     */
+    private final ConjunctiveFormula emptyConstraint;
 
     private final GlobalContext global;
 
@@ -55,6 +63,28 @@ public class FastRuleMatcher {
     private boolean continuousSimplification = true;
     private TermContext context;
 
+    /**
+     * The path from the root of the subject to the subterm currently being matched, kept as a stack of
+     * {@code [begin, end)} intervals which grows on the way down and shrinks on the way up. It is only copied into a
+     * {@link RewritePath} when an inner rewrite is found.
+     */
+    private int[] pathSteps = new int[32];
+    private int pathLength;
+
+    /**
+     * The constraint arrays of the nested matches of {@link #matchAssoc}, indexed by nesting depth. They are reused
+     * across matches, as this matcher is only used by one thread.
+     */
+    private final List<ConjunctiveFormula[]> constraintStack = new ArrayList<>();
+    private int nestingDepth;
+
+    /**
+     * True if the variables matched against concrete subterms are bound directly in the substitution of the
+     * constraints, which is the case when rewriting a ground subject without narrowing, as concrete krun does. The
+     * substitution then only maps variables to ground terms, and needs no composition. See {@link #addSubstitution}.
+     */
+    private boolean bindConcreteTerms;
+
     public static ConjunctiveFormula unify(Term term, Term otherTerm, TermContext context) {
         return new FastRuleMatcher(context.global(), 1).unifyEquality(term, otherTerm, false, false, true, context);
     }
@@ -67,6 +97,8 @@ public class FastRuleMatcher {
         this.global = global;
         this.ruleCount = ruleCount;
         constraints = new ConjunctiveFormula[this.ruleCount];
+        empty = BitSet.apply(ruleCount);
+        emptyConstraint = ConjunctiveFormula.of(global);
     }
 
     /**
@@ -85,10 +117,12 @@ public class FastRuleMatcher {
             boolean proveFlag,
             TermContext context) {
 
-        ruleMask.stream().forEach(i -> constraints[i] = ConjunctiveFormula.of(context.global()));
-        empty = BitSet.apply(ruleCount);
+        ruleMask.stream().forEach(i -> constraints[i] = emptyConstraint);
 
-        BitSet theMatchingRules = match(subject.term(), pattern, ruleMask, List());
+        pathLength = 0;
+        nestingDepth = 0;
+        bindConcreteTerms = !narrowing && subject.term().isGround();
+        BitSet theMatchingRules = match(subject.term(), pattern, ruleMask);
 
         List<RuleMatchResult> structuralResults = new ArrayList<>();
         List<RuleMatchResult> transitionResults = new ArrayList<>();
@@ -108,7 +142,7 @@ public class FastRuleMatcher {
             } else {
                 patternConstraint = patternConstraint.addAll(rule.requires());
             }
-            List<Triple<ConjunctiveFormula, Boolean, Map<scala.collection.immutable.List<Pair<Integer, Integer>>, Term>>> ruleResults = ConstrainedTerm.evaluateConstraints(
+            List<Triple<ConjunctiveFormula, Boolean, Map<RewritePath, Term>>> ruleResults = ConstrainedTerm.evaluateConstraints(
                     constraints[i],
                     subject.constraint(),
                     patternConstraint,
@@ -116,7 +150,7 @@ public class FastRuleMatcher {
                             .filter(v -> !v.name().equals(KOREtoBackendKIL.THE_VARIABLE))
                             .collect(Collectors.toSet()),
                     context);
-            for (Triple<ConjunctiveFormula, Boolean, Map<scala.collection.immutable.List<Pair<Integer, Integer>>, Term>> triple : ruleResults) {
+            for (Triple<ConjunctiveFormula, Boolean, Map<RewritePath, Term>> triple : ruleResults) {
                 RuleMatchResult result = new RuleMatchResult(triple.getLeft(), triple.getMiddle(), triple.getRight(), i);
                 if (transitions.stream().anyMatch(rule.att()::contains)) {
                     transitionResults.add(result);
@@ -143,13 +177,13 @@ public class FastRuleMatcher {
          * of the inner rewrites. The path is a list of pairs of integers as opposed to a list of integers because
          * for associative operators the rule may substitute an interval of elements rather then only one element.
          */
-        public final Map<scala.collection.immutable.List<Pair<Integer, Integer>>, Term> rewrites;
+        public final Map<RewritePath, Term> rewrites;
         public final int ruleIndex;
 
         private RuleMatchResult(
                 ConjunctiveFormula constraint,
                 boolean isMatching,
-                Map<scala.collection.immutable.List<Pair<Integer, Integer>>, Term> rewrites,
+                Map<RewritePath, Term> rewrites,
                 int ruleIndex) {
             this.constraint = constraint;
             this.isMatching = isMatching;
@@ -166,11 +200,13 @@ public class FastRuleMatcher {
         this.partialSimplification = partialSimplification;
         this.continuousSimplification = continuousSimplification;
         this.context = context;
-        constraints[0] = ConjunctiveFormula.of(global);
-        empty = BitSet.apply(ruleCount);
+        constraints[0] = emptyConstraint;
         BitSet one = BitSet.apply(1);
         one.makeOnes(1);
-        BitSet theMatchingRules = match(subject, pattern, one, List());
+        pathLength = 0;
+        nestingDepth = 0;
+        bindConcreteTerms = false;
+        BitSet theMatchingRules = match(subject, pattern, one);
         if (theMatchingRules.get(0)) {
             return constraints[0];
         } else {
@@ -182,11 +218,13 @@ public class FastRuleMatcher {
      * Matches the subject against the pattern. The pattern does not contain any disjunctions.
      */
     public List<Substitution<Variable, Term>> matchSinglePattern(Term subject, Term pattern, TermContext context) {
-        constraints[0] = ConjunctiveFormula.of(global);
-        empty = BitSet.apply(ruleCount);
+        constraints[0] = emptyConstraint;
         BitSet one = BitSet.apply(1);
         one.makeOnes(1);
-        BitSet theMatchingRules = match(subject, pattern, one, List());
+        pathLength = 0;
+        nestingDepth = 0;
+        bindConcreteTerms = false;
+        BitSet theMatchingRules = match(subject, pattern, one);
         if (theMatchingRules.get(0)) {
             return constraints[0].getDisjunctiveNormalForm().conjunctions().stream()
                     .map(c -> c.simplify(context))
@@ -200,7 +238,7 @@ public class FastRuleMatcher {
         }
     }
 
-    private BitSet match(Term subject, Term pattern, BitSet ruleMask, scala.collection.immutable.List<Pair<Integer, Integer>> path) {
+    private BitSet match(Term subject, Term pattern, BitSet ruleMask) {
         assert !ruleMask.isEmpty();
 
         // if the pattern is a variable, try to add its binding to the current solution
@@ -209,7 +247,7 @@ public class FastRuleMatcher {
         }
 
         if (subject.isSymbolic()) {
-            return addUnification(subject, pattern, ruleMask, path);
+            return addUnification(subject, pattern, ruleMask);
         }
 
         if (pattern instanceof RuleAutomatonDisjunction) {
@@ -228,13 +266,13 @@ public class FastRuleMatcher {
 
             // handle associative constructs with identity
             for (Pair<BuiltinList, BitSet> p : automatonDisjunction.assocDisjunctionArray[subject.sort().ordinal()]) {
-                matchInside(subject, ruleMask, path, returnSet, p);
+                matchInside(subject, ruleMask, returnSet, p);
             }
 
             if (subject instanceof KItem) {
                 // main match of KItem
-                matchInside(subject, ruleMask, path, returnSet, automatonDisjunction.getKItemPatternForKLabel((KLabelConstant) ((KItem) subject).kLabel()));
-                checkVarLabelPatterns(subject, ruleMask, path, automatonDisjunction, returnSet);
+                matchInside(subject, ruleMask, returnSet, automatonDisjunction.getKItemPatternForKLabel((KLabelConstant) ((KItem) subject).kLabel()));
+                checkVarLabelPatterns(subject, ruleMask, automatonDisjunction, returnSet);
             } else if (subject instanceof Token) {
                 // and matching Tokens
                 BitSet rules = automatonDisjunction.tokenDisjunctions.get(subject);
@@ -252,18 +290,18 @@ public class FastRuleMatcher {
         if (pattern instanceof KItem && KLabels.KREWRITE.equals(((KItem) pattern).kLabel())) {
             KApply rw = (KApply) pattern;
             InnerRHSRewrite innerRHSRewrite = (InnerRHSRewrite) rw.klist().items().get(1);
-            BitSet theNewMask = match(subject, (Term) rw.klist().items().get(0), ruleMask, path);
+            BitSet theNewMask = match(subject, (Term) rw.klist().items().get(0), ruleMask);
 
             for (int i = theNewMask.nextSetBit(0); i >= 0; i = theNewMask.nextSetBit(i + 1)) {
                 if (innerRHSRewrite.theRHS[i] != null) {
-                    constraints[i] = constraints[i].add(new LocalRewriteTerm(path.reverse(), innerRHSRewrite.theRHS[i]), BoolToken.TRUE);
+                    constraints[i] = constraints[i].add(new LocalRewriteTerm(currentPath(), innerRHSRewrite.theRHS[i]), BoolToken.TRUE);
                 }
             }
             return theNewMask;
         }
 
         if (pattern.isSymbolic()) {
-            return addUnification(subject, pattern, ruleMask, path);
+            return addUnification(subject, pattern, ruleMask);
         }
 
         // normalize associative representations
@@ -296,7 +334,7 @@ public class FastRuleMatcher {
                     continue;
                 }
 
-                ruleMask = match(subjectKList.get(i), patternKList.get(i), ruleMask, path.$colon$colon(Pair.of(i, i + 1)));
+                ruleMask = matchChild(subjectKList.get(i), patternKList.get(i), ruleMask, i, i + 1);
                 if (ruleMask.isEmpty()) {
                     return ruleMask;
                 }
@@ -304,9 +342,9 @@ public class FastRuleMatcher {
 
             return ruleMask;
         } else if (subject instanceof BuiltinList && pattern instanceof BuiltinList) {
-            return matchAssoc((BuiltinList) subject, 0, (BuiltinList) pattern, 0, ruleMask, path);
+            return matchAssoc((BuiltinList) subject, 0, (BuiltinList) pattern, 0, ruleMask);
         } else if (subject instanceof BuiltinMap && pattern instanceof BuiltinMap) {
-            return unifyMapModuloPatternFolding((BuiltinMap) subject, (BuiltinMap) pattern, ruleMask, path);
+            return unifyMapModuloPatternFolding((BuiltinMap) subject, (BuiltinMap) pattern, ruleMask);
         } else if (subject instanceof Token && pattern instanceof Token) {
             // TODO: make tokens unique?
             if (subject.equals(pattern)) {
@@ -315,7 +353,7 @@ public class FastRuleMatcher {
                 return empty;
             }
         } else if (subject instanceof BuiltinSet && pattern instanceof BuiltinSet) {
-            return unifySet((BuiltinSet) subject, (BuiltinSet) pattern, ruleMask, path);
+            return unifySet((BuiltinSet) subject, (BuiltinSet) pattern, ruleMask);
         } else {
             assert subject instanceof KItem || subject instanceof BuiltinList || subject instanceof Token || subject instanceof BuiltinMap : "unexpected class at matching: " + subject.getClass();
             assert pattern instanceof KItem || pattern instanceof BuiltinList || pattern instanceof Token : "unexpected class at matching: " + pattern.getClass();
@@ -323,21 +361,21 @@ public class FastRuleMatcher {
         }
     }
 
-    private void checkVarLabelPatterns(Term subject, BitSet ruleMask, scala.collection.immutable.List<Pair<Integer, Integer>> path, RuleAutomatonDisjunction automatonDisjunction, BitSet returnSet) {
+    private void checkVarLabelPatterns(Term subject, BitSet ruleMask, RuleAutomatonDisjunction automatonDisjunction, BitSet returnSet) {
         List<Pair<KItem, BitSet>> varLabelPatterns = automatonDisjunction.getKItemPatternByArity(((KItem) subject).klist().size());
         if (!(varLabelPatterns == null)) {
             for (Pair<KItem, BitSet> p : varLabelPatterns) {
-                matchInside(subject, ruleMask, path, returnSet, p);
+                matchInside(subject, ruleMask, returnSet, p);
             }
         }
     }
 
-    private void matchInside(Term subject, BitSet ruleMask, scala.collection.immutable.List<Pair<Integer, Integer>> path, BitSet returnSet, Pair<? extends Term, BitSet> pSeq) {
+    private void matchInside(Term subject, BitSet ruleMask, BitSet returnSet, Pair<? extends Term, BitSet> pSeq) {
         if (pSeq != null) {
             if (ruleMask.intersects(pSeq.getRight())) {
                 BitSet localRuleMaskSeq = ((BitSet) ruleMask.clone());
                 localRuleMaskSeq.and(pSeq.getRight());
-                localRuleMaskSeq = match(subject, pSeq.getLeft(), localRuleMaskSeq, path);
+                localRuleMaskSeq = match(subject, pSeq.getLeft(), localRuleMaskSeq);
                 returnSet.or(localRuleMaskSeq);
             }
         }
@@ -350,7 +388,7 @@ public class FastRuleMatcher {
      * * klabel variables only stand for non-assoc klabels
      * * no klist variables
      */
-    private BitSet matchAssoc(BuiltinList subject, int subjectIndex, BuiltinList pattern, int patternIndex, BitSet ruleMask, scala.collection.immutable.List<Pair<Integer, Integer>> path) {
+    private BitSet matchAssoc(BuiltinList subject, int subjectIndex, BuiltinList pattern, int patternIndex, BitSet ruleMask) {
         assert subject.sort.equals(pattern.sort);
 
         /* match prefix of elements in subject and pattern */
@@ -370,11 +408,7 @@ public class FastRuleMatcher {
         of elements from the head of both the subject and the pattern, and creates an equality between the remaining
         tail of the subject and the pattern */
         if (subjectIndex < subject.size() && !subject.isElement(subjectIndex) && !ruleMask.subset(patternElementTailSplit.tailMask)) {
-            return addUnification(
-                    subject.range(subjectIndex, subject.size()),
-                    pattern.range(patternIndex, pattern.size()),
-                    ruleMask,
-                    subject instanceof BuiltinList.SingletonBuiltinList ? path : path.$colon$colon(Pair.of(subjectIndex, subject.size())));
+            return addListUnification(subject, subjectIndex, pattern, patternIndex, ruleMask);
         }
 
         if (ruleMask.subset(patternElementTailSplit.combinedMask)) {
@@ -387,9 +421,11 @@ public class FastRuleMatcher {
                 elementMask = patternElementTailSplit.elementMask.clone();
                 elementMask.and(ruleMask);
                 if (!elementMask.isEmpty()) {
-                    elementMask = match(subject.get(subjectIndex), patternElementTailSplit.element, elementMask, subject instanceof BuiltinList.SingletonBuiltinList ? path : path.$colon$colon(Pair.of(subjectIndex, subjectIndex + 1)));
+                    elementMask = subject instanceof BuiltinList.SingletonBuiltinList
+                            ? match(subject.get(subjectIndex), patternElementTailSplit.element, elementMask)
+                            : matchChild(subject.get(subjectIndex), patternElementTailSplit.element, elementMask, subjectIndex, subjectIndex + 1);
                     if (!elementMask.isEmpty()) {
-                        elementMask = matchAssoc(subject, subjectIndex + 1, pattern, patternIndex + 1, elementMask, path);
+                        elementMask = matchAssoc(subject, subjectIndex + 1, pattern, patternIndex + 1, elementMask);
                     }
                 }
             }
@@ -397,7 +433,7 @@ public class FastRuleMatcher {
             BitSet tailMask = patternElementTailSplit.tailMask.clone();
             tailMask.and(ruleMask);
             if (!tailMask.isEmpty()) {
-                tailMask = match(subject.range(subjectIndex, subject.size()), patternElementTailSplit.tail, tailMask, path.$colon$colon(Pair.of(subjectIndex, subject.size())));
+                tailMask = matchChild(subject.range(subjectIndex, subject.size()), patternElementTailSplit.tail, tailMask, subjectIndex, subject.size());
             }
 
             BitSet resultSet = elementMask.clone();
@@ -406,18 +442,15 @@ public class FastRuleMatcher {
         }
 
         if (!subject.isConcreteCollection()) {
-            return addUnification(
-                    subject.range(subjectIndex, subject.size()),
-                    pattern.range(patternIndex, pattern.size()),
-                    ruleMask,
-                    subject instanceof BuiltinList.SingletonBuiltinList ? path : path.$colon$colon(Pair.of(subjectIndex, subject.size())));
+            return addListUnification(subject, subjectIndex, pattern, patternIndex, ruleMask);
         }
 
         ListMultimap<Integer, ConjunctiveFormula> nestedConstraints = ArrayListMultimap.create();
+        ConjunctiveFormula[] scratchConstraints = pushNestedConstraints();
         for (int i = subjectIndex; i <= subject.size(); i++) {
             ConjunctiveFormula[] oldConstraints = constraints;
-            constraints = new ConjunctiveFormula[constraints.length];
-            ruleMask.stream().forEach(j -> constraints[j] = ConjunctiveFormula.of(global));
+            constraints = scratchConstraints;
+            ruleMask.stream().forEach(j -> constraints[j] = emptyConstraint);
             BitSet oldRuleMask = ruleMask;
             ruleMask = oldRuleMask.clone();
 
@@ -425,10 +458,12 @@ public class FastRuleMatcher {
             this can only happen when the pattern contains a rewrite with a list pattern in the LHS,
             which means there are no deep-nested rewrites,
             which in turn means the inaccurate paths will never be used */
-            ruleMask = match(subject.range(subjectIndex, i), pattern.get(patternIndex), ruleMask, subject instanceof BuiltinList.SingletonBuiltinList ? path : path.$colon$colon(Pair.of(subjectIndex, i)));
+            ruleMask = subject instanceof BuiltinList.SingletonBuiltinList
+                    ? match(subject.range(subjectIndex, i), pattern.get(patternIndex), ruleMask)
+                    : matchChild(subject.range(subjectIndex, i), pattern.get(patternIndex), ruleMask, subjectIndex, i);
 
             if (!ruleMask.isEmpty()) {
-                ruleMask = matchAssoc(subject, i, pattern, patternIndex + 1, ruleMask, path);
+                ruleMask = matchAssoc(subject, i, pattern, patternIndex + 1, ruleMask);
 
                 ruleMask.stream().forEach(j -> {
                     if (!constraints[j].isFalse()) {
@@ -440,6 +475,7 @@ public class FastRuleMatcher {
             constraints = oldConstraints;
             ruleMask = oldRuleMask;
         }
+        nestingDepth--;
 
         ruleMask = BitSet.apply(ruleCount);
         for (Map.Entry<Integer, Collection<ConjunctiveFormula>> entry : nestedConstraints.asMap().entrySet()) {
@@ -461,6 +497,59 @@ public class FastRuleMatcher {
         return ruleMask;
     }
 
+    /**
+     * Returns the constraint array of the next nesting depth of {@link #matchAssoc}, which must be released by
+     * decrementing {@link #nestingDepth} once the nested matches are done.
+     */
+    private ConjunctiveFormula[] pushNestedConstraints() {
+        if (nestingDepth == constraintStack.size()) {
+            constraintStack.add(new ConjunctiveFormula[ruleCount]);
+        }
+        return constraintStack.get(nestingDepth++);
+    }
+
+    /**
+     * Matches the subject, which is the child of the current subterm at the given interval, against the pattern.
+     */
+    private BitSet matchChild(Term subject, Term pattern, BitSet ruleMask, int begin, int end) {
+        int length = pushPath(begin, end);
+        BitSet result = match(subject, pattern, ruleMask);
+        pathLength = length;
+        return result;
+    }
+
+    /**
+     * Extends the current path with the given interval, and returns the previous length of the path.
+     */
+    private int pushPath(int begin, int end) {
+        int length = pathLength;
+        if (2 * length + 2 > pathSteps.length) {
+            pathSteps = Arrays.copyOf(pathSteps, 2 * pathSteps.length);
+        }
+        pathSteps[2 * length] = begin;
+        pathSteps[2 * length + 1] = end;
+        pathLength = length + 1;
+        return length;
+    }
+
+    private RewritePath currentPath() {
+        return RewritePath.of(pathSteps, pathLength);
+    }
+
+    /**
+     * Adds the unification of the remaining elements of the subject and pattern lists.
+     */
+    private BitSet addListUnification(BuiltinList subject, int subjectIndex, BuiltinList pattern, int patternIndex, BitSet ruleMask) {
+        Term subjectRange = subject.range(subjectIndex, subject.size());
+        Term patternRange = pattern.range(patternIndex, pattern.size());
+        if (subject instanceof BuiltinList.SingletonBuiltinList) {
+            return addUnification(subjectRange, patternRange, ruleMask);
+        }
+        int length = pushPath(subjectIndex, subject.size());
+        BitSet result = addUnification(subjectRange, patternRange, ruleMask);
+        pathLength = length;
+        return result;
+    }
 
     private BitSet addSubstitution(Variable variable, Term term, BitSet ruleMask) {
         if (variable.name().equals(KOREtoBackendKIL.THE_VARIABLE)) {
@@ -475,7 +564,16 @@ public class FastRuleMatcher {
             return empty;
         }
 
+        /* a concrete term is bound as is: adding the equality and simplifying the constraint would only copy the
+        substitution, and substitute the term with itself. The equalities the binding may falsify are checked when
+        the constraint of the rule is evaluated, instead of right away. */
+        boolean bindDirectly = bindConcreteTerms && term.isConcrete();
+
         for (int i = ruleMask.nextSetBit(0); i >= 0; i = ruleMask.nextSetBit(i + 1)) {
+            if (bindDirectly && constraints[i].substitution().get(variable) == null) {
+                constraints[i] = constraints[i].unsafeAddVariableBinding(variable, term);
+                continue;
+            }
             constraints[i] = constraints[i].add(variable, term);
             if (continuousSimplification) {
                 constraints[i] = constraints[i].simplify();
@@ -488,7 +586,7 @@ public class FastRuleMatcher {
         return ruleMask;
     }
 
-    private BitSet addUnification(Term subject, Term pattern, BitSet ruleMask, scala.collection.immutable.List<Pair<Integer, Integer>> path) {
+    private BitSet addUnification(Term subject, Term pattern, BitSet ruleMask) {
         for (int i = ruleMask.nextSetBit(0); i >= 0; i = ruleMask.nextSetBit(i + 1)) {
             Term leftHandSide = getLeftHandSide(pattern, i);
             Term rightHandSide = getRightHandSide(pattern, i);
@@ -507,7 +605,7 @@ public class FastRuleMatcher {
             }
 
             if (rightHandSide != null) {
-                constraints[i] = constraints[i].add(new LocalRewriteTerm(path.reverse(), rightHandSide), BoolToken.TRUE);
+                constraints[i] = constraints[i].add(new LocalRewriteTerm(currentPath(), rightHandSide), BoolToken.TRUE);
             }
         }
 
@@ -570,9 +668,9 @@ public class FastRuleMatcher {
      * Unify maps modulo the rules defining recursive patterns. When these rules are oriented from right to left, they become non-deterministic.
      * This method explores all the possible ways of applying these rules.
      */
-    private BitSet unifyMapModuloPatternFolding(BuiltinMap map, BuiltinMap otherMap, BitSet ruleMask, scala.collection.immutable.List<Pair<Integer, Integer>> path) {
+    private BitSet unifyMapModuloPatternFolding(BuiltinMap map, BuiltinMap otherMap, BitSet ruleMask) {
         if (!patternFold) {
-            return unifyMap(map, otherMap, ruleMask, path);
+            return unifyMap(map, otherMap, ruleMask);
         }
 
         Set<BuiltinMap> foldedMaps = Sets.newLinkedHashSet();
@@ -608,14 +706,14 @@ public class FastRuleMatcher {
 
         /* no folding occurred */
         if (foldedMaps.size() == 1) {
-            return unifyMap(map, otherMap, ruleMask, path);
+            return unifyMap(map, otherMap, ruleMask);
         }
 
         /* made no progress */
-        return addUnification(map, otherMap, ruleMask, path);
+        return addUnification(map, otherMap, ruleMask);
     }
 
-    private BitSet unifyMap(BuiltinMap map, BuiltinMap otherMap, BitSet ruleMask, scala.collection.immutable.List<Pair<Integer, Integer>> path) {
+    private BitSet unifyMap(BuiltinMap map, BuiltinMap otherMap, BitSet ruleMask) {
         assert map.collectionFunctions().isEmpty() && otherMap.collectionFunctions().isEmpty();
 
         Map<Term, Term> entries = map.getEntries();
@@ -624,7 +722,7 @@ public class FastRuleMatcher {
         Map<Term, Term> remainingEntries = new HashMap<>();
         Map<Term, Term> otherRemainingEntries = new HashMap<>();
         for (Term key : commonKeys) {
-            ruleMask = match(entries.get(key), otherEntries.get(key), ruleMask, path);
+            ruleMask = match(entries.get(key), otherEntries.get(key), ruleMask);
             if (ruleMask.isEmpty()) {
                 return ruleMask;
             }
@@ -653,7 +751,7 @@ public class FastRuleMatcher {
                     List<Term> patternOutput = pattern.getPatternOutput();
                     List<Term> otherPatternOutput = otherPattern.getPatternOutput();
                     for (int i = 0; i < patternOutput.size(); ++i) {
-                        match(patternOutput.get(i), otherPatternOutput.get(i), ruleMask, path);
+                        match(patternOutput.get(i), otherPatternOutput.get(i), ruleMask);
                     }
                     unifiedPatterns.add(pattern);
                     otherUnifiedPatterns.add(otherPattern);
@@ -708,18 +806,18 @@ public class FastRuleMatcher {
                 || !(otherRemainingMap instanceof BuiltinMap && ((BuiltinMap) otherRemainingMap).isEmpty())) {
             if (remainingMap instanceof Variable || otherRemainingMap instanceof Variable || partialSimplification) {
                 // map equality resolved or partial simplification enabled
-                return addUnification(remainingMap, otherRemainingMap, ruleMask, path);
+                return addUnification(remainingMap, otherRemainingMap, ruleMask);
             } else {
                 /* unable to dissolve the entire map equality; thus, we need to
                  * preserve the original map terms for pattern folding */
-                return addUnification(map, otherMap, ruleMask, path);
+                return addUnification(map, otherMap, ruleMask);
             }
         }
 
         return ruleMask;
     }
 
-    private BitSet unifySet(BuiltinSet set, BuiltinSet otherSet, BitSet ruleMask, scala.collection.immutable.List<Pair<Integer, Integer>> path) {
+    private BitSet unifySet(BuiltinSet set, BuiltinSet otherSet, BitSet ruleMask) {
         assert set.collectionFunctions().isEmpty() && set.collectionPatterns().isEmpty()
                 && otherSet.collectionFunctions().isEmpty() && otherSet.collectionPatterns().isEmpty();
 
@@ -759,7 +857,7 @@ public class FastRuleMatcher {
 
         if (!(remainingSet instanceof BuiltinSet && ((BuiltinSet) remainingSet).isEmpty())
                 || !(otherRemainingSet instanceof BuiltinSet && ((BuiltinSet) otherRemainingSet).isEmpty())) {
-            return addUnification(remainingSet, otherRemainingSet, ruleMask, path);
+            return addUnification(remainingSet, otherRemainingSet, ruleMask);
         }
 
         return ruleMask;
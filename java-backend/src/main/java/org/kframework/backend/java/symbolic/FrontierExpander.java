@@ -0,0 +1,84 @@
+// Copyright (c) 2018 K Team. All Rights Reserved.
+package org.kframework.backend.java.symbolic;
+
+import com.google.common.collect.Lists;
+import org.kframework.backend.java.kil.ConstrainedTerm;
+import org.kframework.backend.java.kil.TermContext;
+import org.kframework.utils.errorsystem.KEMException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+
+/**
+ * Expands one level of a breadth-first exploration of the state space.
+ * <p>
+ * With a single thread the states are expanded lazily, in order, on the calling thread, so that a search which
+ * reaches its bound stops expanding the rest of the level. Otherwise each state is expanded
+ * by a task of a {@link ForkJoinPool}, on a forked {@link TermContext} so that workers do not share the mutable
+ * top term and top constraint. The expansions are returned in the order of the frontier, so the caller can
+ * update its visited set and search results exactly as the sequential exploration would.
+ * <p>
+ * The fresh constants drawn by a state must not depend on the scheduling of the workers. The fork of the i-th state
+ * of a level thus draws them from its own range of {@link #FRESH_CONSTANTS_PER_STATE} values, starting after all
+ * the constants drawn so far, and the counters of the frontier are advanced past all the ranges once the level is
+ * expanded.
+ */
+class FrontierExpander implements AutoCloseable {
+
+    static final long FRESH_CONSTANTS_PER_STATE = 1L << 20;
+
+    private final ForkJoinPool pool;
+
+    FrontierExpander(int threads) {
+        this.pool = threads > 1 ? new ForkJoinPool(threads) : null;
+    }
+
+    /**
+     * Returns the expansions of the given states, in the order of the frontier. In sequential mode the returned
+     * list is a view which expands a state each time it is accessed.
+     */
+    <R> List<R> expand(List<ConstrainedTerm> frontier, Function<ConstrainedTerm, R> expansion) {
+        if (pool == null || frontier.size() < 2) {
+            return Lists.transform(frontier, expansion::apply);
+        }
+
+        long start = 0;
+        for (ConstrainedTerm term : frontier) {
+            start = Math.max(start, term.termContext().getCounterValue());
+        }
+        List<TermContext> forks = new ArrayList<>(frontier.size());
+        List<ForkJoinTask<R>> tasks = new ArrayList<>(frontier.size());
+        for (int i = 0; i < frontier.size(); i++) {
+            ConstrainedTerm term = frontier.get(i);
+            TermContext fork = term.termContext().fork(start + i * FRESH_CONSTANTS_PER_STATE);
+            forks.add(fork);
+            tasks.add(pool.submit(() -> expansion.apply(new ConstrainedTerm(term.term(), term.constraint(), fork))));
+        }
+        List<R> expansions = new ArrayList<>(frontier.size());
+        for (ForkJoinTask<R> task : tasks) {
+            expansions.add(task.join());
+        }
+
+        for (int i = 0; i < forks.size(); i++) {
+            if (forks.get(i).getCounterValue() - (start + i * FRESH_CONSTANTS_PER_STATE) > FRESH_CONSTANTS_PER_STATE) {
+                throw KEMException.internalError("A state of the frontier drew more than "
+                        + FRESH_CONSTANTS_PER_STATE + " fresh constants.");
+            }
+        }
+        long end = start + frontier.size() * FRESH_CONSTANTS_PER_STATE;
+        for (ConstrainedTerm term : frontier) {
+            term.termContext().advanceCounter(end);
+        }
+        return expansions;
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -1,7 +1,6 @@
 // Copyright (c) 2015-2018 K Team. All Rights Reserved.
 package org.kframework.backend.java.symbolic;
 
-import com.google.common.collect.ImmutableList;
 import com.google.inject.Inject;
 import org.kframework.RewriterResult;
 import org.kframework.backend.java.compile.KOREtoBackendKIL;
@@ -70,6 +69,7 @@ public class InitializeRewriter implements Function<Module, Rewriter> {
     private final Map<String, MethodHandle> hookProvider;
     private final List<String> transitions;
     private final KRunOptions krunOptions;
+    private final JavaRewritingOptions rewritingOptions;
     private final FileUtil files;
     private final InitializeDefinition initializeDefinition;
     private static final int NEGATIVE_VALUE = -1;
@@ -82,6 +82,7 @@ public class InitializeRewriter implements Function<Module, Rewriter> {
             KExceptionManager kem,
             SMTOptions smtOptions,
             KRunOptions krunOptions,
+            JavaRewritingOptions rewritingOptions,
             KompileOptions kompileOptions,
             FileUtil files,
             InitializeDefinition initializeDefinition,
@@ -96,17 +97,18 @@ public class InitializeRewriter implements Function<Module, Rewriter> {
         this.transitions = kompileOptions.transition;
         this.kompileOptions = kompileOptions;
         this.krunOptions = krunOptions;
+        this.rewritingOptions = rewritingOptions;
         this.files = files;
         this.initializeDefinition = initializeDefinition;
     }
 
     @Override
     public synchronized Rewriter apply(Module mainModule) {
-        TermContext initializingContext = TermContext.builder(new GlobalContext(fs, deterministicFunctions, globalOptions, krunOptions, kem, smtOptions, hookProvider, files, Stage.INITIALIZING))
+        TermContext initializingContext = TermContext.builder(new GlobalContext(fs, deterministicFunctions, globalOptions, krunOptions, rewritingOptions, kem, smtOptions, hookProvider, files, Stage.INITIALIZING))
                 .freshCounter(0).build();
         Definition definition;
         definition = initializeDefinition.invoke(mainModule, kem, initializingContext.global());
-        GlobalContext rewritingContext = new GlobalContext(fs, deterministicFunctions, globalOptions, krunOptions, kem, smtOptions, hookProvider, files, Stage.REWRITING);
+        GlobalContext rewritingContext = new GlobalContext(fs, deterministicFunctions, globalOptions, krunOptions, rewritingOptions, kem, smtOptions, hookProvider, files, Stage.REWRITING);
         rewritingContext.setDefinition(definition);
 
         return new SymbolicRewriterGlue(mainModule, definition, definition, transitions, initializingContext.getCounterValue(), rewritingContext, kem, files, kompileOptions, sw);
@@ -166,6 +168,7 @@ public class InitializeRewriter implements Function<Module, Rewriter> {
             Term backendKil = converter.convert(macroExpander.expand(resolveCasts.resolve(k))).evaluate(termContext);
             SymbolicRewriter rewriter = new SymbolicRewriter(rewritingContext, transitions, converter);
             RewriterResult result = rewriter.rewrite(new ConstrainedTerm(backendKil, termContext), depth.orElse(-1));
+            rewritingContext.constraintOps.flushQueryCache();
             return result;
         }
 
@@ -185,7 +188,9 @@ public class InitializeRewriter implements Function<Module, Rewriter> {
             Term javaTerm = converter.convert(macroExpander.expand(resolveCasts.resolve(initialConfiguration))).evaluate(termContext);
             org.kframework.backend.java.kil.Rule javaPattern = converter.convert(Optional.empty(), transformFunction(JavaBackend::convertKSeqToKApply, pattern));
             SymbolicRewriter rewriter = new SymbolicRewriter(rewritingContext, transitions, converter);
-            return rewriter.search(javaTerm, javaPattern, bound.orElse(NEGATIVE_VALUE), depth.orElse(NEGATIVE_VALUE), searchType, termContext);
+            K result = rewriter.search(javaTerm, javaPattern, bound.orElse(NEGATIVE_VALUE), depth.orElse(NEGATIVE_VALUE), searchType, termContext);
+            rewritingContext.constraintOps.flushQueryCache();
+            return result;
         }
 
 
@@ -222,6 +227,7 @@ public class InitializeRewriter implements Function<Module, Rewriter> {
                     })
                     .flatMap(List::stream)
                     .collect(Collectors.toList());
+            rewritingContext.constraintOps.flushQueryCache();
 
             return proofResults.stream()
                     .map(ConstrainedTerm::term)
@@ -265,8 +271,8 @@ public class InitializeRewriter implements Function<Module, Rewriter> {
 
             ConjunctiveFormula ensure = ConjunctiveFormula.of(global);
 
-            ImmutableList<Term> l1 = getChildren(e1);
-            ImmutableList<Term> l2 = getChildren(e2);
+            List<Term> l1 = getChildren(e1);
+            List<Term> l2 = getChildren(e2);
 
             assert l1.size() == l2.size();
             for (int j = 0; j < l1.size(); j++) {
@@ -279,7 +285,7 @@ public class InitializeRewriter implements Function<Module, Rewriter> {
             return ensure;
         }
 
-        private static ImmutableList<Term> getChildren(ConjunctiveFormula e) {
+        private static List<Term> getChildren(ConjunctiveFormula e) {
             // TODO: make it better
             assert e.equalities().size() == 1;
             assert e.equalities().get(0).leftHandSide() instanceof KItem;
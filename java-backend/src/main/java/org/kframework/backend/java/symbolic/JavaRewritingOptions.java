@@ -0,0 +1,32 @@
+// Copyright (c) 2018 K Team. All Rights Reserved.
+package org.kframework.backend.java.symbolic;
+
+import com.beust.jcommander.Parameter;
+import org.kframework.utils.inject.RequestScoped;
+import org.kframework.utils.options.PositiveInteger;
+
+/**
+ * Experimental options of krun and kprove tuning the rewriting performed by the Java backend.
+ */
+@RequestScoped
+public final class JavaRewritingOptions {
+
+    @Parameter(names="--search-threads", validateValueWith=PositiveInteger.class, description="Number of threads "
+            + "used to expand each level of the state space during search and proving in the Java backend.")
+    public int searchThreads = 1;
+
+    @Parameter(names="--intern-terms", description="Share one instance between structurally equal ground terms "
+            + "built during rewriting, so that they are compared by identity and share their cached properties.")
+    public boolean internTerms = false;
+
+    public static final int DEFAULT_MEMO_CACHE_SIZE = 10000;
+
+    @Parameter(names="--memoize-functions", description="Cache the results of all the functions which are not "
+            + "[impure] on concrete arguments, rather than only those of the functions with the [memo] attribute.")
+    public boolean memoizeFunctions = false;
+
+    @Parameter(names="--memo-cache-size", validateValueWith=PositiveInteger.class, description="Maximum number of "
+            + "results cached for each memoized function.")
+    public int memoCacheSize = DEFAULT_MEMO_CACHE_SIZE;
+
+}
@@ -10,6 +10,7 @@ import org.apache.commons.lang3.tuple.Pair;
 import org.kframework.attributes.Att;
 import org.kframework.backend.java.builtins.BitVector;
 import org.kframework.backend.java.builtins.BoolToken;
+import org.kframework.backend.java.builtins.BytesToken;
 import org.kframework.backend.java.builtins.FloatToken;
 import org.kframework.backend.java.builtins.IntToken;
 import org.kframework.backend.java.builtins.UninterpretedToken;
@@ -25,6 +26,7 @@ import org.kframework.backend.java.kil.SMTLibTerm;
 import org.kframework.backend.java.kil.Sort;
 import org.kframework.backend.java.kil.SortSignature;
 import org.kframework.backend.java.kil.Term;
+import org.kframework.backend.java.kil.Token;
 import org.kframework.backend.java.kil.Variable;
 import org.kframework.builtin.Sorts;
 import org.kframework.kil.Attribute;
@@ -595,6 +597,18 @@ public class    KILtoSMTLib extends CopyOnWriteTransformer {
         return new SMTLibTerm(Integer.toString(tokenEncoding.get(uninterpretedToken)));
     }
 
+    /**
+     * Translates a byte array into a constant of sort Bytes, which is the same for equal byte arrays.
+     */
+    @Override
+    public JavaSymbolicObject transform(Token token) {
+        if (token instanceof BytesToken) {
+            Variable variable = termAbstractionMap.computeIfAbsent(token, t -> Variable.getAnonVariable(t.sort()));
+            return new SMTLibTerm("|" + variable.name() + "|");
+        }
+        return super.transform(token);
+    }
+
     @Override
     public JavaSymbolicObject transform(BuiltinList builtinList) {
         return builtinList.toKore().accept(this);
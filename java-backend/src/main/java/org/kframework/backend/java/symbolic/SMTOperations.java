@@ -4,8 +4,10 @@ package org.kframework.backend.java.symbolic;
 import org.kframework.main.GlobalOptions;
 import org.kframework.backend.java.kil.Definition;
 import org.kframework.backend.java.kil.Variable;
+import org.kframework.backend.java.util.SMTQueryCache;
 import org.kframework.backend.java.util.Z3Wrapper;
 import org.kframework.utils.errorsystem.KExceptionManager;
+import org.kframework.utils.file.FileUtil;
 import org.kframework.utils.options.SMTOptions;
 import org.kframework.utils.options.SMTSolver;
 
@@ -19,17 +21,41 @@ public class SMTOperations {
     private final Z3Wrapper         z3;
     private final GlobalOptions     global;
     private final KExceptionManager kem;
+    private final SMTQueryCache     cache;
 
     public SMTOperations(
             Provider<Definition> definitionProvider,
             SMTOptions smtOptions,
             Z3Wrapper z3,
             KExceptionManager kem,
-            GlobalOptions global) {
+            GlobalOptions global,
+            FileUtil files) {
         this.smtOptions = smtOptions;
         this.z3         = z3;
         this.kem        = kem;
         this.global     = global;
+        this.cache      = smtOptions.z3CacheSize > 0
+                ? new SMTQueryCache(z3, smtOptions.z3CacheSize, smtOptions.z3PersistentCache ? files.resolveKompiled(SMT_CACHE_FILE) : null, kem)
+                : null;
+    }
+
+    private static final String SMT_CACHE_FILE = "smt-cache.bin";
+
+    private boolean isUnsat(String query, int timeout) {
+        return cache != null ? cache.isUnsat(query, timeout) : z3.isUnsat(query, timeout);
+    }
+
+    /**
+     * Saves the SMT query cache if it is persistent, and reports how often it was hit in verbose mode.
+     */
+    public void flushQueryCache() {
+        if (cache == null) {
+            return;
+        }
+        cache.save();
+        if (global.verbose) {
+            System.err.println("SMT query cache: " + cache.hits() + " hits, " + cache.misses() + " misses");
+        }
     }
 
     public boolean checkUnsat(ConjunctiveFormula constraint) {
@@ -44,7 +70,7 @@ public class SMTOperations {
         boolean result = false;
         try {
             String query = KILtoSMTLib.translateConstraint(constraint);
-            result = z3.isUnsat(query, smtOptions.z3CnstrTimeout);
+            result = isUnsat(query, smtOptions.z3CnstrTimeout);
             if (result && RuleAuditing.isAuditBegun()) {
                 System.err.println("SMT query returned unsat: " + query);
             }
@@ -63,7 +89,7 @@ public class SMTOperations {
             Set<Variable> rightOnlyVariables) {
         if (smtOptions.smt == SMTSolver.Z3) {
             try {
-                return z3.isUnsat(
+                return isUnsat(
                         KILtoSMTLib.translateImplication(left, right, rightOnlyVariables),
                         smtOptions.z3ImplTimeout);
             } catch (UnsupportedOperationException | SMTTranslationFailure e) {
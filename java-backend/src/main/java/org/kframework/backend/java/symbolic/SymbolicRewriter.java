@@ -4,7 +4,6 @@ package org.kframework.backend.java.symbolic;
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
-import org.apache.commons.lang3.tuple.Pair;
 import org.kframework.RewriterResult;
 import org.kframework.Strategy;
 import org.kframework.attributes.Att;
@@ -19,12 +18,14 @@ import org.kframework.backend.java.kil.JavaSymbolicObject;
 import org.kframework.backend.java.kil.KItem;
 import org.kframework.backend.java.kil.KLabelConstant;
 import org.kframework.backend.java.kil.KList;
+import org.kframework.backend.java.kil.RewritePath;
 import org.kframework.backend.java.kil.Rule;
 import org.kframework.backend.java.kil.Sort;
 import org.kframework.backend.java.kil.Term;
 import org.kframework.backend.java.kil.TermContext;
 import org.kframework.backend.java.kil.Variable;
 import org.kframework.backend.java.strategies.TransitionCompositeStrategy;
+import org.kframework.backend.java.util.Profiler;
 import org.kframework.builtin.KLabels;
 import org.kframework.kore.FindK;
 import org.kframework.kore.K;
@@ -35,6 +36,7 @@ import org.kframework.backend.java.utils.BitSet;
 import org.kframework.utils.errorsystem.KExceptionManager;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -54,11 +56,20 @@ public class SymbolicRewriter {
     private final Stopwatch stopwatch = Stopwatch.createUnstarted();
     private final KOREtoBackendKIL constructor;
     private boolean transition;
-    private final Set<ConstrainedTerm> superheated = Sets.newHashSet();
-    private final Set<ConstrainedTerm> newSuperheated = Sets.newHashSet();
-    private final FastRuleMatcher theFastMatcher;
+    private final Set<ConstrainedTerm> superheated = Sets.newConcurrentHashSet();
+    private final Set<ConstrainedTerm> newSuperheated = Sets.newConcurrentHashSet();
+    /**
+     * The matcher is mutable, so each thread expanding states in {@link #search} or {@link #proveRule} needs its own.
+     */
+    private final ThreadLocal<FastRuleMatcher> theFastMatcher;
     private final Definition definition;
     private final BitSet allRuleBits;
+    private final int searchThreads;
+    /**
+     * True if the memory allocated by each {@link #rewrite} is reported, which is the case when krun is run with
+     * {@code --profile-allocation}.
+     */
+    private final boolean profileAllocation;
 
     public SymbolicRewriter(GlobalContext global, List<String> transitions,
                             KOREtoBackendKIL constructor) {
@@ -68,7 +79,9 @@ public class SymbolicRewriter {
         this.allRuleBits.makeOnes(definition.ruleTable.size());
         this.strategy = new TransitionCompositeStrategy(transitions);
         this.transitions = transitions;
-        this.theFastMatcher = new FastRuleMatcher(global, definition.ruleTable.size());
+        this.theFastMatcher = ThreadLocal.withInitial(() -> new FastRuleMatcher(global, definition.ruleTable.size()));
+        this.searchThreads = global.rewritingOptions != null ? global.rewritingOptions.searchThreads : 1;
+        this.profileAllocation = global.krunOptions != null && global.krunOptions.experimental.profileAllocation;
         this.transition = true;
     }
 
@@ -78,6 +91,7 @@ public class SymbolicRewriter {
 
     public RewriterResult rewrite(ConstrainedTerm constrainedTerm, int bound) {
         stopwatch.start();
+        Profiler.AllocationSnapshot allocationSnapshot = profileAllocation ? Profiler.allocationSnapshot() : null;
         int step = 0;
         List<ConstrainedTerm> results;
         while (step != bound && !(results = computeRewriteStep(constrainedTerm, step, true)).isEmpty()) {
@@ -89,6 +103,9 @@ public class SymbolicRewriter {
         ConstrainedTerm afterVariableRename = new ConstrainedTerm(constrainedTerm.term(), constrainedTerm.termContext());
 
         stopwatch.stop();
+        if (allocationSnapshot != null) {
+            System.err.println("Rewriting allocation: " + allocationSnapshot.report(step));
+        }
         return new RewriterResult(Optional.of(step), afterVariableRename.term());
     }
 
@@ -152,7 +169,7 @@ public class SymbolicRewriter {
         if (definition.automaton == null) {
             return results;
         }
-        List<FastRuleMatcher.RuleMatchResult> matches = theFastMatcher.matchRulePattern(
+        List<FastRuleMatcher.RuleMatchResult> matches = theFastMatcher.get().matchRulePattern(
                 subject,
                 definition.automaton.leftHandSide(),
                 allRuleBits,
@@ -171,17 +188,7 @@ public class SymbolicRewriter {
 
             // get a map from AST paths to (fine-grained, inner) rewrite RHSs
             assert (matchResult.rewrites.size() > 0);
-            Term theNew;
-            if (matchResult.rewrites.size() == 1)
-            // use the more efficient implementation if we only have one rewrite
-            {
-                theNew = buildRHS(subject.term(), substitution, matchResult.rewrites.keySet().iterator().next(),
-                        matchResult.rewrites.values().iterator().next(), subject.termContext());
-            } else {
-                theNew = buildRHS(subject.term(), substitution,
-                        matchResult.rewrites.entrySet().stream().map(e -> Pair.of(e.getKey(), e.getValue())).collect(Collectors.toList()),
-                        subject.termContext());
-            }
+            Term theNew = buildRHS(subject.term(), substitution, matchResult.rewrites, subject.termContext());
 
             if (!matchResult.isMatching) {
                 theNew = theNew.substituteAndEvaluate(substitution, subject.termContext());
@@ -191,23 +198,29 @@ public class SymbolicRewriter {
 
             theNew = restoreConfigurationIfNecessary(subject, rule, theNew);
 
-            /* eliminate bindings of the substituted variables */
-            ConjunctiveFormula constraint = matchResult.constraint;
-            constraint = constraint.removeBindings(rule.variableSet());
-
-            /* get fresh substitutions of rule variables */
-            Map<Variable, Variable> renameSubst = Variable.rename(rule.variableSet());
-
-            /* rename rule variables in both the term and the constraint */
-            theNew = theNew.substituteWithBinders(renameSubst);
-            constraint = ((ConjunctiveFormula) constraint.substituteWithBinders(renameSubst)).simplify(subject.termContext());
-
-            ConstrainedTerm result = new ConstrainedTerm(theNew, constraint, subject.termContext());
-            if (!matchResult.isMatching) {
-                // TODO(AndreiS): move these some other place
-                result = result.expandPatterns(true);
-                if (result.constraint().isFalse() || result.constraint().checkUnsat()) {
-                    continue;
+            ConstrainedTerm result;
+            if (isConcreteRewrite(rule, matchResult, theNew)) {
+                /* the constraint reduces to the bindings of the rule variables, and there is nothing to rename */
+                result = new ConstrainedTerm(theNew, subject.termContext());
+            } else {
+                /* eliminate bindings of the substituted variables */
+                ConjunctiveFormula constraint = matchResult.constraint;
+                constraint = constraint.removeBindings(rule.variableSet());
+
+                /* get fresh substitutions of rule variables */
+                Map<Variable, Variable> renameSubst = Variable.rename(rule.variableSet());
+
+                /* rename rule variables in both the term and the constraint */
+                theNew = theNew.substituteWithBinders(renameSubst);
+                constraint = ((ConjunctiveFormula) constraint.substituteWithBinders(renameSubst)).simplify(subject.termContext());
+
+                result = new ConstrainedTerm(theNew, constraint, subject.termContext());
+                if (!matchResult.isMatching) {
+                    // TODO(AndreiS): move these some other place
+                    result = result.expandPatterns(true);
+                    if (result.constraint().isFalse() || result.constraint().checkUnsat()) {
+                        continue;
+                    }
                 }
             }
 
@@ -228,6 +241,21 @@ public class SymbolicRewriter {
         return results;
     }
 
+    /**
+     * Returns true if the rewrite of a subject by the given rule is concrete, that is, if the rule matches the
+     * subject by only binding its own variables, and the new term is ground. The result of such a rewrite is the new
+     * term under the true constraint, which spares the removal of the bindings, the renaming of the rule variables
+     * and the simplification of the constraint. Otherwise, the rewrite takes the symbolic path.
+     */
+    private static boolean isConcreteRewrite(Rule rule, FastRuleMatcher.RuleMatchResult matchResult, Term theNew) {
+        ConjunctiveFormula constraint = matchResult.constraint;
+        return matchResult.isMatching
+                && theNew.isGround()
+                && constraint.equalities().isEmpty()
+                && constraint.disjunctions().isEmpty()
+                && rule.variableSet().containsAll(constraint.substitution().keySet());
+    }
+
     private Term restoreConfigurationIfNecessary(ConstrainedTerm subject, Rule rule, Term theNew) {
         if (rule.att().contains(Att.refers_RESTORE_CONFIGURATION())) {
             K strategyCell = new FindK() {
@@ -281,43 +309,31 @@ public class SymbolicRewriter {
     }
 
     /**
-     * goes down the path on the subject to find the rewrite place, does the substitution, and reconstructs the term
-     * on its way up
+     * goes down each of the paths on the subject to find the rewrite places, does the substitutions, and
+     * reconstructs the term on its way up. Only the ancestors of the rewrite places are copied; all the other
+     * subterms are shared with the subject.
      */
-    private Term buildRHS(Term subject, Substitution<Variable, Term> substitution, scala.collection.immutable.List<Pair<Integer, Integer>> path, Term rhs, TermContext context) {
-        if (path.isEmpty()) {
-            return rhs.substituteAndEvaluate(substitution, context);
-        } else {
-            if (subject instanceof KItem) {
-                KItem kItemSubject = (KItem) subject;
-                List<Term> newContents = new ArrayList<>(((KList) kItemSubject.kList()).getContents());
-                newContents.set(path.head().getLeft(), buildRHS(newContents.get(path.head().getLeft()), substitution, (scala.collection.immutable.List<Pair<Integer, Integer>>) path.tail(), rhs, context));
-                return KItem.of(kItemSubject.kLabel(), KList.concatenate(newContents), context.global()).applyAnywhereRules(context);
-            } else if (subject instanceof BuiltinList) {
-                BuiltinList builtinListSubject = (BuiltinList) subject;
-                List<Term> newContents = new ArrayList<>(builtinListSubject.children);
-                newContents.set(path.head().getLeft(), buildRHS(newContents.get(path.head().getLeft()), substitution, (scala.collection.immutable.List<Pair<Integer, Integer>>) path.tail(), rhs, context));
-                return BuiltinList
-                        .builder(builtinListSubject.sort, builtinListSubject.operatorKLabel, builtinListSubject.unitKLabel, builtinListSubject.globalContext())
-                        .addAll(newContents)
-                        .build();
-            } else {
-                throw new AssertionError("unexpected rewrite in subject: " + subject);
-            }
+    static Term buildRHS(Term subject, Substitution<Variable, Term> substitution, Map<RewritePath, Term> rewrites, TermContext context) {
+        RewritePath[] paths = rewrites.keySet().toArray(new RewritePath[rewrites.size()]);
+        if (paths.length > 1) {
+            // group together the rewrites under the same subterm
+            Arrays.sort(paths);
+        }
+        Term[] rightHandSides = new Term[paths.length];
+        for (int i = 0; i < paths.length; i++) {
+            rightHandSides[i] = rewrites.get(paths[i]);
         }
+        return buildRHS(subject, substitution, paths, rightHandSides, 0, paths.length, 0, context);
     }
 
     /**
-     * goes down each of the the paths on the subject to find the rewrite place, does the substitution,
-     * and reconstructs the term on its way up
+     * Rebuilds the subject, which is at the given level of the paths in the range {@code [from, to)}.
      */
-    private Term buildRHS(Term subject, Substitution<Variable, Term> substitution, List<Pair<scala.collection.immutable.List<Pair<Integer, Integer>>, Term>> rewrites, TermContext context) {
-        if (rewrites.size() == 1 && rewrites.get(0).getLeft().isEmpty()) {
-            return rewrites.get(0).getRight().substituteAndEvaluate(substitution, context);
+    private static Term buildRHS(Term subject, Substitution<Variable, Term> substitution, RewritePath[] paths, Term[] rightHandSides, int from, int to, int level, TermContext context) {
+        if (paths[from].length() == level) {
+            return rightHandSides[from].substituteAndEvaluate(substitution, context);
         }
 
-        Map<Pair<Integer, Integer>, List<Pair<scala.collection.immutable.List<Pair<Integer, Integer>>, Term>>> commonPath = rewrites.stream().collect(Collectors.groupingBy(rw -> rw.getLeft().head()));
-
         List<Term> contents;
         if (subject instanceof KItem) {
             contents = ((KList) ((KItem) subject).kList()).getContents();
@@ -326,28 +342,40 @@ public class SymbolicRewriter {
         } else {
             throw new AssertionError("unexpected rewrite in subject: " + subject);
         }
-        List<Term> newContents = new ArrayList<>();
-
-        for (int i = 0; i < contents.size(); i++) {
-            Pair<Integer, Integer> pair = Pair.of(i, i + 1);
-            if (commonPath.containsKey(pair)) {
-                List<Pair<scala.collection.immutable.List<Pair<Integer, Integer>>, Term>> theInnerRewrites = commonPath.get(pair).stream().map(p -> Pair.of(
-                        (scala.collection.immutable.List<Pair<Integer, Integer>>) p.getLeft().tail(), p.getRight())).collect(Collectors.toList());
-                newContents.add(buildRHS(contents.get(i), substitution, theInnerRewrites, context));
-            } else {
-                newContents.add(contents.get(i));
+
+        Term[] newContents = null;
+        for (int i = from, j; i < to; i = j) {
+            int index = paths[i].begin(level);
+            j = i + 1;
+            while (j < to && paths[j].begin(level) == index) {
+                j++;
             }
+            Term child = contents.get(index);
+            Term newChild = buildRHS(child, substitution, paths, rightHandSides, i, j, level + 1, context);
+            if (newChild != child) {
+                if (newContents == null) {
+                    newContents = contents.toArray(new Term[contents.size()]);
+                }
+                newContents[index] = newChild;
+            }
+        }
+        if (newContents == null) {
+            return subject;
         }
 
         if (subject instanceof KItem) {
-            return KItem.of(((KItem) subject).kLabel(), KList.concatenate(newContents), context.global()).applyAnywhereRules(context);
-        } else if (subject instanceof BuiltinList) {
+            Term kLabel = ((KItem) subject).kLabel();
+            KItem kItem = KItem.of(kLabel, KList.concatenate(Arrays.asList(newContents)), context.global());
+            // applyAnywhereRules also normalizes .K ~> K to K, so it cannot be skipped for ~>
+            return kItem.isAnywhereApplicable(context) || KLabels.KSEQ.equals(kLabel)
+                    ? kItem.applyAnywhereRules(context)
+                    : kItem;
+        } else {
+            BuiltinList builtinListSubject = (BuiltinList) subject;
             return BuiltinList
-                    .builder(((BuiltinList) subject).sort, ((BuiltinList) subject).operatorKLabel, ((BuiltinList) subject).unitKLabel, ((BuiltinList) subject).globalContext())
+                    .builder(builtinListSubject.sort, builtinListSubject.operatorKLabel, builtinListSubject.unitKLabel, builtinListSubject.globalContext())
                     .addAll(newContents)
                     .build();
-        } else {
-            throw new AssertionError("unexpected rewrite in subject: " + subject);
         }
     }
 
@@ -484,51 +512,56 @@ public class SymbolicRewriter {
             }
         }
 
-        int step;
-    label:
-        for (step = 0; !queue.isEmpty(); ++step) {
-            superheated.clear();
-            superheated.addAll(newSuperheated);
-            newSuperheated.clear();
-            for (Map.Entry<ConstrainedTerm, Integer> entry : queue.entrySet()) {
-                ConstrainedTerm term = entry.getKey();
-                Integer currentDepth = entry.getValue();
-
-                List<ConstrainedTerm> results = computeRewriteStep(term, step, false);
-
-                if (results.isEmpty() && searchType == SearchType.FINAL) {
-                    if (addSearchResult(searchResults, term, pattern, bound, context)) {
-                        break label;
+        int step = 0;
+        try (FrontierExpander expander = new FrontierExpander(searchThreads)) {
+        label:
+            for (step = 0; !queue.isEmpty(); ++step) {
+                superheated.clear();
+                superheated.addAll(newSuperheated);
+                newSuperheated.clear();
+                int currentStep = step;
+                List<ConstrainedTerm> frontier = new ArrayList<>(queue.keySet());
+                List<List<ConstrainedTerm>> successors = expander.expand(frontier, term -> computeRewriteStep(term, currentStep, false));
+                for (int i = 0; i < frontier.size(); ++i) {
+                    ConstrainedTerm term = frontier.get(i);
+                    Integer currentDepth = queue.get(term);
+
+                    List<ConstrainedTerm> results = successors.get(i);
+
+                    if (results.isEmpty() && searchType == SearchType.FINAL) {
+                        if (addSearchResult(searchResults, term, pattern, bound, context)) {
+                            break label;
+                        }
                     }
-                }
 
-                for (ConstrainedTerm result : results) {
-                    if (!transition) {
-                        nextQueue.put(result, currentDepth);
-                        break;
-                    } else {
-                        // Continue searching if we haven't reached our target
-                        // depth and we haven't already visited this state.
-                        if (currentDepth + 1 != depth && visited.add(result)) {
-                            nextQueue.put(result, currentDepth + 1);
-                        }
-                        // If we aren't searching for only final results, then
-                        // also add this as a result if it matches the pattern.
-                        if (searchType != SearchType.FINAL || currentDepth + 1 == depth) {
-                            if (addSearchResult(searchResults, result, pattern, bound, context)) {
-                                break label;
+                    for (ConstrainedTerm result : results) {
+                        if (!transition) {
+                            nextQueue.put(result, currentDepth);
+                            break;
+                        } else {
+                            // Continue searching if we haven't reached our target
+                            // depth and we haven't already visited this state.
+                            if (currentDepth + 1 != depth && visited.add(result)) {
+                                nextQueue.put(result, currentDepth + 1);
+                            }
+                            // If we aren't searching for only final results, then
+                            // also add this as a result if it matches the pattern.
+                            if (searchType != SearchType.FINAL || currentDepth + 1 == depth) {
+                                if (addSearchResult(searchResults, result, pattern, bound, context)) {
+                                    break label;
+                                }
                             }
                         }
                     }
                 }
-            }
 
-            /* swap the queues */
-            Map<ConstrainedTerm, Integer> temp;
-            temp = queue;
-            queue = nextQueue;
-            nextQueue = temp;
-            nextQueue.clear();
+                /* swap the queues */
+                Map<ConstrainedTerm, Integer> temp;
+                temp = queue;
+                queue = nextQueue;
+                nextQueue = temp;
+                nextQueue.clear();
+            }
         }
 
         stopwatch.stop();
@@ -592,36 +625,20 @@ public class SymbolicRewriter {
         queue.add(initialTerm);
         boolean guarded = false;
         int step = 0;
-        while (!queue.isEmpty()) {
-            step++;
-            for (ConstrainedTerm term : queue) {
-                if (term.implies(targetTerm)) {
-                    continue;
-                }
-
-                /* TODO(AndreiS): terminate the proof with failure based on the klabel _~>_
-                List<Term> leftKContents = term.term().getCellContentsByName("<k>");
-                List<Term> rightKContents = targetTerm.term().getCellContentsByName("<k>");
-                // TODO(YilongL): the `get(0)` seems hacky
-                if (leftKContents.size() == 1 && rightKContents.size() == 1) {
-                    Pair<Term, Variable> leftKPattern = KSequence.splitContentAndFrame(leftKContents.get(0));
-                    Pair<Term, Variable> rightKPattern = KSequence.splitContentAndFrame(rightKContents.get(0));
-                    if (leftKPattern.getRight() != null && rightKPattern.getRight() != null
-                            && leftKPattern.getRight().equals(rightKPattern.getRight())) {
-                        BoolToken matchable = MetaK.matchable(
-                                leftKPattern.getLeft(),
-                                rightKPattern.getLeft(),
-                                term.termContext());
-                        if (matchable != null && matchable.booleanValue()) {
-                            proofResults.add(term);
-                            continue;
-                        }
+        try (FrontierExpander expander = new FrontierExpander(searchThreads)) {
+            while (!queue.isEmpty()) {
+                step++;
+                boolean applySpecRules = guarded;
+                List<ProofStep> proofSteps = expander.expand(queue, term -> proofStep(term, targetTerm, specRules, applySpecRules));
+                for (int i = 0; i < queue.size(); ++i) {
+                    ConstrainedTerm term = queue.get(i);
+                    ProofStep proofStep = proofSteps.get(i);
+                    if (proofStep.implied) {
+                        continue;
                     }
-                }*/
 
-                if (guarded) {
-                    ConstrainedTerm result = applySpecRules(term, specRules);
-                    if (result != null) {
+                    if (proofStep.specResult != null) {
+                        ConstrainedTerm result = proofStep.specResult;
                         if (visited.add(result)) {
                             nextQueue.add(result);
                         } else {
@@ -631,59 +648,71 @@ public class SymbolicRewriter {
                         }
                         continue;
                     }
-                }
 
-                List<ConstrainedTerm> results = fastComputeRewriteStep(term, false, true, true);
-                if (results.isEmpty()) {
-                    /* final term */
-                    proofResults.add(term);
-                } else {
-//                    for (Rule rule : appliedRules) {
-//                        System.err.println(rule.getLocation() + " " + rule.getSource());
-//                    }
-
-                    /* add helper rule */
-                    HashSet<Variable> ruleVariables = new HashSet<>(initialTerm.variableSet());
-                    ruleVariables.addAll(targetTerm.variableSet());
-
-                    /*
-                    rules.add(new Rule(
-                            term.term().substitute(freshSubstitution, definition),
-                            targetTerm.term().substitute(freshSubstitution, definition),
-                            term.constraint().substitute(freshSubstitution, definition),
-                            Collections.<Variable>emptyList(),
-                            new SymbolicConstraint(definition).substitute(freshSubstitution, definition),
-                            IndexingPair.getIndexingPair(term.term()),
-                            new Attributes()));
-                     */
-                }
+                    List<ConstrainedTerm> results = proofStep.results;
+                    if (results.isEmpty()) {
+                        /* final term */
+                        proofResults.add(term);
+                    }
 
-                for (ConstrainedTerm cterm : results) {
-                    ConstrainedTerm result = new ConstrainedTerm(
-                            cterm.term(),
-                            cterm.constraint().removeBindings(
-                                    Sets.difference(
-                                            cterm.constraint().substitution().keySet(),
-                                            initialTerm.variableSet())),
-                            cterm.termContext());
-                    if (visited.add(result)) {
-                        nextQueue.add(result);
+                    for (ConstrainedTerm cterm : results) {
+                        ConstrainedTerm result = new ConstrainedTerm(
+                                cterm.term(),
+                                cterm.constraint().removeBindings(
+                                        Sets.difference(
+                                                cterm.constraint().substitution().keySet(),
+                                                initialTerm.variableSet())),
+                                cterm.termContext());
+                        if (visited.add(result)) {
+                            nextQueue.add(result);
+                        }
                     }
                 }
-            }
 
-            /* swap the queues */
-            List<ConstrainedTerm> temp;
-            temp = queue;
-            queue = nextQueue;
-            nextQueue = temp;
-            nextQueue.clear();
-            guarded = true;
+                /* swap the queues */
+                List<ConstrainedTerm> temp;
+                temp = queue;
+                queue = nextQueue;
+                nextQueue = temp;
+                nextQueue.clear();
+                guarded = true;
+            }
         }
 
         return proofResults;
     }
 
+    /**
+     * The outcome of processing one state of the frontier in {@link #proveRule}: either the state implies the
+     * target, or a specification rule applied to it, or the results of one rewrite step.
+     */
+    private static final class ProofStep {
+        final boolean implied;
+        final ConstrainedTerm specResult;
+        final List<ConstrainedTerm> results;
+
+        ProofStep(boolean implied, ConstrainedTerm specResult, List<ConstrainedTerm> results) {
+            this.implied = implied;
+            this.specResult = specResult;
+            this.results = results;
+        }
+    }
+
+    private ProofStep proofStep(ConstrainedTerm term, ConstrainedTerm targetTerm, List<Rule> specRules, boolean guarded) {
+        if (term.implies(targetTerm)) {
+            return new ProofStep(true, null, Collections.emptyList());
+        }
+
+        if (guarded) {
+            ConstrainedTerm result = applySpecRules(term, specRules);
+            if (result != null) {
+                return new ProofStep(false, result, Collections.emptyList());
+            }
+        }
+
+        return new ProofStep(false, null, fastComputeRewriteStep(term, false, true, true));
+    }
+
     /**
      * Applies the first applicable specification rule and returns the result.
      */
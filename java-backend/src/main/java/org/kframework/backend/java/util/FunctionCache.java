@@ -0,0 +1,106 @@
+// Copyright (c) 2018 K Team. All Rights Reserved.
+package org.kframework.backend.java.util;
+
+import org.kframework.backend.java.kil.KItem;
+import org.kframework.backend.java.kil.KLabelConstant;
+import org.kframework.backend.java.kil.Term;
+import org.kframework.backend.java.kil.TermContext;
+import org.kframework.backend.java.symbolic.JavaRewritingOptions;
+import org.kframework.kil.Attribute;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Bounded caches of the results of functions on concrete arguments, one least-recently-used cache per KLabel.
+ * <p>
+ * The functions whose productions have the {@code memo} attribute are memoized, as are all the functions which are
+ * not {@code impure} if {@code --memoize-functions} is given. A result is only cached if computing it neither
+ * evaluated an impure function (see {@link #recordImpureEvaluation()}) nor generated a fresh constant, since the
+ * result would then not be determined by the arguments alone. Nothing is memoized with
+ * {@code --deterministic-functions}, which checks on every call that only one rule of the function applies.
+ */
+public class FunctionCache {
+
+    private static final ThreadLocal<long[]> impureEvaluations = ThreadLocal.withInitial(() -> new long[1]);
+
+    private final boolean memoizeAll;
+    private final int capacity;
+    private final ConcurrentHashMap<KLabelConstant, Map<Term, Term>> caches = new ConcurrentHashMap<>();
+
+    /**
+     * @param options the options of the Java backend, or {@code null} to only memoize the {@code memo} functions
+     */
+    public FunctionCache(JavaRewritingOptions options) {
+        this.memoizeAll = options != null && options.memoizeFunctions;
+        this.capacity = options != null ? options.memoCacheSize : JavaRewritingOptions.DEFAULT_MEMO_CACHE_SIZE;
+    }
+
+    public boolean isMemoized(KLabelConstant kLabel) {
+        return kLabel.getAttr(Attribute.IMPURE_KEY) == null
+                && (memoizeAll || kLabel.getAttr(Attribute.MEMO_KEY) != null);
+    }
+
+    /**
+     * Returns the result of a call to a memoized function on concrete arguments, from the cache or else computed by
+     * the given evaluation, which returns the call itself if the function cannot be evaluated. The result is cached
+     * if it is determined by the arguments.
+     */
+    public Term evaluate(KItem call, TermContext context, Supplier<Term> evaluation) {
+        KLabelConstant kLabel = (KLabelConstant) call.kLabel();
+        Term result = get(kLabel, call.kList());
+        if (result != null) {
+            return result;
+        }
+        long impureEvaluations = impureEvaluations();
+        long freshCounter = context.getCounterValue();
+        result = evaluation.get();
+        if (result != call
+                && impureEvaluations() == impureEvaluations
+                && context.getCounterValue() == freshCounter) {
+            put(kLabel, call.kList(), result);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the cached result of the function on the given concrete arguments, or {@code null}.
+     */
+    public Term get(KLabelConstant kLabel, Term kList) {
+        Term result = cache(kLabel).get(kList);
+        Profiler.countMemoLookup(kLabel, result != null);
+        return result;
+    }
+
+    public void put(KLabelConstant kLabel, Term kList, Term result) {
+        cache(kLabel).put(kList, result);
+    }
+
+    private Map<Term, Term> cache(KLabelConstant kLabel) {
+        return caches.computeIfAbsent(kLabel, l -> Collections.synchronizedMap(
+                new LinkedHashMap<Term, Term>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<Term, Term> eldest) {
+                        return size() > capacity;
+                    }
+                }));
+    }
+
+    /**
+     * Records that the current thread evaluated, or attempted to evaluate, an impure function.
+     */
+    public static void recordImpureEvaluation() {
+        impureEvaluations.get()[0]++;
+    }
+
+    /**
+     * Returns the number of impure evaluations recorded by the current thread, to be compared before and after the
+     * evaluation of a memoized function.
+     */
+    public static long impureEvaluations() {
+        return impureEvaluations.get()[0];
+    }
+}
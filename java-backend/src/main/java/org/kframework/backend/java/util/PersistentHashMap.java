@@ -0,0 +1,572 @@
+// Copyright (c) 2018 K Team. All Rights Reserved.
+package org.kframework.backend.java.util;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable hash map implemented as a hash array mapped trie, which shares its structure with the maps it is
+ * derived from: {@link #plus} and {@link #minus} copy only the O(log n) nodes on the path to the modified key.
+ * <p>
+ * The map is built by a {@link Builder}, which modifies in place the nodes it created since it was last built, so
+ * that building a map from scratch does not copy a path for each key. The keys and values must not be null.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public final class PersistentHashMap<K, V> extends AbstractMap<K, V> implements Serializable {
+
+    private static final PersistentHashMap<?, ?> EMPTY = new PersistentHashMap<>(null, 0, 0, 0);
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    /**
+     * The maximum depth of a trie: one level per 5 bits of the hash, and a last level for the colliding keys.
+     */
+    private static final int MAX_DEPTH = (Integer.SIZE + BITS - 1) / BITS + 1;
+
+    private final Node root;
+    private final int size;
+    /**
+     * The hash code of this map, as specified by {@link Map#hashCode()}, maintained as entries are added and
+     * removed so that it does not have to be computed over all the entries.
+     */
+    private final int hash;
+    /**
+     * The sum of the hash codes of the keys, i.e., the hash code of {@link #keySet()}.
+     */
+    private final int keysHash;
+
+    private PersistentHashMap(Node root, int size, int hash, int keysHash) {
+        this.root = root;
+        this.size = size;
+        this.hash = hash;
+        this.keysHash = keysHash;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentHashMap<K, V> empty() {
+        return (PersistentHashMap<K, V>) EMPTY;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentHashMap<K, V> copyOf(Map<? extends K, ? extends V> map) {
+        if (map instanceof PersistentHashMap) {
+            return (PersistentHashMap<K, V>) map;
+        }
+        Builder<K, V> builder = new Builder<>();
+        builder.putAll(map);
+        return builder.build();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        return root != null && key != null ? (V) root.find(0, key.hashCode(), key) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Returns a map with the given key mapped to the given value.
+     */
+    public PersistentHashMap<K, V> plus(K key, V value) {
+        V previous = get(key);
+        boolean[] added = new boolean[1];
+        Node newRoot = put(root, null, key, value, added);
+        if (newRoot == root) {
+            return this;
+        }
+        return previous == null
+                ? new PersistentHashMap<>(newRoot, size + 1, hash + entryHash(key, value), keysHash + key.hashCode())
+                : new PersistentHashMap<>(newRoot, size, hash - entryHash(key, previous) + entryHash(key, value),
+                        keysHash);
+    }
+
+    /**
+     * Returns a map without the given key.
+     */
+    public PersistentHashMap<K, V> minus(Object key) {
+        if (root == null || key == null) {
+            return this;
+        }
+        V previous = get(key);
+        if (previous == null) {
+            return this;
+        }
+        Node newRoot = root.remove(null, 0, key.hashCode(), key);
+        return new PersistentHashMap<>(newRoot, size - 1, hash - entryHash(key, previous), keysHash - key.hashCode());
+    }
+
+    public Builder<K, V> toBuilder() {
+        return new Builder<>(root, size, hash, keysHash);
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new EntryIterator<>(root);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                if (!(o instanceof Entry)) {
+                    return false;
+                }
+                Entry<?, ?> entry = (Entry<?, ?>) o;
+                V value = get(entry.getKey());
+                return value != null && value.equals(entry.getValue());
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o instanceof PersistentHashMap) {
+            PersistentHashMap<?, ?> map = (PersistentHashMap<?, ?>) o;
+            if (map.root == root) {
+                return true;
+            } else if (map.size != size || map.hash != hash) {
+                return false;
+            }
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    /**
+     * Returns the hash code of the set of the keys of this map.
+     */
+    int keysHashCode() {
+        return keysHash;
+    }
+
+    private static int entryHash(Object key, Object value) {
+        return key.hashCode() ^ value.hashCode();
+    }
+
+    private static Node put(Node root, Object owner, Object key, Object value, boolean[] added) {
+        if (key == null || value == null) {
+            throw new NullPointerException();
+        }
+        if (root == null) {
+            added[0] = true;
+            return new BitmapNode(owner, bitpos(key.hashCode(), 0), new Object[]{key, value});
+        }
+        return root.put(owner, 0, key.hashCode(), key, value, added);
+    }
+
+    private static int bitpos(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    /**
+     * A node of the trie. Its entries are stored as consecutive pairs in {@link #array}: a key and its value, or
+     * {@code null} and a child node.
+     */
+    private abstract static class Node implements Serializable {
+        /**
+         * The builder allowed to modify this node in place, if any.
+         */
+        transient Object owner;
+        Object[] array;
+
+        Node(Object owner, Object[] array) {
+            this.owner = owner;
+            this.array = array;
+        }
+
+        boolean isOwnedBy(Object owner) {
+            return owner != null && this.owner == owner;
+        }
+
+        abstract Object find(int shift, int hash, Object key);
+
+        abstract Node put(Object owner, int shift, int hash, Object key, Object value, boolean[] added);
+
+        /**
+         * Returns this node without the given key, this node itself if it does not contain the key, or {@code null}
+         * if the key is the only one in this node.
+         */
+        abstract Node remove(Object owner, int shift, int hash, Object key);
+    }
+
+    /**
+     * A node whose entries are indexed by 5 bits of the hash of their keys.
+     */
+    private static final class BitmapNode extends Node {
+        int bitmap;
+
+        BitmapNode(Object owner, int bitmap, Object[] array) {
+            super(owner, array);
+            this.bitmap = bitmap;
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key) {
+            int bit = bitpos(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            int idx = index(bit);
+            Object k = array[2 * idx];
+            Object v = array[2 * idx + 1];
+            if (k == null) {
+                return ((Node) v).find(shift + BITS, hash, key);
+            }
+            return key.equals(k) ? v : null;
+        }
+
+        @Override
+        Node put(Object owner, int shift, int hash, Object key, Object value, boolean[] added) {
+            int bit = bitpos(hash, shift);
+            int idx = index(bit);
+            if ((bitmap & bit) != 0) {
+                Object k = array[2 * idx];
+                Object v = array[2 * idx + 1];
+                if (k == null) {
+                    Node child = ((Node) v).put(owner, shift + BITS, hash, key, value, added);
+                    return child == v ? this : set(owner, 2 * idx + 1, child);
+                }
+                if (key.equals(k)) {
+                    return value == v ? this : set(owner, 2 * idx + 1, value);
+                }
+                added[0] = true;
+                Node child = createNode(owner, shift + BITS, k, v, hash, key, value);
+                BitmapNode node = (BitmapNode) set(owner, 2 * idx + 1, child);
+                node.array[2 * idx] = null;
+                return node;
+            }
+
+            added[0] = true;
+            int n = Integer.bitCount(bitmap);
+            Object[] newArray = new Object[2 * (n + 1)];
+            System.arraycopy(array, 0, newArray, 0, 2 * idx);
+            newArray[2 * idx] = key;
+            newArray[2 * idx + 1] = value;
+            System.arraycopy(array, 2 * idx, newArray, 2 * (idx + 1), 2 * (n - idx));
+            if (isOwnedBy(owner)) {
+                bitmap |= bit;
+                array = newArray;
+                return this;
+            }
+            return new BitmapNode(owner, bitmap | bit, newArray);
+        }
+
+        @Override
+        Node remove(Object owner, int shift, int hash, Object key) {
+            int bit = bitpos(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int idx = index(bit);
+            Object k = array[2 * idx];
+            Object v = array[2 * idx + 1];
+            if (k == null) {
+                Node child = ((Node) v).remove(owner, shift + BITS, hash, key);
+                if (child == v) {
+                    return this;
+                } else if (child != null) {
+                    return set(owner, 2 * idx + 1, child);
+                }
+            } else if (!key.equals(k)) {
+                return this;
+            }
+
+            if (bitmap == bit) {
+                return null;
+            }
+            int n = Integer.bitCount(bitmap);
+            Object[] newArray = new Object[2 * (n - 1)];
+            System.arraycopy(array, 0, newArray, 0, 2 * idx);
+            System.arraycopy(array, 2 * (idx + 1), newArray, 2 * idx, 2 * (n - idx - 1));
+            if (isOwnedBy(owner)) {
+                bitmap ^= bit;
+                array = newArray;
+                return this;
+            }
+            return new BitmapNode(owner, bitmap ^ bit, newArray);
+        }
+
+        private Node set(Object owner, int i, Object value) {
+            if (isOwnedBy(owner)) {
+                array[i] = value;
+                return this;
+            }
+            Object[] newArray = array.clone();
+            newArray[i] = value;
+            return new BitmapNode(owner, bitmap, newArray);
+        }
+
+        private static Node createNode(
+                Object owner, int shift, Object key1, Object value1, int hash2, Object key2, Object value2) {
+            int hash1 = key1.hashCode();
+            if (hash1 == hash2) {
+                return new CollisionNode(owner, hash1, new Object[]{key1, value1, key2, value2});
+            }
+            boolean[] added = new boolean[1];
+            return new BitmapNode(owner, bitpos(hash1, shift), new Object[]{key1, value1})
+                    .put(owner, shift, hash2, key2, value2, added);
+        }
+    }
+
+    /**
+     * A node whose keys all have the same hash.
+     */
+    private static final class CollisionNode extends Node {
+        final int hash;
+
+        CollisionNode(Object owner, int hash, Object[] array) {
+            super(owner, array);
+            this.hash = hash;
+        }
+
+        private int index(Object key) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key) {
+            if (hash != this.hash) {
+                return null;
+            }
+            int i = index(key);
+            return i < 0 ? null : array[i + 1];
+        }
+
+        @Override
+        Node put(Object owner, int shift, int hash, Object key, Object value, boolean[] added) {
+            if (hash != this.hash) {
+                return new BitmapNode(owner, bitpos(this.hash, shift), new Object[]{null, this})
+                        .put(owner, shift, hash, key, value, added);
+            }
+            int i = index(key);
+            Object[] newArray;
+            if (i >= 0) {
+                if (array[i + 1] == value) {
+                    return this;
+                }
+                newArray = array.clone();
+                newArray[i + 1] = value;
+            } else {
+                added[0] = true;
+                newArray = new Object[array.length + 2];
+                System.arraycopy(array, 0, newArray, 0, array.length);
+                newArray[array.length] = key;
+                newArray[array.length + 1] = value;
+            }
+            if (isOwnedBy(owner)) {
+                array = newArray;
+                return this;
+            }
+            return new CollisionNode(owner, hash, newArray);
+        }
+
+        @Override
+        Node remove(Object owner, int shift, int hash, Object key) {
+            int i = hash == this.hash ? index(key) : -1;
+            if (i < 0) {
+                return this;
+            }
+            if (array.length == 2) {
+                return null;
+            }
+            Object[] newArray = new Object[array.length - 2];
+            System.arraycopy(array, 0, newArray, 0, i);
+            System.arraycopy(array, i + 2, newArray, i, array.length - i - 2);
+            if (isOwnedBy(owner)) {
+                array = newArray;
+                return this;
+            }
+            return new CollisionNode(owner, hash, newArray);
+        }
+    }
+
+    private static final class EntryIterator<K, V> implements Iterator<Entry<K, V>> {
+        private final Object[][] arrays = new Object[MAX_DEPTH + 1][];
+        private final int[] indices = new int[MAX_DEPTH + 1];
+        private int depth = -1;
+        private Entry<K, V> next;
+
+        EntryIterator(Node root) {
+            if (root != null) {
+                push(root.array);
+            }
+            advance();
+        }
+
+        private void push(Object[] array) {
+            depth++;
+            arrays[depth] = array;
+            indices[depth] = 0;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void advance() {
+            next = null;
+            while (depth >= 0) {
+                Object[] array = arrays[depth];
+                int i = indices[depth];
+                if (i >= array.length) {
+                    arrays[depth--] = null;
+                    continue;
+                }
+                indices[depth] = i + 2;
+                if (array[i] == null) {
+                    push(((Node) array[i + 1]).array);
+                } else {
+                    next = new SimpleImmutableEntry<>((K) array[i], (V) array[i + 1]);
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Entry<K, V> result = next;
+            advance();
+            return result;
+        }
+    }
+
+    /**
+     * Builds a {@link PersistentHashMap}, starting from an empty map or from the map it was obtained from. Building
+     * a map does not copy it: the built map shares its nodes with the builder, which copies them before its next
+     * modification.
+     */
+    public static final class Builder<K, V> {
+        private Node root;
+        private int size;
+        private int hash;
+        private int keysHash;
+        private Object owner = new Object();
+
+        public Builder() {
+            this(null, 0, 0, 0);
+        }
+
+        private Builder(Node root, int size, int hash, int keysHash) {
+            this.root = root;
+            this.size = size;
+            this.hash = hash;
+            this.keysHash = keysHash;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        @SuppressWarnings("unchecked")
+        public V get(Object key) {
+            return root != null && key != null ? (V) root.find(0, key.hashCode(), key) : null;
+        }
+
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        /**
+         * Maps the given key to the given value, and returns the value previously mapped to the key, if any.
+         */
+        public V put(K key, V value) {
+            V previous = get(key);
+            boolean[] added = new boolean[1];
+            root = PersistentHashMap.put(root, owner, key, value, added);
+            if (added[0]) {
+                size++;
+                keysHash += key.hashCode();
+            } else {
+                hash -= entryHash(key, previous);
+            }
+            hash += entryHash(key, value);
+            return previous;
+        }
+
+        @SuppressWarnings("unchecked")
+        public void putAll(Map<? extends K, ? extends V> map) {
+            if (size == 0 && map instanceof PersistentHashMap) {
+                /* adopt the nodes of the map, which will be copied before they are modified */
+                PersistentHashMap<K, V> persistentMap = (PersistentHashMap<K, V>) map;
+                root = persistentMap.root;
+                size = persistentMap.size;
+                hash = persistentMap.hash;
+                keysHash = persistentMap.keysHash;
+                return;
+            }
+            for (Entry<? extends K, ? extends V> entry : map.entrySet()) {
+                put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        /**
+         * Removes the given key, and returns the value it was mapped to, if any.
+         */
+        public V remove(Object key) {
+            V previous = get(key);
+            if (previous != null) {
+                root = root.remove(owner, 0, key.hashCode(), key);
+                size--;
+                hash -= entryHash(key, previous);
+                keysHash -= key.hashCode();
+            }
+            return previous;
+        }
+
+        public PersistentHashMap<K, V> build() {
+            if (size == 0) {
+                return empty();
+            }
+            /* the nodes of the built map must not be modified by this builder any more */
+            owner = new Object();
+            return new PersistentHashMap<>(root, size, hash, keysHash);
+        }
+    }
+}
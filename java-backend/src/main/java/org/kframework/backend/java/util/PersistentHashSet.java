@@ -0,0 +1,126 @@
+// Copyright (c) 2018 K Team. All Rights Reserved.
+package org.kframework.backend.java.util;
+
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * An immutable hash set sharing its structure with the sets it is derived from, see {@link PersistentHashMap}.
+ *
+ * @param <E> the type of the elements
+ */
+public final class PersistentHashSet<E> extends AbstractSet<E> implements Serializable {
+
+    private static final PersistentHashSet<?> EMPTY = new PersistentHashSet<>(PersistentHashMap.empty());
+
+    /**
+     * Maps each element to itself.
+     */
+    private final PersistentHashMap<E, E> map;
+
+    private PersistentHashSet(PersistentHashMap<E, E> map) {
+        this.map = map;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentHashSet<E> empty() {
+        return (PersistentHashSet<E>) EMPTY;
+    }
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return map.containsKey(o);
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return map.keySet().iterator();
+    }
+
+    public PersistentHashSet<E> plus(E element) {
+        PersistentHashMap<E, E> newMap = map.plus(element, element);
+        return newMap == map ? this : new PersistentHashSet<>(newMap);
+    }
+
+    public PersistentHashSet<E> minus(Object element) {
+        PersistentHashMap<E, E> newMap = map.minus(element);
+        return newMap == map ? this : new PersistentHashSet<>(newMap);
+    }
+
+    public Builder<E> toBuilder() {
+        return new Builder<>(map.toBuilder());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o instanceof PersistentHashSet && ((PersistentHashSet<?>) o).hashCode() != hashCode()) {
+            return false;
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return map.keysHashCode();
+    }
+
+    /**
+     * Builds a {@link PersistentHashSet}, see {@link PersistentHashMap.Builder}.
+     */
+    public static final class Builder<E> {
+        private final PersistentHashMap.Builder<E, E> map;
+
+        public Builder() {
+            this(new PersistentHashMap.Builder<>());
+        }
+
+        private Builder(PersistentHashMap.Builder<E, E> map) {
+            this.map = map;
+        }
+
+        public int size() {
+            return map.size();
+        }
+
+        public boolean contains(Object o) {
+            return map.containsKey(o);
+        }
+
+        public boolean add(E element) {
+            return map.put(element, element) == null;
+        }
+
+        public boolean addAll(Collection<? extends E> elements) {
+            if (map.isEmpty() && elements instanceof PersistentHashSet) {
+                /* adopt the nodes of the set, which will be copied before they are modified */
+                @SuppressWarnings("unchecked")
+                PersistentHashSet<E> set = (PersistentHashSet<E>) elements;
+                map.putAll(set.map);
+                return !set.isEmpty();
+            }
+            boolean changed = false;
+            for (E element : elements) {
+                changed |= add(element);
+            }
+            return changed;
+        }
+
+        public boolean remove(Object element) {
+            return map.remove(element) != null;
+        }
+
+        public PersistentHashSet<E> build() {
+            return map.isEmpty() ? empty() : new PersistentHashSet<>(map.build());
+        }
+    }
+}
@@ -0,0 +1,396 @@
+// Copyright (c) 2018 K Team. All Rights Reserved.
+package org.kframework.backend.java.util;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable list which shares its structure with the lists it is derived from. The elements are stored in
+ * chunks of at most {@value #CHUNK} elements, at the leaves of a height-balanced tree whose inner nodes record the
+ * size of their subtrees. Consequently, the chunks need not be full, and {@link #with}, {@link #subList},
+ * {@link #concat} and {@link #plus} copy only O(log n) nodes, while {@link #get} descends O(log n) nodes.
+ *
+ * @param <E> the type of the elements
+ */
+public final class PersistentVector<E> extends AbstractList<E> implements Serializable {
+
+    private static final int CHUNK = 32;
+
+    private static final PersistentVector<?> EMPTY = new PersistentVector<>(new Leaf(new Object[0]));
+
+    private final Node root;
+
+    private PersistentVector(Node root) {
+        this.root = root;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentVector<E> empty() {
+        return (PersistentVector<E>) EMPTY;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentVector<E> copyOf(List<? extends E> list) {
+        if (list instanceof PersistentVector) {
+            return (PersistentVector<E>) list;
+        }
+        Builder<E> builder = new Builder<>();
+        list.forEach(builder::add);
+        return builder.build();
+    }
+
+    private static <E> PersistentVector<E> of(Node root) {
+        return root.size == 0 ? empty() : new PersistentVector<>(root);
+    }
+
+    @Override
+    public int size() {
+        return root.size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        checkIndex(index, root.size);
+        Node node = root;
+        while (node instanceof Concat) {
+            Concat concat = (Concat) node;
+            if (index < concat.left.size) {
+                node = concat.left;
+            } else {
+                index -= concat.left.size;
+                node = concat.right;
+            }
+        }
+        return (E) ((Leaf) node).elements[index];
+    }
+
+    /**
+     * Returns a list with the element at the given position replaced by the given element.
+     */
+    public PersistentVector<E> with(int index, E element) {
+        checkIndex(index, root.size);
+        return new PersistentVector<>(root.set(index, element));
+    }
+
+    /**
+     * Returns a list with the given element appended.
+     */
+    public PersistentVector<E> plus(E element) {
+        return new PersistentVector<>(join(root, new Leaf(new Object[]{element})));
+    }
+
+    /**
+     * Returns the concatenation of this list and the given list.
+     */
+    public PersistentVector<E> concat(PersistentVector<? extends E> other) {
+        return of(join(root, other.root));
+    }
+
+    @Override
+    public PersistentVector<E> subList(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > root.size || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("fromIndex: " + fromIndex + ", toIndex: " + toIndex
+                    + ", size: " + root.size);
+        }
+        return of(root.slice(fromIndex, toIndex));
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new LeafIterator<>(root);
+    }
+
+    @Override
+    public int hashCode() {
+        return root.power() + root.hash();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o instanceof PersistentVector) {
+            PersistentVector<?> vector = (PersistentVector<?>) o;
+            if (vector.root == root) {
+                return true;
+            } else if (vector.size() != size() || vector.hashCode() != hashCode()) {
+                return false;
+            }
+        }
+        return super.equals(o);
+    }
+
+    private static void checkIndex(int index, int size) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        }
+    }
+
+    /**
+     * A node of the tree. Its hash is computed lazily, and is shared by all the lists containing the node, so that
+     * the hash code of a list derived from a hashed list is computed in O(log n).
+     */
+    private abstract static class Node implements Serializable {
+        final int size;
+        final int height;
+        /**
+         * The polynomial hash of the elements, i.e., {@link List#hashCode()} without the contribution of its
+         * initial value, and 31 to the power of the size.
+         */
+        private transient int hash;
+        private transient int power;
+        private transient volatile boolean hashed;
+
+        Node(int size, int height) {
+            this.size = size;
+            this.height = height;
+        }
+
+        int hash() {
+            computeHashIfNeeded();
+            return hash;
+        }
+
+        int power() {
+            computeHashIfNeeded();
+            return power;
+        }
+
+        private void computeHashIfNeeded() {
+            if (!hashed) {
+                long hashAndPower = computeHash();
+                hash = (int) (hashAndPower >>> 32);
+                power = (int) hashAndPower;
+                hashed = true;
+            }
+        }
+
+        /**
+         * Returns the polynomial hash of the elements in the upper half, and 31 to the power of the size in the
+         * lower half.
+         */
+        abstract long computeHash();
+
+        abstract Node set(int index, Object element);
+
+        abstract Node slice(int fromIndex, int toIndex);
+    }
+
+    private static final class Leaf extends Node {
+        final Object[] elements;
+
+        Leaf(Object[] elements) {
+            super(elements.length, 0);
+            this.elements = elements;
+        }
+
+        @Override
+        long computeHash() {
+            int hash = 0;
+            int power = 1;
+            for (Object element : elements) {
+                hash = 31 * hash + element.hashCode();
+                power *= 31;
+            }
+            return ((long) hash << 32) | (power & 0xffffffffL);
+        }
+
+        @Override
+        Node set(int index, Object element) {
+            Object[] newElements = elements.clone();
+            newElements[index] = element;
+            return new Leaf(newElements);
+        }
+
+        @Override
+        Node slice(int fromIndex, int toIndex) {
+            return fromIndex == 0 && toIndex == size ? this : new Leaf(Arrays.copyOfRange(elements, fromIndex, toIndex));
+        }
+    }
+
+    private static final class Concat extends Node {
+        final Node left;
+        final Node right;
+
+        Concat(Node left, Node right) {
+            super(left.size + right.size, Math.max(left.height, right.height) + 1);
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        long computeHash() {
+            int hash = left.hash() * right.power() + right.hash();
+            int power = left.power() * right.power();
+            return ((long) hash << 32) | (power & 0xffffffffL);
+        }
+
+        @Override
+        Node set(int index, Object element) {
+            return index < left.size
+                    ? new Concat(left.set(index, element), right)
+                    : new Concat(left, right.set(index - left.size, element));
+        }
+
+        @Override
+        Node slice(int fromIndex, int toIndex) {
+            if (fromIndex == 0 && toIndex == size) {
+                return this;
+            } else if (toIndex <= left.size) {
+                return left.slice(fromIndex, toIndex);
+            } else if (fromIndex >= left.size) {
+                return right.slice(fromIndex - left.size, toIndex - left.size);
+            }
+            return join(left.slice(fromIndex, left.size), right.slice(0, toIndex - left.size));
+        }
+    }
+
+    /**
+     * Concatenates two balanced trees into a balanced tree. Two leaves are merged if their elements fit in one
+     * chunk, and a leaf is joined with the leaf at the near end of a larger tree, so that appending elements one by
+     * one fills the chunks.
+     */
+    private static Node join(Node left, Node right) {
+        if (left.size == 0) {
+            return right;
+        } else if (right.size == 0) {
+            return left;
+        }
+
+        if (left instanceof Leaf && right instanceof Leaf) {
+            if (left.size + right.size <= CHUNK) {
+                Object[] elements = Arrays.copyOf(((Leaf) left).elements, left.size + right.size);
+                System.arraycopy(((Leaf) right).elements, 0, elements, left.size, right.size);
+                return new Leaf(elements);
+            }
+            return new Concat(left, right);
+        }
+
+        if (left.height > right.height + 1 || (right instanceof Leaf && left.height > right.height)) {
+            Concat concat = (Concat) left;
+            return balance(concat.left, join(concat.right, right));
+        } else if (right.height > left.height + 1 || (left instanceof Leaf && right.height > left.height)) {
+            Concat concat = (Concat) right;
+            return balance(join(left, concat.left), concat.right);
+        }
+        return new Concat(left, right);
+    }
+
+    /**
+     * Concatenates two balanced trees whose heights differ by at most 2.
+     */
+    private static Node balance(Node left, Node right) {
+        if (left.height > right.height + 1) {
+            Concat concat = (Concat) left;
+            if (concat.left.height >= concat.right.height) {
+                return new Concat(concat.left, new Concat(concat.right, right));
+            }
+            Concat inner = (Concat) concat.right;
+            return new Concat(new Concat(concat.left, inner.left), new Concat(inner.right, right));
+        } else if (right.height > left.height + 1) {
+            Concat concat = (Concat) right;
+            if (concat.right.height >= concat.left.height) {
+                return new Concat(new Concat(left, concat.left), concat.right);
+            }
+            Concat inner = (Concat) concat.left;
+            return new Concat(new Concat(left, inner.left), new Concat(inner.right, concat.right));
+        }
+        return new Concat(left, right);
+    }
+
+    private static final class LeafIterator<E> implements Iterator<E> {
+        /**
+         * The subtrees which remain to be visited, the next one on top.
+         */
+        private final Node[] stack;
+        private int top = 0;
+        private Object[] elements;
+        private int index;
+
+        LeafIterator(Node root) {
+            stack = new Node[root.height + 2];
+            stack[top++] = root;
+            nextLeaf();
+        }
+
+        private void nextLeaf() {
+            elements = null;
+            index = 0;
+            while (top > 0) {
+                Node node = stack[--top];
+                stack[top] = null;
+                if (node instanceof Concat) {
+                    stack[top++] = ((Concat) node).right;
+                    stack[top++] = ((Concat) node).left;
+                } else if (node.size > 0) {
+                    elements = ((Leaf) node).elements;
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return elements != null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E next() {
+            if (elements == null) {
+                throw new NoSuchElementException();
+            }
+            E element = (E) elements[index++];
+            if (index == elements.length) {
+                nextLeaf();
+            }
+            return element;
+        }
+    }
+
+    /**
+     * Builds a {@link PersistentVector} by appending elements to a buffer of one chunk, and lists to the tree built
+     * so far, which is shared with the appended lists.
+     */
+    public static final class Builder<E> {
+        private Node root = EMPTY.root;
+        private Object[] buffer = new Object[CHUNK];
+        private int buffered = 0;
+
+        public int size() {
+            return root.size + buffered;
+        }
+
+        public Builder<E> add(E element) {
+            if (buffered == CHUNK) {
+                flush();
+            }
+            buffer[buffered++] = element;
+            return this;
+        }
+
+        public Builder<E> addAll(PersistentVector<? extends E> vector) {
+            flush();
+            root = join(root, vector.root);
+            return this;
+        }
+
+        private void flush() {
+            if (buffered > 0) {
+                root = join(root, new Leaf(Arrays.copyOf(buffer, buffered)));
+                buffered = 0;
+            }
+        }
+
+        public PersistentVector<E> build() {
+            flush();
+            return of(root);
+        }
+    }
+}
@@ -1,12 +1,16 @@
 // Copyright (c) 2014-2018 K Team. All Rights Reserved.
 package org.kframework.backend.java.util;
 
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import org.apache.commons.collections4.comparators.ReverseComparator;
 import org.kframework.backend.java.kil.KLabelConstant;
@@ -61,6 +65,21 @@ public class Profiler {
         }
     }
 
+    /**
+     * The hits and misses of the memoization cache of each function, see {@link FunctionCache}.
+     */
+    private static final Map<KLabelConstant, AtomicLongArray> MEMO_COUNTERS = new HashMap<>();
+
+    public static void countMemoLookup(KLabelConstant klabel, boolean hit) {
+        if (enableProfilingMode.get()) {
+            AtomicLongArray counters;
+            synchronized (MEMO_COUNTERS) {
+                counters = MEMO_COUNTERS.computeIfAbsent(klabel, l -> new AtomicLongArray(2));
+            }
+            counters.incrementAndGet(hit ? 0 : 1);
+        }
+    }
+
     public static void startTimer(ReentrantStopwatch timer) {
         if (enableProfilingMode.get()) {
             timer.start();
@@ -99,6 +118,72 @@ public class Profiler {
                 ReentrantStopwatch stopwatch = iter.next();
                 System.err.printf("%s = %s%n", stopwatch.name, stopwatch.toString());
             }
+            synchronized (MEMO_COUNTERS) {
+                if (!MEMO_COUNTERS.isEmpty()) {
+                    System.err.println("Memoized functions (hits/misses):");
+                    MEMO_COUNTERS.forEach((klabel, counters) ->
+                            System.err.printf("%s = %d/%d%n", klabel.label(), counters.get(0), counters.get(1)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a snapshot of the memory allocated by the current thread and of the garbage collections of the JVM,
+     * against which the allocations of a rewriting can be measured.
+     */
+    public static AllocationSnapshot allocationSnapshot() {
+        return new AllocationSnapshot();
+    }
+
+    /**
+     * The memory allocated by a thread and the garbage collections of the JVM at some point in time.
+     */
+    public static final class AllocationSnapshot {
+
+        private final long allocatedBytes;
+        private final long collectionCount;
+        private final long collectionMillis;
+
+        private AllocationSnapshot() {
+            allocatedBytes = threadAllocatedBytes();
+            long count = 0;
+            long millis = 0;
+            for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                count += Math.max(collector.getCollectionCount(), 0);
+                millis += Math.max(collector.getCollectionTime(), 0);
+            }
+            collectionCount = count;
+            collectionMillis = millis;
+        }
+
+        /**
+         * Returns a report of the memory allocated and of the garbage collections since this snapshot, in the given
+         * number of rewrite steps.
+         */
+        public String report(int steps) {
+            AllocationSnapshot now = new AllocationSnapshot();
+            StringBuilder sb = new StringBuilder("[").append(steps).append(" steps, ");
+            if (allocatedBytes >= 0 && now.allocatedBytes >= 0) {
+                long bytes = now.allocatedBytes - allocatedBytes;
+                sb.append(bytes).append(" bytes allocated, ")
+                        .append(steps == 0 ? 0 : bytes / steps).append(" bytes/step, ");
+            }
+            return sb.append(now.collectionCount - collectionCount).append(" collections, ")
+                    .append(now.collectionMillis - collectionMillis).append(" ms in GC]").toString();
+        }
+
+        /**
+         * Returns the number of bytes allocated so far by the current thread, or -1 if the JVM cannot measure it.
+         */
+        private static long threadAllocatedBytes() {
+            ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+            if (threadBean instanceof com.sun.management.ThreadMXBean
+                    && ((com.sun.management.ThreadMXBean) threadBean).isThreadAllocatedMemoryEnabled()) {
+                return ((com.sun.management.ThreadMXBean) threadBean).getThreadAllocatedBytes(
+                        Thread.currentThread().getId());
+            }
+            return -1;
         }
     }
 
@@ -0,0 +1,219 @@
+// Copyright (c) 2018 K Team. All Rights Reserved.
+package org.kframework.backend.java.util;
+
+import org.kframework.utils.BinaryLoader;
+import org.kframework.utils.errorsystem.KExceptionManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A bounded cache of the results of SMT queries, consulted before a query is sent to {@link Z3Wrapper}.
+ * <p>
+ * Queries are keyed on their SMT-LIB text after alpha-renaming the variables, so queries which only differ in
+ * the names of fresh variables share one entry. Definite answers are reused regardless of the timeout; a query
+ * on which Z3 gave up because of its timeout is only answered from the cache if it is checked again with at most
+ * the same timeout.
+ */
+public class SMTQueryCache {
+
+    public enum Result {
+        UNSAT, SAT, UNKNOWN, TIMEOUT
+    }
+
+    private static class CachedResult implements Serializable {
+        final Result result;
+        final int timeout;
+
+        CachedResult(Result result, int timeout) {
+            this.result = result;
+            this.timeout = timeout;
+        }
+    }
+
+    /**
+     * The contents of a cache saved to disk. The solver configuration (the SMT prelude and the check-sat
+     * command) is saved along with the entries, which are discarded if the configuration changes.
+     */
+    private static class SavedCache implements Serializable {
+        final String solverConfiguration;
+        final HashMap<String, CachedResult> entries;
+
+        SavedCache(String solverConfiguration, HashMap<String, CachedResult> entries) {
+            this.solverConfiguration = solverConfiguration;
+            this.entries = entries;
+        }
+    }
+
+    /**
+     * Variables are the only symbols that {@link org.kframework.backend.java.symbolic.KILtoSMTLib} quotes. String
+     * literals are matched as well, so that a {@code |} inside of one is not mistaken for a quoted symbol.
+     */
+    private static final Pattern QUOTED_SYMBOL = Pattern.compile("(\"(?:[^\"]|\"\")*\")|\\|[^|]*\\|");
+    private static final String CONSTANT_DECLARATION = "(declare-fun |";
+
+    private final Z3Wrapper z3;
+    private final Map<String, CachedResult> cache;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final File file;
+    private final KExceptionManager kem;
+    private volatile boolean loaded;
+
+    /**
+     * @param file the file the cache is loaded from and saved to, or {@code null} if it is not persistent
+     */
+    public SMTQueryCache(Z3Wrapper z3, int capacity, File file, KExceptionManager kem) {
+        this.z3 = z3;
+        this.file = file;
+        this.kem = kem;
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<String, CachedResult>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResult> eldest) {
+                return size() > capacity;
+            }
+        });
+    }
+
+    public boolean isUnsat(String query, int timeout) {
+        if (!loaded) {
+            load();
+        }
+        String key = canonicalize(query);
+        CachedResult entry = cache.get(key);
+        if (entry != null && (entry.result != Result.TIMEOUT || timeout <= entry.timeout)) {
+            hits.incrementAndGet();
+            return entry.result == Result.UNSAT;
+        }
+        misses.incrementAndGet();
+
+        Z3Wrapper.Answer answer = z3.check(query, timeout);
+        Result result;
+        switch (answer.status) {
+        case UNSAT:
+            result = Result.UNSAT;
+            break;
+        case SAT:
+            result = Result.SAT;
+            break;
+        default:
+            result = answer.isTimeout() ? Result.TIMEOUT : Result.UNKNOWN;
+        }
+        cache.put(key, new CachedResult(result, timeout));
+        return result == Result.UNSAT;
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+
+    /**
+     * Renames the variables of the query to {@code |0|}, {@code |1|}, ... in the order in which they are first
+     * used by the assertions, and sorts their declarations, so that the result does not depend on the names of
+     * the variables nor on the order in which they were declared.
+     */
+    static String canonicalize(String query) {
+        String[] lines = query.split("\n");
+        Map<String, String> renaming = new HashMap<>();
+        for (String line : lines) {
+            if (!line.startsWith(CONSTANT_DECLARATION)) {
+                rename(line, renaming);
+            }
+        }
+        for (String line : lines) {
+            if (line.startsWith(CONSTANT_DECLARATION)) {
+                rename(line, renaming);
+            }
+        }
+
+        StringBuilder sb = new StringBuilder();
+        List<String> declarations = new ArrayList<>();
+        int declarationsIndex = -1;
+        for (String line : lines) {
+            Matcher matcher = QUOTED_SYMBOL.matcher(line);
+            StringBuffer renamed = new StringBuffer();
+            while (matcher.find()) {
+                String replacement = matcher.group(1) != null ? matcher.group() : renaming.get(matcher.group());
+                matcher.appendReplacement(renamed, Matcher.quoteReplacement(replacement));
+            }
+            matcher.appendTail(renamed);
+            if (line.startsWith(CONSTANT_DECLARATION)) {
+                if (declarationsIndex < 0) {
+                    declarationsIndex = sb.length();
+                }
+                declarations.add(renamed.toString());
+            } else {
+                sb.append(renamed).append('\n');
+            }
+        }
+        if (declarationsIndex >= 0) {
+            Collections.sort(declarations);
+            sb.insert(declarationsIndex, String.join("\n", declarations) + "\n");
+        }
+        return sb.toString();
+    }
+
+    private static void rename(String line, Map<String, String> renaming) {
+        Matcher matcher = QUOTED_SYMBOL.matcher(line);
+        while (matcher.find()) {
+            if (matcher.group(1) == null) {
+                renaming.computeIfAbsent(matcher.group(), v -> "|" + renaming.size() + "|");
+            }
+        }
+    }
+
+    private synchronized void load() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (file == null || !file.exists()) {
+            return;
+        }
+        try {
+            SavedCache saved = new BinaryLoader(kem).load(SavedCache.class, file);
+            if (saved.solverConfiguration.equals(z3.SMT_PRELUDE + z3.CHECK_SAT)) {
+                cache.putAll(saved.entries);
+            }
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            kem.registerInternalHiddenWarning("Could not load the SMT query cache from " + file, e);
+        }
+    }
+
+    /**
+     * Saves the cache, if it is persistent. The file is replaced atomically, so that concurrent runs never read
+     * a partially written cache.
+     */
+    public synchronized void save() {
+        if (file == null || !loaded) {
+            return;
+        }
+        HashMap<String, CachedResult> entries;
+        synchronized (cache) {
+            entries = new HashMap<>(cache);
+        }
+        try {
+            File temp = File.createTempFile(file.getName(), ".tmp", file.getAbsoluteFile().getParentFile());
+            new BinaryLoader(kem).save(temp, new SavedCache(z3.SMT_PRELUDE + z3.CHECK_SAT, entries));
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            kem.registerInternalHiddenWarning("Could not save the SMT query cache to " + file, e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+// Copyright (c) 2018 K Team. All Rights Reserved.
+package org.kframework.backend.java.util;
+
+import org.kframework.backend.java.z3.Z3Context;
+import org.kframework.backend.java.z3.Z3Exception;
+import org.kframework.utils.errorsystem.KEMException;
+
+import java.util.Arrays;
+
+/**
+ * A {@link Z3Session} backed by a native Z3 context, driven through the SMT-LIB 2 interpreter of the library.
+ */
+class Z3LibrarySession extends Z3Session {
+
+    private final Z3Context context;
+
+    Z3LibrarySession(String prelude, String checkSat) {
+        super(checkSat);
+        context = new Z3Context();
+        String answer;
+        try {
+            answer = eval(prelude);
+        } catch (Z3Exception e) {
+            context.close();
+            throw e;
+        }
+        if (isError(answer)) {
+            context.close();
+            throw KEMException.criticalError("Z3 rejected the SMT prelude:\n" + answer);
+        }
+    }
+
+    @Override
+    public String check(String query, int timeout) {
+        return eval(scopedQuery(query, timeout));
+    }
+
+    private String eval(String commands) {
+        return answer(Arrays.asList(context.evalSmtlib2(commands).trim().split("\n")));
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,125 @@
+// Copyright (c) 2018 K Team. All Rights Reserved.
+package org.kframework.backend.java.util;
+
+import org.kframework.utils.OS;
+import org.kframework.utils.errorsystem.KEMException;
+import org.kframework.utils.file.FileUtil;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link Z3Session} backed by an external {@code z3 -in} process which is kept alive across queries.
+ * Every batch of commands sent to the process is terminated by an {@code (echo)} of a marker, so that
+ * error messages cannot shift the answers of subsequent queries.
+ * <p>
+ * The timeout of a query is only a soft limit for Z3, so a watchdog kills the process if it has not answered
+ * within twice the timeout plus a second. The query is then reported as {@code "unknown"} because of a timeout,
+ * as it would be if Z3 had given up, and the session is no longer alive.
+ */
+class Z3ProcessSession extends Z3Session {
+
+    private static final String END_OF_COMMANDS = "end-of-k-commands";
+    private static final String KILLED = "unknown\n(:reason-unknown \"timeout\")";
+
+    private static final ScheduledExecutorService WATCHDOG = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "z3-watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Process z3Process;
+    private final BufferedWriter input;
+    private final BufferedReader output;
+    private volatile boolean killed = false;
+
+    Z3ProcessSession(FileUtil files, String prelude, String checkSat, int timeout) throws IOException {
+        super(checkSat);
+        ProcessBuilder pb = files.getProcessBuilder().command(
+                OS.current().getNativeExecutable("z3"),
+                "-in",
+                "-smt2",
+                "-t:" + timeout);
+        pb.redirectInput(ProcessBuilder.Redirect.PIPE);
+        pb.redirectOutput(ProcessBuilder.Redirect.PIPE);
+        z3Process = pb.start();
+        input = new BufferedWriter(new OutputStreamWriter(z3Process.getOutputStream()));
+        output = new BufferedReader(new InputStreamReader(z3Process.getInputStream()));
+        String answer;
+        try {
+            answer = send(prelude, timeout);
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+        if (answer == null || killed) {
+            close();
+            throw new IOException("z3 terminated while reading the SMT prelude");
+        }
+        if (isError(answer)) {
+            close();
+            throw KEMException.criticalError("Z3 rejected the SMT prelude:\n" + answer);
+        }
+    }
+
+    @Override
+    public String check(String query, int timeout) {
+        try {
+            String answer = send(scopedQuery(query, timeout), timeout);
+            return killed ? KILLED : answer;
+        } catch (IOException e) {
+            return killed ? KILLED : null;
+        }
+    }
+
+    @Override
+    public boolean isAlive() {
+        return !killed && z3Process.isAlive();
+    }
+
+    /**
+     * Sends the commands to the process and returns its answer as computed by {@link #answer}, or {@code null} if
+     * the process terminated before answering.
+     */
+    private String send(String commands, int timeout) throws IOException {
+        ScheduledFuture<?> watchdog = timeout > 0
+                ? WATCHDOG.schedule(this::kill, 2L * timeout + 1000, TimeUnit.MILLISECONDS)
+                : null;
+        try {
+            input.write(commands);
+            input.write("\n(echo \"" + END_OF_COMMANDS + "\")\n");
+            input.flush();
+            List<String> lines = new ArrayList<>();
+            for (String line = output.readLine(); line != null; line = output.readLine()) {
+                if (line.equals(END_OF_COMMANDS)) {
+                    return answer(lines);
+                }
+                lines.add(line);
+            }
+            return null;
+        } finally {
+            if (watchdog != null) {
+                watchdog.cancel(false);
+            }
+        }
+    }
+
+    private void kill() {
+        killed = true;
+        z3Process.destroyForcibly();
+    }
+
+    @Override
+    public void close() {
+        z3Process.destroy();
+    }
+}
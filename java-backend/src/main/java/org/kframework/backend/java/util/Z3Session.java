@@ -0,0 +1,59 @@
+// Copyright (c) 2018 K Team. All Rights Reserved.
+package org.kframework.backend.java.util;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * A long-lived Z3 solver. The SMT prelude is asserted once when the session starts, and each query is checked in
+ * its own {@code (push)}/{@code (pop)} scope, so that its declarations and assertions do not leak into the next one.
+ */
+abstract class Z3Session implements AutoCloseable {
+
+    protected final String checkSat;
+
+    protected Z3Session(String checkSat) {
+        this.checkSat = checkSat;
+    }
+
+    /**
+     * Checks the satisfiability of the given query.
+     *
+     * @return the lines printed by the solver for the query, normally one of {@code "sat"}, {@code "unsat"} or
+     * {@code "unknown"} followed by the reason for an unknown answer, the errors it reported if any, or
+     * {@code null} if the solver did not answer; unless the answer starts with one of the former three, the session
+     * should be closed and not used again
+     */
+    public abstract String check(String query, int timeout);
+
+    /**
+     * Returns whether the session can check further queries. A session which had to be killed is not alive even
+     * though its last query was answered.
+     */
+    public boolean isAlive() {
+        return true;
+    }
+
+    @Override
+    public abstract void close();
+
+    protected String scopedQuery(String query, int timeout) {
+        return "(push)\n(set-option :timeout " + timeout + ")\n" + query + checkSat + "\n"
+                + Z3Wrapper.GET_REASON_UNKNOWN + "\n(pop)\n";
+    }
+
+    /**
+     * Returns the errors among the lines printed by the solver, or all the lines if it reported no error.
+     */
+    protected static String answer(List<String> lines) {
+        List<String> errors = lines.stream().filter(Z3Session::isError).collect(Collectors.toList());
+        if (!errors.isEmpty()) {
+            return String.join("\n", errors);
+        }
+        return lines.stream().map(String::trim).filter(line -> !line.isEmpty()).collect(Collectors.joining("\n"));
+    }
+
+    protected static boolean isError(String line) {
+        return line.trim().startsWith("(error");
+    }
+}
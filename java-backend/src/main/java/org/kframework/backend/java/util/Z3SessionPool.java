@@ -0,0 +1,118 @@
+// Copyright (c) 2018 K Team. All Rights Reserved.
+package org.kframework.backend.java.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * The Z3 instances of the process. All the {@link Z3Wrapper}s with the same bound on the number of instances share
+ * one pool, so that the bound holds for the whole process rather than for each rewriter, and so that the idle
+ * sessions of a discarded rewriter are reused or closed instead of leaking.
+ * <p>
+ * A query holds one of the {@link #instances} permits while it is checked. The long-lived sessions are keyed by
+ * their configuration (the SMT prelude and the solver which runs them); there are never more live sessions than
+ * permits, the least recently used idle session being closed to make room for a new one. Idle sessions are closed
+ * when the JVM shuts down.
+ */
+class Z3SessionPool {
+
+    interface SessionFactory {
+        Z3Session create() throws IOException;
+    }
+
+    private static final ConcurrentMap<Integer, Z3SessionPool> POOLS = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the pool bounding the number of Z3 instances to the given number.
+     */
+    static Z3SessionPool of(int instances) {
+        return POOLS.computeIfAbsent(Math.max(1, instances), n -> {
+            Z3SessionPool pool = new Z3SessionPool(n);
+            Runtime.getRuntime().addShutdownHook(new Thread(pool::closeIdle, "z3-session-pool"));
+            return pool;
+        });
+    }
+
+    final Semaphore instances;
+    private final int capacity;
+    private final LinkedHashMap<Z3Session, String> idle = new LinkedHashMap<>();
+    private int live = 0;
+
+    private Z3SessionPool(int capacity) {
+        this.capacity = capacity;
+        this.instances = new Semaphore(capacity);
+    }
+
+    /**
+     * Takes the most recently used idle session with the given configuration, or returns {@code null} if there is
+     * none.
+     */
+    synchronized Z3Session poll(String configuration) {
+        Z3Session session = null;
+        for (Map.Entry<Z3Session, String> entry : idle.entrySet()) {
+            if (entry.getValue().equals(configuration)) {
+                session = entry.getKey();
+            }
+        }
+        if (session != null) {
+            idle.remove(session);
+        }
+        return session;
+    }
+
+    /**
+     * Starts a new session, closing idle sessions if there is no room for it.
+     */
+    Z3Session start(SessionFactory factory) throws IOException {
+        synchronized (this) {
+            while (live >= capacity && !idle.isEmpty()) {
+                Z3Session eldest = idle.keySet().iterator().next();
+                idle.remove(eldest);
+                eldest.close();
+                live--;
+            }
+            live++;
+        }
+        Z3Session session = null;
+        try {
+            session = factory.create();
+            return session;
+        } finally {
+            if (session == null) {
+                synchronized (this) {
+                    live--;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a session which answered its last query to the pool.
+     */
+    synchronized void release(Z3Session session, String configuration) {
+        idle.put(session, configuration);
+    }
+
+    /**
+     * Closes a session which should not be used again.
+     */
+    void discard(Z3Session session) {
+        session.close();
+        synchronized (this) {
+            live--;
+        }
+    }
+
+    synchronized void closeIdle() {
+        for (Z3Session session : new ArrayList<>(idle.keySet())) {
+            session.close();
+        }
+        live -= idle.size();
+        idle.clear();
+    }
+}
@@ -17,6 +17,8 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * @author Traian
@@ -27,12 +29,50 @@ public class Z3Wrapper {
 
     private static final Set<String> Z3_QUERY_RESULTS = ImmutableSet.of("unknown", "sat", "unsat");
 
+    static final String GET_REASON_UNKNOWN = "(get-info :reason-unknown)";
+
+    private static final Pattern REASON_UNKNOWN = Pattern.compile("\\(:reason-unknown \"(.*)\"\\)");
+
+    /**
+     * The answer of Z3 to a query, along with the reason it gave if the answer is {@link Z3Status#UNKNOWN}.
+     */
+    public static final class Answer {
+        public final Z3Status status;
+        public final String reasonUnknown;
+
+        public Answer(Z3Status status, String reasonUnknown) {
+            this.status = status;
+            this.reasonUnknown = reasonUnknown;
+        }
+
+        /**
+         * Returns whether Z3 gave up on the query because it ran out of time.
+         */
+        public boolean isTimeout() {
+            return status == Z3Status.UNKNOWN && reasonUnknown != null
+                    && (reasonUnknown.contains("timeout") || reasonUnknown.contains("canceled"));
+        }
+    }
+
     public final String SMT_PRELUDE, CHECK_SAT;
     private final SMTOptions options;
     private final GlobalOptions globalOptions;
     private final KExceptionManager kem;
     private final FileUtil files;
 
+    /**
+     * Bounds the number of Z3 instances of the process checking queries at the same time to
+     * {@link SMTOptions#z3Instances}, and holds the long-lived solvers used when {@link SMTOptions#z3Incremental}
+     * is set.
+     */
+    private final Z3SessionPool pool;
+
+    /**
+     * The configuration of the sessions started by this wrapper; only sessions with the same configuration can
+     * check its queries.
+     */
+    private final String sessionConfiguration;
+
     public Z3Wrapper(
             SMTOptions options,
             KExceptionManager kem,
@@ -45,25 +85,45 @@ public class Z3Wrapper {
 
         SMT_PRELUDE = options.smtPrelude == null ? "" : files.loadFromWorkingDirectory(options.smtPrelude);
         CHECK_SAT = options.z3Tactic == null ? "(check-sat)" : "(check-sat-using " + options.z3Tactic + ")";
+        pool = Z3SessionPool.of(options.z3Instances);
+        sessionConfiguration = options.z3Executable + "\n" + CHECK_SAT + "\n" + SMT_PRELUDE;
+    }
+
+    public boolean isUnsat(String query, int timeout) {
+        return check(query, timeout).status == Z3Status.UNSAT;
     }
 
-    public synchronized boolean isUnsat(String query, int timeout) {
-        if (options.z3Executable) {
-            return checkQueryWithExternalProcess(query, timeout);
-        } else {
-            return checkQueryWithLibrary(query, timeout);
+    /**
+     * Checks the satisfiability of the query (preceded by the SMT prelude). Reports {@link Z3Status#UNKNOWN} if
+     * Z3 gives up, times out, or fails to parse the query, with the reason given by Z3 in the first two cases and
+     * a critical warning in the last one.
+     * Safe to call from several threads; each concurrent query is checked by its own Z3 instance.
+     */
+    public Answer check(String query, int timeout) {
+        pool.instances.acquireUninterruptibly();
+        try {
+            if (options.z3Incremental) {
+                return checkQueryWithSession(query, timeout);
+            } else if (options.z3Executable) {
+                return checkQueryWithExternalProcess(query, timeout);
+            } else {
+                return checkQueryWithLibrary(query, timeout);
+            }
+        } finally {
+            pool.instances.release();
         }
     }
 
-    private boolean checkQueryWithLibrary(String query, int timeout) {
-        boolean result = false;
+    private Answer checkQueryWithLibrary(String query, int timeout) {
+        Answer result = new Answer(Z3Status.UNKNOWN, null);
         try (Z3Context context = new Z3Context()) {
             Z3Solver solver = new Z3Solver(context);
             Z3Params params = new Z3Params(context);
             params.add("timeout", timeout);
             solver.setParams(params);
             solver._assert(context.parseSmtlib2(SMT_PRELUDE + query));
-            result = solver.check() == Z3Status.UNSAT;
+            Z3Status status = solver.check();
+            result = new Answer(status, status == Z3Status.UNKNOWN ? solver.getReasonUnknown() : null);
         } catch (Z3Exception e) {
             kem.registerCriticalWarning(
                     "failed to translate smtlib expression:\n" + SMT_PRELUDE + query, e);
@@ -74,8 +134,81 @@ public class Z3Wrapper {
         return result;
     }
 
-    private boolean checkQueryWithExternalProcess(String query, int timeout) {
+    private Answer checkQueryWithSession(String query, int timeout) {
+        Z3Session session = pool.poll(sessionConfiguration);
+        String result = null;
+        Answer answer = null;
+        try {
+            for (int i = 0; i < Z3_RESTART_LIMIT && answer == null; i++) {
+                try {
+                    if (session == null) {
+                        session = pool.start(() -> options.z3Executable
+                                ? new Z3ProcessSession(files, SMT_PRELUDE, CHECK_SAT, timeout)
+                                : new Z3LibrarySession(SMT_PRELUDE, CHECK_SAT));
+                    }
+                    result = session.check(query, timeout);
+                    if (result != null && Z3Session.isError(result)) {
+                        // the query is malformed, so restarting Z3 would only report the same errors again
+                        session = closeSession(session);
+                        kem.registerCriticalWarning(
+                                "failed to translate smtlib expression:\n" + SMT_PRELUDE + query + "\n" + result);
+                        return new Answer(Z3Status.UNKNOWN, null);
+                    }
+                    answer = parseAnswer(result);
+                } catch (Z3Exception e) {
+                    session = closeSession(session);
+                    kem.registerCriticalWarning(
+                            "failed to translate smtlib expression:\n" + SMT_PRELUDE + query, e);
+                    return new Answer(Z3Status.UNKNOWN, null);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                } catch (UnsatisfiedLinkError e) {
+                    System.err.println(System.getProperty("java.library.path"));
+                    throw e;
+                }
+                if (answer == null || !session.isAlive()) {
+                    session = closeSession(session);
+                }
+            }
+            if (answer == null) {
+                throw KEMException.criticalError("Z3 crashed on input query:\n" + query + "\nresult:\n" + result);
+            }
+            return answer;
+        } finally {
+            if (session != null) {
+                pool.release(session, sessionConfiguration);
+            }
+        }
+    }
+
+    private Z3Session closeSession(Z3Session session) {
+        if (session != null) {
+            pool.discard(session);
+        }
+        return null;
+    }
+
+    /**
+     * Parses the lines printed by Z3 for a {@code (check-sat)} command followed by {@link #GET_REASON_UNKNOWN},
+     * or returns {@code null} if they are not an answer to the query.
+     */
+    private static Answer parseAnswer(String output) {
+        if (output == null) {
+            return null;
+        }
+        String[] lines = output.split("\n");
+        if (!Z3_QUERY_RESULTS.contains(lines[0])) {
+            return null;
+        }
+        Z3Status status = Z3Status.of(lines[0]);
+        Matcher reason = lines.length > 1 ? REASON_UNKNOWN.matcher(lines[1]) : null;
+        return new Answer(status, status == Z3Status.UNKNOWN && reason != null && reason.matches()
+                ? reason.group(1) : null);
+    }
+
+    private Answer checkQueryWithExternalProcess(String query, int timeout) {
         String result = "";
+        String reason = null;
         try {
             for (int i = 0; i < Z3_RESTART_LIMIT; i++) {
                 ProcessBuilder pb = files.getProcessBuilder().command(
@@ -90,9 +223,12 @@ public class Z3Wrapper {
                     z3Process.getOutputStream()));
                 BufferedReader output = new BufferedReader(new InputStreamReader(
                     z3Process.getInputStream()));
-                input.write(SMT_PRELUDE + query + CHECK_SAT + "\n");
+                input.write(SMT_PRELUDE + query + CHECK_SAT + "\n" + GET_REASON_UNKNOWN + "\n");
                 input.flush();
                 result = output.readLine();
+                if ("unknown".equals(result)) {
+                    reason = output.readLine();
+                }
                 z3Process.destroy();
                 if (result != null) {
                     break;
@@ -101,10 +237,11 @@ public class Z3Wrapper {
         } catch (IOException e) {
             e.printStackTrace();
         }
-        if (!Z3_QUERY_RESULTS.contains(result)) {
+        Answer answer = parseAnswer(reason == null ? result : result + "\n" + reason);
+        if (answer == null) {
             throw KEMException.criticalError("Z3 crashed on input query:\n" + query + "\nresult:\n" + result);
         }
-        return "unsat".equals(result);
+        return answer;
     }
 }
 
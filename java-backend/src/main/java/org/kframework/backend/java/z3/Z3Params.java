@@ -8,9 +8,11 @@ public class Z3Params {
 
     public Z3Params(Z3Context context) {
         this.context = context;
-        params = LibZ3.INSTANCE.Z3_mk_params(context.context);
-        LibZ3.INSTANCE.Z3_params_inc_ref(context.context, params);
-        context.checkError();
+        synchronized(context) {
+            params = LibZ3.INSTANCE.Z3_mk_params(context.context);
+            LibZ3.INSTANCE.Z3_params_inc_ref(context.context, params);
+            context.checkError();
+        }
     }
 
     @Override
@@ -23,8 +25,10 @@ public class Z3Params {
     }
 
     public void add(String name, int value) {
-        Pointer symbol = LibZ3.INSTANCE.Z3_mk_string_symbol(context.context, name);
-        LibZ3.INSTANCE.Z3_params_set_uint(context.context, params, symbol, value);
-        context.checkError();
+        synchronized(context) {
+            Pointer symbol = LibZ3.INSTANCE.Z3_mk_string_symbol(context.context, name);
+            LibZ3.INSTANCE.Z3_params_set_uint(context.context, params, symbol, value);
+            context.checkError();
+        }
     }
 }
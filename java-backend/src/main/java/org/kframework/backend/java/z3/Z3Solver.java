@@ -8,9 +8,11 @@ public class Z3Solver {
 
     public Z3Solver(Z3Context context) {
         this.context = context;
-        solver = LibZ3.INSTANCE.Z3_mk_solver(context.context);
-        LibZ3.INSTANCE.Z3_solver_inc_ref(context.context, solver);
-        context.checkError();
+        synchronized(context) {
+            solver = LibZ3.INSTANCE.Z3_mk_solver(context.context);
+            LibZ3.INSTANCE.Z3_solver_inc_ref(context.context, solver);
+            context.checkError();
+        }
     }
 
     @Override
@@ -23,18 +25,32 @@ public class Z3Solver {
     }
 
     public void setParams(Z3Params params) {
-        LibZ3.INSTANCE.Z3_solver_set_params(context.context, solver, params.params);
-        context.checkError();
+        synchronized(context) {
+            LibZ3.INSTANCE.Z3_solver_set_params(context.context, solver, params.params);
+            context.checkError();
+        }
     }
 
     public void _assert(Z3AST ast) {
-        LibZ3.INSTANCE.Z3_solver_assert(context.context, solver, ast.ast);
-        context.checkError();
+        synchronized(context) {
+            LibZ3.INSTANCE.Z3_solver_assert(context.context, solver, ast.ast);
+            context.checkError();
+        }
     }
 
     public Z3Status check() {
-        int status = LibZ3.INSTANCE.Z3_solver_check(context.context, solver);
-        context.checkError();
-        return Z3Status.of(status);
+        synchronized(context) {
+            int status = LibZ3.INSTANCE.Z3_solver_check(context.context, solver);
+            context.checkError();
+            return Z3Status.of(status);
+        }
+    }
+
+    public String getReasonUnknown() {
+        synchronized(context) {
+            String reason = LibZ3.INSTANCE.Z3_solver_get_reason_unknown(context.context, solver);
+            context.checkError();
+            return reason;
+        }
     }
 }
@@ -22,4 +22,20 @@ public enum Z3Status {
                 throw new IllegalArgumentException("Illegal ordinal to Z3Status: " + ordinal);
         }
     }
+
+    /**
+     * Parses the answer printed by Z3 for a {@code (check-sat)} command.
+     */
+    public static Z3Status of(String result) {
+        switch(result) {
+            case "sat":
+                return SAT;
+            case "unsat":
+                return UNSAT;
+            case "unknown":
+                return UNKNOWN;
+            default:
+                throw new IllegalArgumentException("Illegal result to Z3Status: " + result);
+        }
+    }
 }
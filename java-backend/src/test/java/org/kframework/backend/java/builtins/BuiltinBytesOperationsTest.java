@@ -0,0 +1,124 @@
+// Copyright (c) 2018 K Team. All Rights Reserved.
+package org.kframework.backend.java.builtins;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.kframework.attributes.Att;
+import org.kframework.backend.java.kil.Definition;
+import org.kframework.backend.java.kil.GlobalContext;
+import org.kframework.backend.java.kil.KItem;
+import org.kframework.backend.java.kil.KLabelConstant;
+import org.kframework.backend.java.kil.KList;
+import org.kframework.backend.java.kil.Sort;
+import org.kframework.backend.java.kil.Term;
+import org.kframework.backend.java.kil.TermContext;
+import org.kframework.backend.java.kil.Variable;
+import org.kframework.kore.KORE;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.math.BigInteger;
+import java.util.Collections;
+
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BuiltinBytesOperationsTest {
+
+    @Mock
+    TermContext context;
+    @Mock
+    GlobalContext global;
+    @Mock
+    Definition definition;
+
+    @Before
+    public void setUp() {
+        when(context.global()).thenReturn(global);
+        when(context.definition()).thenReturn(definition);
+        when(global.getDefinition()).thenReturn(definition);
+        when(definition.signaturesOf(anyString())).thenReturn(Collections.emptySet());
+        when(definition.allSorts()).thenReturn(Collections.singleton(Sort.BYTES));
+        when(definition.kLabelAttributesOf(any())).thenReturn(Att.empty());
+    }
+
+    private KItem call(String label, Term... arguments) {
+        return KItem.of(KLabelConstant.of(KORE.KLabel(label), definition), KList.concatenate(arguments), global);
+    }
+
+    private KItem cons(int head, Term tail) {
+        return call("consBytes", IntToken.of(head), tail);
+    }
+
+    @Test
+    public void testSliceAndReplace() {
+        BytesToken bytes = BytesToken.of(new byte[]{1, 2, 3, 4, 5});
+        BytesToken slice = (BytesToken) BuiltinBytesOperations.substr(bytes, IntToken.of(1), IntToken.of(4), context);
+        assertEquals(BytesToken.of(new byte[]{2, 3, 4}), slice);
+        assertEquals(slice.hashCode(), BytesToken.of(new byte[]{2, 3, 4}).hashCode());
+
+        BytesToken replaced = BuiltinBytesOperations.replaceAt(bytes, IntToken.of(3), slice.slice(0, 2), context);
+        assertEquals(BytesToken.of(new byte[]{1, 2, 3, 2, 3}), replaced);
+        assertEquals(BytesToken.of(new byte[]{1, 2, 3, 4, 5}), bytes);
+        assertEquals(BytesToken.of(new byte[]{2, 3, 4}), slice);
+
+        assertNull(BuiltinBytesOperations.substr(bytes, IntToken.of(4), IntToken.of(6), context));
+        assertNull(BuiltinBytesOperations.replaceAt(bytes, IntToken.of(4), slice, context));
+    }
+
+    @Test
+    public void testPaddingAndConcat() {
+        BytesToken bytes = BytesToken.of(new byte[]{1, 2});
+        assertEquals(BytesToken.of(new byte[]{1, 2, -1}),
+                BuiltinBytesOperations.padRight(bytes, IntToken.of(3), IntToken.of(255), context));
+        assertEquals(BytesToken.of(new byte[]{0, 0, 1, 2}),
+                BuiltinBytesOperations.padLeft(bytes, IntToken.of(4), IntToken.of(0), context));
+        assertEquals(BytesToken.of(new byte[]{2, 1, 2}),
+                BuiltinBytesOperations.concat(bytes.slice(1, 2), bytes, context));
+        assertEquals(IntToken.of(2), BuiltinBytesOperations.length(bytes, context));
+    }
+
+    @Test
+    public void testIntegerConversion() {
+        BytesToken bytes = BytesToken.of(new byte[]{-1, 0});
+        assertEquals(BigInteger.valueOf(0xff00), bytes.toBigInteger(true, false));
+        assertEquals(BigInteger.valueOf(-256), bytes.toBigInteger(true, true));
+        assertEquals(BigInteger.valueOf(0xff), bytes.toBigInteger(false, false));
+        assertEquals(bytes, BytesToken.of(BigInteger.valueOf(-256), 2, true));
+        assertEquals(bytes, BytesToken.of(BigInteger.valueOf(0xff), 2, false));
+        assertEquals(BytesToken.of(new byte[]{-1, -1, -1}), BytesToken.of(BigInteger.valueOf(-1), 3, true));
+        assertEquals(BytesToken.of(new byte[]{0x34}), BytesToken.of(BigInteger.valueOf(0x1234), 1, true));
+    }
+
+    @Test
+    public void testSymbolicAndConcreteBytes() {
+        Variable x = new Variable("X", Sort.INT);
+        BytesToken bytes = BytesToken.of(new byte[]{1, 2});
+        KItem nil = call("nilBytes");
+
+        // lists of concrete bytes are evaluated, whether they end with nilBytes or with a token
+        assertEquals(IntToken.of(3), BuiltinBytesOperations.length(cons(3, bytes), context));
+        assertEquals(BytesToken.of(new byte[]{2, 1, 3}),
+                BuiltinBytesOperations.reverse(cons(3, cons(1, cons(2, nil))), context));
+        assertEquals(BytesToken.of(new byte[]{3, 1, 2, 1, 2}),
+                BuiltinBytesOperations.concat(cons(3, bytes), bytes, context));
+        assertEquals(BytesToken.of(new byte[]{1, 4}),
+                BuiltinBytesOperations.replaceAt(bytes, IntToken.of(1), cons(4, BytesToken.EMPTY), context));
+
+        // the tokens following a symbolic byte are expanded, so that the rules ending on nilBytes apply
+        KItem symbolic = call("consBytes", x, bytes);
+        KItem expanded = call("consBytes", x, cons(1, cons(2, nil)));
+        assertEquals(call("lengthBytes", expanded), BuiltinBytesOperations.length(symbolic, context));
+        assertEquals(call("_+Bytes_", expanded, nil),
+                BuiltinBytesOperations.concat(symbolic, BytesToken.EMPTY, context));
+        assertEquals(call("replaceAtBytes", cons(1, cons(2, nil)), IntToken.of(0), call("consBytes", x, nil)),
+                BuiltinBytesOperations.replaceAt(bytes, IntToken.of(0), call("consBytes", x, nil), context));
+
+        // the rules apply directly to symbolic byte arrays without tokens
+        assertNull(BuiltinBytesOperations.length(expanded, context));
+        assertNull(BuiltinBytesOperations.bytes2string(new Variable("BS", Sort.BYTES), context));
+    }
+}
@@ -0,0 +1,45 @@
+// Copyright (c) 2018 K Team. All Rights Reserved.
+package org.kframework.backend.java.builtins;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.kframework.backend.java.kil.TermContext;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.math.BigInteger;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BuiltinIntOperationsTest {
+
+    @Mock
+    TermContext context;
+
+    @Test
+    public void testOverflow() {
+        IntToken max = IntToken.of(Long.MAX_VALUE);
+        IntToken sum = BuiltinIntOperations.add(max, IntToken.of(1), context);
+        assertFalse(sum.isLong());
+        assertEquals(BigInteger.valueOf(Long.MAX_VALUE).add(BigInteger.ONE), sum.bigIntegerValue());
+        assertEquals(max, BuiltinIntOperations.sub(sum, IntToken.of(1), context));
+        assertTrue(BuiltinIntOperations.sub(sum, IntToken.of(1), context).isLong());
+        assertEquals(IntToken.of(BigInteger.valueOf(Long.MIN_VALUE).negate()),
+                BuiltinIntOperations.div(IntToken.of(Long.MIN_VALUE), IntToken.of(-1), context));
+        assertEquals(IntToken.of(BigInteger.valueOf(Long.MAX_VALUE).pow(2)),
+                BuiltinIntOperations.mul(max, max, context));
+    }
+
+    @Test
+    public void testRepresentations() {
+        IntToken small = IntToken.of(42);
+        IntToken big = IntToken.of(BigInteger.valueOf(42));
+        assertEquals(small, big);
+        assertEquals(small.hashCode(), big.hashCode());
+        assertEquals(BigInteger.valueOf(123456789012L).hashCode(), IntToken.of(123456789012L).hashCode());
+        assertEquals(IntToken.of(-7), IntToken.of("-7"));
+        assertEquals(IntToken.of(-1), BuiltinIntOperations.rem(IntToken.of(-1), IntToken.of(-3), context));
+        assertEquals(IntToken.of(2), BuiltinIntOperations.mod(IntToken.of(-1), IntToken.of(3), context));
+    }
+}
@@ -0,0 +1,106 @@
+// Copyright (c) 2018 K Team. All Rights Reserved.
+package org.kframework.backend.java.kil;
+
+import com.google.common.collect.Lists;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.kframework.attributes.Att;
+import org.kframework.backend.java.builtins.IntToken;
+import org.kframework.kil.Attribute;
+import org.kframework.kore.KORE;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class FunctionRuleIndexTest {
+
+    @Mock
+    Definition definition;
+
+    private static final org.kframework.kore.KLabel f = KORE.KLabel("f");
+    private static final org.kframework.kore.KLabel g = KORE.KLabel("g");
+    private static final org.kframework.kore.KLabel a = KORE.KLabel("a");
+    private static final org.kframework.kore.KLabel b = KORE.KLabel("b");
+    private static final Sort sort = Sort.of(KORE.Sort("Foo"));
+
+    private Rule aX;
+    private Rule b1;
+    private Rule x2;
+    private Rule gY;
+    private Rule a2;
+    private List<Rule> rules;
+
+    @Before
+    public void setUp() {
+        when(definition.signaturesOf(anyString())).thenReturn(Collections.emptySet());
+        when(definition.allSorts()).thenReturn(Collections.singleton(sort));
+        when(definition.kLabelAttributesOf(f)).thenReturn(Att.empty().add(Attribute.FUNCTION_KEY));
+        when(definition.kLabelAttributesOf(g)).thenReturn(Att.empty().add(Attribute.FUNCTION_KEY));
+        when(definition.kLabelAttributesOf(a)).thenReturn(Att.empty());
+        when(definition.kLabelAttributesOf(b)).thenReturn(Att.empty());
+
+        aX = rule(call(f, call(a), variable("X")));
+        b1 = rule(call(f, call(b), IntToken.of(1)));
+        x2 = rule(call(f, variable("X"), IntToken.of(2)));
+        gY = rule(call(f, call(g), variable("Y")));
+        a2 = rule(call(f, call(a), IntToken.of(2)));
+        rules = Lists.newArrayList(aX, b1, x2, gY, a2);
+    }
+
+    private KItem call(org.kframework.kore.KLabel label, Term... arguments) {
+        return new KItem(KLabelConstant.of(label, definition), KList.concatenate(arguments), sort, true);
+    }
+
+    private static Variable variable(String name) {
+        return new Variable(name, sort);
+    }
+
+    private Rule rule(KItem leftHandSide) {
+        Rule rule = mock(Rule.class);
+        when(rule.leftHandSide()).thenReturn(leftHandSide);
+        when(rule.isFunction()).thenReturn(true);
+        when(rule.definedKLabel()).thenReturn((KLabelConstant) leftHandSide.kLabel());
+        return rule;
+    }
+
+    private static List<Rule> candidates(FunctionRuleIndex index, KItem call) {
+        return index.candidates((KList) call.kList());
+    }
+
+    @Test
+    public void testConstructorAndTokenArguments() {
+        FunctionRuleIndex index = new FunctionRuleIndex(rules);
+        assertEquals(Lists.newArrayList(aX, x2, gY, a2), candidates(index, call(f, call(a), IntToken.of(2))));
+        assertEquals(Lists.newArrayList(x2, gY), candidates(index, call(f, call(b), IntToken.of(2))));
+        assertEquals(Lists.newArrayList(b1, gY), candidates(index, call(f, call(b), IntToken.of(1))));
+    }
+
+    @Test
+    public void testUnknownHeads() {
+        FunctionRuleIndex index = new FunctionRuleIndex(rules);
+        // a variable or a function call does not exclude any rule at its position
+        assertEquals(Lists.newArrayList(aX, gY), candidates(index, call(f, variable("Z"), IntToken.of(3))));
+        assertEquals(Lists.newArrayList(aX, gY), candidates(index, call(f, call(g), IntToken.of(3))));
+        assertSame(rules, candidates(index, call(f, variable("Z"), variable("W"))));
+    }
+
+    @Test
+    public void testAddRuleInvalidatesIndex() {
+        Definition definition = new Definition(null, null, Collections.emptyMap(), null);
+        definition.addRule(aX);
+        definition.addRule(b1);
+        KLabelConstant label = (KLabelConstant) call(f).kLabel();
+        KList arguments = (KList) call(f, call(b), IntToken.of(2)).kList();
+        assertEquals(Collections.emptyList(), definition.functionRulesFor(label, arguments));
+
+        definition.addRule(x2);
+        assertEquals(Collections.singletonList(x2), definition.functionRulesFor(label, arguments));
+    }
+}
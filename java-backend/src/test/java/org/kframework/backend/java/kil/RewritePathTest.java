@@ -0,0 +1,51 @@
+// Copyright (c) 2018 K Team. All Rights Reserved.
+package org.kframework.backend.java.kil;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class RewritePathTest {
+
+    @Test
+    public void testOf() {
+        int[] steps = {0, 1, 2, 4, 7, 8};
+        RewritePath path = RewritePath.of(steps, 2);
+        steps[0] = 5;
+        assertEquals(2, path.length());
+        assertEquals(0, path.begin(0));
+        assertEquals(1, path.end(0));
+        assertEquals(2, path.begin(1));
+        assertEquals(4, path.end(1));
+        assertSame(RewritePath.EMPTY, RewritePath.of(steps, 0));
+        assertTrue(RewritePath.EMPTY.isEmpty());
+    }
+
+    @Test
+    public void testEquality() {
+        RewritePath path = RewritePath.of(new int[] {0, 1, 2, 3}, 2);
+        assertEquals(RewritePath.of(new int[] {0, 1, 2, 3, 9, 9}, 2), path);
+        assertEquals(RewritePath.of(new int[] {0, 1, 2, 3}, 2).hashCode(), path.hashCode());
+        assertNotEquals(RewritePath.of(new int[] {0, 1, 2, 4}, 2), path);
+        assertNotEquals(RewritePath.of(new int[] {0, 1}, 1), path);
+    }
+
+    @Test
+    public void testOrderGroupsPathsBySubterm() {
+        RewritePath[] paths = {
+                RewritePath.of(new int[] {1, 2}, 1),
+                RewritePath.of(new int[] {0, 1, 3, 4}, 2),
+                RewritePath.EMPTY,
+                RewritePath.of(new int[] {0, 1}, 1),
+                RewritePath.of(new int[] {0, 1, 1, 2}, 2)};
+        Arrays.sort(paths);
+        assertArrayEquals(new RewritePath[] {
+                RewritePath.EMPTY,
+                RewritePath.of(new int[] {0, 1}, 1),
+                RewritePath.of(new int[] {0, 1, 1, 2}, 2),
+                RewritePath.of(new int[] {0, 1, 3, 4}, 2),
+                RewritePath.of(new int[] {1, 2}, 1)}, paths);
+    }
+}
@@ -0,0 +1,97 @@
+// Copyright (c) 2018 K Team. All Rights Reserved.
+package org.kframework.backend.java.symbolic;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.kframework.backend.java.builtins.IntToken;
+import org.kframework.backend.java.kil.ConstrainedTerm;
+import org.kframework.backend.java.kil.GlobalContext;
+import org.kframework.backend.java.kil.TermContext;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class FrontierExpanderTest {
+
+    private static final int FRONTIER_SIZE = 64;
+    private static final int FRESH_PER_STATE = 3;
+
+    @Mock
+    GlobalContext global;
+
+    /**
+     * Expands each state into its term followed by fresh constants drawn from its context, as a rewrite step
+     * creating fresh variables would.
+     */
+    private static final Function<ConstrainedTerm, List<BigInteger>> EXPANSION = state -> {
+        List<BigInteger> expansion = new ArrayList<>();
+        expansion.add(((IntToken) state.term()).bigIntegerValue());
+        for (int i = 0; i < FRESH_PER_STATE; i++) {
+            expansion.add(state.termContext().freshConstant());
+        }
+        return expansion;
+    };
+
+    private List<List<BigInteger>> expand(int threads) {
+        TermContext context = TermContext.builder(global).freshCounter(0).build();
+        List<ConstrainedTerm> frontier = new ArrayList<>();
+        for (int i = 0; i < FRONTIER_SIZE; i++) {
+            frontier.add(new ConstrainedTerm(IntToken.of(i), null, context));
+        }
+        try (FrontierExpander expander = new FrontierExpander(threads)) {
+            return new ArrayList<>(expander.expand(frontier, EXPANSION));
+        }
+    }
+
+    private static Set<BigInteger> freshConstants(List<List<BigInteger>> expansions) {
+        return expansions.stream()
+                .flatMap(expansion -> expansion.subList(1, expansion.size()).stream())
+                .collect(Collectors.toSet());
+    }
+
+    @Test
+    public void testParallelMatchesSequential() {
+        List<List<BigInteger>> sequential = expand(1);
+        List<List<BigInteger>> parallel = expand(4);
+
+        assertEquals(FRONTIER_SIZE, parallel.size());
+        for (int i = 0; i < FRONTIER_SIZE; i++) {
+            assertEquals(sequential.get(i).get(0), parallel.get(i).get(0));
+        }
+        assertEquals(FRONTIER_SIZE * FRESH_PER_STATE, freshConstants(sequential).size());
+        assertEquals(FRONTIER_SIZE * FRESH_PER_STATE, freshConstants(parallel).size());
+    }
+
+    @Test
+    public void testParallelIsDeterministic() {
+        List<List<BigInteger>> first = expand(4);
+        for (int run = 0; run < 8; run++) {
+            assertEquals(first, expand(4));
+        }
+    }
+
+    @Test
+    public void testFreshCountersAdvancePastForks() {
+        TermContext context = TermContext.builder(global).freshCounter(0).build();
+        List<ConstrainedTerm> frontier = new ArrayList<>();
+        for (int i = 0; i < FRONTIER_SIZE; i++) {
+            frontier.add(new ConstrainedTerm(IntToken.of(i), null, context));
+        }
+        Set<BigInteger> constants = new HashSet<>();
+        try (FrontierExpander expander = new FrontierExpander(4)) {
+            constants.addAll(freshConstants(expander.expand(frontier, EXPANSION)));
+        }
+        assertTrue(constants.add(context.freshConstant()));
+        assertEquals(FRONTIER_SIZE * FrontierExpander.FRESH_CONSTANTS_PER_STATE + 1, context.getCounterValue());
+    }
+}
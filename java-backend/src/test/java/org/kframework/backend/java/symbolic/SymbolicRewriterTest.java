@@ -0,0 +1,106 @@
+// Copyright (c) 2018 K Team. All Rights Reserved.
+package org.kframework.backend.java.symbolic;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.kframework.backend.java.builtins.IntToken;
+import org.kframework.backend.java.kil.BuiltinList;
+import org.kframework.backend.java.kil.GlobalContext;
+import org.kframework.backend.java.kil.RewritePath;
+import org.kframework.backend.java.kil.Sort;
+import org.kframework.backend.java.kil.Term;
+import org.kframework.backend.java.kil.TermContext;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SymbolicRewriterTest {
+
+    @Mock
+    GlobalContext global;
+
+    private TermContext context;
+    private BuiltinList subject;
+
+    /**
+     * A list holding two K sequences followed by an integer.
+     */
+    @Before
+    public void setUp() {
+        context = TermContext.builder(global).build();
+        subject = (BuiltinList) list(Sort.LIST,
+                list(Sort.KSEQUENCE, IntToken.of(0), IntToken.of(1), IntToken.of(2)),
+                list(Sort.KSEQUENCE, IntToken.of(3), IntToken.of(4)),
+                IntToken.of(5));
+    }
+
+    private Term list(Sort sort, Term... children) {
+        return BuiltinList.builder(sort, null, null, global).addAll(children).build();
+    }
+
+    private static RewritePath path(int... indices) {
+        int[] steps = new int[2 * indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            steps[2 * i] = indices[i];
+            steps[2 * i + 1] = indices[i] + 1;
+        }
+        return RewritePath.of(steps, indices.length);
+    }
+
+    private Term buildRHS(Map<RewritePath, Term> rewrites) {
+        return SymbolicRewriter.buildRHS(subject, ImmutableMapSubstitution.empty(), rewrites, context);
+    }
+
+    @Test
+    public void testUntouchedSiblingsAreShared() {
+        Map<RewritePath, Term> rewrites = new HashMap<>();
+        rewrites.put(path(0, 1), IntToken.of(42));
+        BuiltinList result = (BuiltinList) buildRHS(rewrites);
+
+        BuiltinList rewritten = (BuiltinList) result.get(0);
+        BuiltinList original = (BuiltinList) subject.get(0);
+        assertNotSame(original, rewritten);
+        assertSame(original.get(0), rewritten.get(0));
+        assertEquals(IntToken.of(42), rewritten.get(1));
+        assertSame(original.get(2), rewritten.get(2));
+        assertSame(subject.get(1), result.get(1));
+        assertSame(subject.get(2), result.get(2));
+        assertEquals(subject.size(), result.size());
+    }
+
+    @Test
+    public void testRewritesUnderSameSubterm() {
+        Map<RewritePath, Term> rewrites = new HashMap<>();
+        rewrites.put(path(2), IntToken.of(44));
+        rewrites.put(path(0, 2), IntToken.of(43));
+        rewrites.put(path(0, 0), IntToken.of(42));
+        BuiltinList result = (BuiltinList) buildRHS(rewrites);
+
+        BuiltinList rewritten = (BuiltinList) result.get(0);
+        assertEquals(IntToken.of(42), rewritten.get(0));
+        assertSame(((BuiltinList) subject.get(0)).get(1), rewritten.get(1));
+        assertEquals(IntToken.of(43), rewritten.get(2));
+        assertSame(subject.get(1), result.get(1));
+        assertEquals(IntToken.of(44), result.get(2));
+    }
+
+    @Test
+    public void testIdentityRewriteSharesSubject() {
+        Map<RewritePath, Term> rewrites = new HashMap<>();
+        rewrites.put(path(1, 0), ((BuiltinList) subject.get(1)).get(0));
+        assertSame(subject, buildRHS(rewrites));
+    }
+
+    @Test
+    public void testRewriteAtRoot() {
+        Map<RewritePath, Term> rewrites = new HashMap<>();
+        rewrites.put(RewritePath.EMPTY, IntToken.of(42));
+        assertEquals(IntToken.of(42), buildRHS(rewrites));
+    }
+}
@@ -0,0 +1,153 @@
+// Copyright (c) 2018 K Team. All Rights Reserved.
+package org.kframework.backend.java.util;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.kframework.attributes.Att;
+import org.kframework.backend.java.builtins.IntToken;
+import org.kframework.backend.java.kil.Definition;
+import org.kframework.backend.java.kil.GlobalContext;
+import org.kframework.backend.java.kil.KItem;
+import org.kframework.backend.java.kil.KLabelConstant;
+import org.kframework.backend.java.kil.KList;
+import org.kframework.backend.java.kil.Sort;
+import org.kframework.backend.java.kil.Term;
+import org.kframework.backend.java.kil.TermContext;
+import org.kframework.backend.java.symbolic.JavaRewritingOptions;
+import org.kframework.kil.Attribute;
+import org.kframework.kore.KORE;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class FunctionCacheTest {
+
+    @Mock
+    Definition definition;
+    @Mock
+    GlobalContext global;
+
+    private static final org.kframework.kore.KLabel memo = KORE.KLabel("memoFunction");
+    private static final org.kframework.kore.KLabel plain = KORE.KLabel("plainFunction");
+    private static final org.kframework.kore.KLabel impure = KORE.KLabel("impureFunction");
+    private static final Sort sort = Sort.of(KORE.Sort("Int"));
+
+    private TermContext context;
+    private final AtomicInteger evaluations = new AtomicInteger();
+
+    @Before
+    public void setUp() {
+        when(definition.signaturesOf(anyString())).thenReturn(Collections.emptySet());
+        when(definition.allSorts()).thenReturn(Collections.singleton(sort));
+        when(definition.kLabelAttributesOf(memo)).thenReturn(
+                Att.empty().add(Attribute.FUNCTION_KEY).add(Attribute.MEMO_KEY));
+        when(definition.kLabelAttributesOf(plain)).thenReturn(Att.empty().add(Attribute.FUNCTION_KEY));
+        when(definition.kLabelAttributesOf(impure)).thenReturn(
+                Att.empty().add(Attribute.FUNCTION_KEY).add(Attribute.MEMO_KEY).add(Attribute.IMPURE_KEY));
+        context = TermContext.builder(global).freshCounter(0).build();
+    }
+
+    private KLabelConstant label(org.kframework.kore.KLabel label) {
+        return KLabelConstant.of(label, definition);
+    }
+
+    private KItem call(int argument) {
+        return new KItem(label(memo), KList.singleton(IntToken.of(argument)), sort, true);
+    }
+
+    /**
+     * Evaluates a call to a function returning its argument plus the number of times it was evaluated.
+     */
+    private Supplier<Term> function(KItem call, Runnable sideEffect) {
+        return () -> {
+            sideEffect.run();
+            IntToken argument = (IntToken) ((KList) call.kList()).get(0);
+            return IntToken.of(argument.longValue() + evaluations.incrementAndGet());
+        };
+    }
+
+    private Term evaluate(FunctionCache cache, int argument) {
+        KItem call = call(argument);
+        return cache.evaluate(call, context, function(call, () -> { }));
+    }
+
+    @Test
+    public void testIsMemoized() {
+        FunctionCache cache = new FunctionCache(null);
+        assertTrue(cache.isMemoized(label(memo)));
+        assertFalse(cache.isMemoized(label(plain)));
+        assertFalse(cache.isMemoized(label(impure)));
+
+        JavaRewritingOptions options = new JavaRewritingOptions();
+        options.memoizeFunctions = true;
+        cache = new FunctionCache(options);
+        assertTrue(cache.isMemoized(label(plain)));
+        assertFalse(cache.isMemoized(label(impure)));
+    }
+
+    @Test
+    public void testHitsAndMisses() {
+        FunctionCache cache = new FunctionCache(null);
+        assertEquals(IntToken.of(11), evaluate(cache, 10));
+        assertEquals(IntToken.of(11), evaluate(cache, 10));
+        assertEquals(IntToken.of(22), evaluate(cache, 20));
+        assertEquals(IntToken.of(11), evaluate(cache, 10));
+        assertEquals(2, evaluations.get());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction() {
+        JavaRewritingOptions options = new JavaRewritingOptions();
+        options.memoCacheSize = 2;
+        FunctionCache cache = new FunctionCache(options);
+        evaluate(cache, 10);
+        evaluate(cache, 20);
+        evaluate(cache, 10);
+        evaluate(cache, 30);
+        assertEquals(3, evaluations.get());
+        // 20 was the least recently used result
+        evaluate(cache, 10);
+        assertEquals(3, evaluations.get());
+        evaluate(cache, 20);
+        assertEquals(4, evaluations.get());
+    }
+
+    @Test
+    public void testImpureEvaluationIsNotCached() {
+        FunctionCache cache = new FunctionCache(null);
+        KItem call = call(10);
+        Supplier<Term> impureFunction = function(call, FunctionCache::recordImpureEvaluation);
+        assertEquals(IntToken.of(11), cache.evaluate(call, context, impureFunction));
+        assertEquals(IntToken.of(12), cache.evaluate(call, context, impureFunction));
+    }
+
+    @Test
+    public void testFreshConstantIsNotCached() {
+        FunctionCache cache = new FunctionCache(null);
+        KItem call = call(10);
+        Supplier<Term> freshFunction = function(call, context::freshConstant);
+        assertEquals(IntToken.of(11), cache.evaluate(call, context, freshFunction));
+        assertEquals(IntToken.of(12), cache.evaluate(call, context, freshFunction));
+    }
+
+    @Test
+    public void testUnevaluatedCallIsNotCached() {
+        FunctionCache cache = new FunctionCache(null);
+        KItem call = call(10);
+        Supplier<Term> stuck = () -> {
+            evaluations.incrementAndGet();
+            return call;
+        };
+        assertSame(call, cache.evaluate(call, context, stuck));
+        assertSame(call, cache.evaluate(call, context, stuck));
+        assertEquals(2, evaluations.get());
+    }
+}
@@ -0,0 +1,106 @@
+// Copyright (c) 2018 K Team. All Rights Reserved.
+package org.kframework.backend.java.util;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PersistentHashMapTest {
+
+    /**
+     * A key whose hash code collides with the hash codes of many other keys.
+     */
+    private static final class Key {
+        final int value;
+
+        Key(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && ((Key) o).value == value;
+        }
+
+        @Override
+        public int hashCode() {
+            return value % 7;
+        }
+    }
+
+    @Test
+    public void testAgainstHashMap() {
+        Random random = new Random(42);
+        Map<Integer, Integer> expected = new HashMap<>();
+        PersistentHashMap<Integer, Integer> map = PersistentHashMap.empty();
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(2000) - 1000;
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                map = map.minus(key);
+            } else {
+                expected.put(key, i);
+                map = map.plus(key, i);
+            }
+        }
+        assertEquals(expected, map);
+        assertEquals(map, expected);
+        assertEquals(expected.hashCode(), map.hashCode());
+        assertEquals(expected.keySet().hashCode(), map.keysHashCode());
+    }
+
+    @Test
+    public void testStructuralSharing() {
+        PersistentHashMap.Builder<Integer, Integer> builder = new PersistentHashMap.Builder<>();
+        for (int i = 0; i < 1000; i++) {
+            builder.put(i, i);
+        }
+        PersistentHashMap<Integer, Integer> map = builder.build();
+        builder.put(1000, 1000);
+        builder.remove(0);
+        PersistentHashMap<Integer, Integer> updated = map.plus(0, -1);
+
+        assertEquals(1000, map.size());
+        assertEquals(Integer.valueOf(0), map.get(0));
+        assertNull(map.get(1000));
+        assertEquals(Integer.valueOf(-1), updated.get(0));
+        assertEquals(1000, builder.build().size());
+        assertNull(builder.build().get(0));
+        assertNotEquals(map, updated);
+    }
+
+    @Test
+    public void testCollisions() {
+        PersistentHashMap<Key, Integer> map = PersistentHashMap.empty();
+        for (int i = 0; i < 100; i++) {
+            map = map.plus(new Key(i), i);
+        }
+        for (int i = 0; i < 100; i += 2) {
+            map = map.minus(new Key(i));
+        }
+        assertEquals(50, map.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i % 2 == 0 ? null : Integer.valueOf(i), map.get(new Key(i)));
+        }
+        assertEquals(50, map.entrySet().stream().count());
+    }
+
+    @Test
+    public void testSet() {
+        PersistentHashSet.Builder<Integer> builder = new PersistentHashSet.Builder<>();
+        for (int i = 0; i < 100; i++) {
+            builder.add(i);
+        }
+        PersistentHashSet<Integer> set = builder.build();
+        PersistentHashSet<Integer> smaller = set.minus(50);
+        assertTrue(set.contains(50));
+        assertFalse(smaller.contains(50));
+        assertEquals(99, smaller.size());
+        assertEquals(set, smaller.plus(50));
+        assertEquals(set.hashCode(), new java.util.HashSet<>(set).hashCode());
+    }
+}
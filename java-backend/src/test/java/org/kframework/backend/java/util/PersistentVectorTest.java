@@ -0,0 +1,77 @@
+// Copyright (c) 2018 K Team. All Rights Reserved.
+package org.kframework.backend.java.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PersistentVectorTest {
+
+    @Test
+    public void testAgainstArrayList() {
+        Random random = new Random(42);
+        List<Integer> expected = new ArrayList<>();
+        PersistentVector<Integer> vector = PersistentVector.empty();
+        for (int i = 0; i < 5000; i++) {
+            switch (random.nextInt(5)) {
+            case 0:
+                expected.add(i);
+                vector = vector.plus(i);
+                break;
+            case 1:
+                if (!expected.isEmpty()) {
+                    int index = random.nextInt(expected.size());
+                    expected.set(index, -i);
+                    vector = vector.with(index, -i);
+                }
+                break;
+            case 2:
+                int from = random.nextInt(expected.size() + 1);
+                int to = from + random.nextInt(expected.size() - from + 1);
+                expected = new ArrayList<>(expected.subList(from, to));
+                vector = vector.subList(from, to);
+                break;
+            default:
+                PersistentVector.Builder<Integer> builder = new PersistentVector.Builder<>();
+                int n = random.nextInt(100);
+                for (int j = 0; j < n; j++) {
+                    expected.add(j);
+                    builder.add(j);
+                }
+                vector = vector.concat(builder.build());
+                vector = vector.concat(vector.subList(0, vector.size() / 2));
+                expected.addAll(new ArrayList<>(expected.subList(0, expected.size() / 2)));
+                break;
+            }
+            assertEquals(expected.size(), vector.size());
+        }
+        assertEquals(expected, vector);
+        assertEquals(vector, expected);
+        assertEquals(expected.hashCode(), vector.hashCode());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), vector.get(i));
+        }
+    }
+
+    @Test
+    public void testStructuralSharing() {
+        PersistentVector<Integer> vector = PersistentVector.empty();
+        for (int i = 0; i < 1000; i++) {
+            vector = vector.plus(i);
+        }
+        PersistentVector<Integer> updated = vector.with(500, -1);
+        assertEquals(Integer.valueOf(500), vector.get(500));
+        assertEquals(Integer.valueOf(-1), updated.get(500));
+        assertNotEquals(vector, updated);
+        assertEquals(vector, updated.with(500, 500));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testInvalidRange() {
+        PersistentVector.<Integer>empty().plus(0).subList(1, 0);
+    }
+}
@@ -0,0 +1,85 @@
+// Copyright (c) 2018 K Team. All Rights Reserved.
+package org.kframework.backend.java.util;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.kframework.backend.java.z3.Z3Status;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SMTQueryCacheTest {
+
+    private static final String Q1 = "(declare-fun |_1| () Int)\n(assert (< |_1| 0))";
+    private static final String Q2 = "(declare-fun |_1| () Int)\n(assert (< |_1| 1))";
+    private static final String Q3 = "(declare-fun |_1| () Int)\n(assert (< |_1| 2))";
+
+    @Mock
+    Z3Wrapper z3;
+
+    @Test
+    public void testAlphaRenaming() {
+        String q1 = "(declare-fun |_12| () Int)\n(declare-fun |_7| () Int)\n(assert (< |_7| |_12|))";
+        String q2 = "(declare-fun |_3| () Int)\n(declare-fun |_4| () Int)\n(assert (< |_3| |_4|))";
+        assertEquals(SMTQueryCache.canonicalize(q1), SMTQueryCache.canonicalize(q2));
+    }
+
+    @Test
+    public void testDistinctQueries() {
+        String q1 = "(declare-fun |_1| () Int)\n(declare-fun |_2| () Int)\n(assert (< |_1| |_2|))";
+        String q2 = "(declare-fun |_1| () Int)\n(declare-fun |_2| () Int)\n(assert (< |_1| |_1|))";
+        assertNotEquals(SMTQueryCache.canonicalize(q1), SMTQueryCache.canonicalize(q2));
+    }
+
+    @Test
+    public void testStringLiterals() {
+        String q1 = "(declare-fun |_1| () String)\n(assert (= |_1| \"a|b|\"))";
+        String q2 = "(declare-fun |_2| () String)\n(assert (= |_2| \"a|b|\"))";
+        assertEquals(SMTQueryCache.canonicalize(q1), SMTQueryCache.canonicalize(q2));
+        assertTrue(SMTQueryCache.canonicalize(q1).contains("\"a|b|\""));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction() {
+        when(z3.check(anyString(), anyInt())).thenReturn(new Z3Wrapper.Answer(Z3Status.UNSAT, null));
+        SMTQueryCache cache = new SMTQueryCache(z3, 2, null, null);
+        assertTrue(cache.isUnsat(Q1, 50));
+        assertTrue(cache.isUnsat(Q2, 50));
+        assertTrue(cache.isUnsat(Q1, 50));
+        assertTrue(cache.isUnsat(Q3, 50));
+        assertTrue(cache.isUnsat(Q1, 50));
+        assertTrue(cache.isUnsat(Q2, 50));
+        verify(z3, times(1)).check(Q1, 50);
+        verify(z3, times(2)).check(Q2, 50);
+        verify(z3, times(1)).check(Q3, 50);
+        assertEquals(2, cache.hits());
+        assertEquals(4, cache.misses());
+    }
+
+    @Test
+    public void testTimeoutRequery() {
+        when(z3.check(Q1, 50)).thenReturn(new Z3Wrapper.Answer(Z3Status.UNKNOWN, "timeout"));
+        when(z3.check(Q1, 100)).thenReturn(new Z3Wrapper.Answer(Z3Status.UNSAT, null));
+        SMTQueryCache cache = new SMTQueryCache(z3, 16, null, null);
+        assertFalse(cache.isUnsat(Q1, 50));
+        assertFalse(cache.isUnsat(Q1, 20));
+        verify(z3, times(1)).check(Q1, 50);
+        verify(z3, never()).check(Q1, 20);
+        assertTrue(cache.isUnsat(Q1, 100));
+        assertTrue(cache.isUnsat(Q1, 50));
+        verify(z3, times(1)).check(Q1, 100);
+        verify(z3, times(1)).check(Q1, 50);
+    }
+
+    @Test
+    public void testUnknownIsNotRequeried() {
+        when(z3.check(anyString(), anyInt())).thenReturn(new Z3Wrapper.Answer(Z3Status.UNKNOWN, "incomplete"));
+        SMTQueryCache cache = new SMTQueryCache(z3, 16, null, null);
+        assertFalse(cache.isUnsat(Q1, 50));
+        assertFalse(cache.isUnsat(Q1, 100));
+        verify(z3, times(1)).check(anyString(), anyInt());
+    }
+}
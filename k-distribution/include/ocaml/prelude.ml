@@ -499,6 +499,13 @@ struct
         (try [List (s,lbl,(list_range (l1, (Z.to_int i1), (List.length(l1) - (Z.to_int i2) - (Z.to_int i1)))))]
          with Failure _ -> interned_bottom)
     | _ -> raise Not_implemented
+  let hook_update c _ _ _ _ = match c with
+      [List (s,lbl,l1)], [Int i], k ->
+        (try let i = Z.to_int i in
+             if i < 0 || i >= List.length l1 then interned_bottom
+             else [List (s,lbl,(List.mapi (fun j elt -> if j = i then k else elt) l1))]
+         with Z.Overflow -> interned_bottom)
+    | _ -> raise Not_implemented
   let hook_size c _ _ _ _ = match c with
       [List (_,_,l)] -> [Int (Z.of_int (List.length l))]
     | _ -> raise Not_implemented
@@ -107,7 +107,7 @@ public class KastFrontEnd extends FrontEnd {
                 mod = mod2.get();
                 compiledMod = def.kompiledDefinition.getModule(options.module).get();
             }
-            K parsed = def.getParser(mod, sort, kem).apply(FileUtil.read(stringToParse), source);
+            K parsed = def.getParser(mod, sort, files.resolveKompiled("scanners"), kem).apply(FileUtil.read(stringToParse), source);
             if (options.expandMacros) {
                 parsed = new ExpandMacros(compiledMod, files, def.kompileOptions, false).expand(parsed);
             }
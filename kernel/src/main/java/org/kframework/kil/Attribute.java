@@ -44,6 +44,7 @@ public class Attribute<T> extends ASTNode {
     public static final String CELL_OPT_ABSENT_KEY = "cellOptAbsent";
 
     public static final String IMPURE_KEY = "impure";
+    public static final String MEMO_KEY = "memo";
     public static final String STRICT_KEY = "strict";
     public static final String SEQSTRICT_KEY = "seqstrict";
     public static final String CONCRETE_FUNCTION_KEY = "concrete";
@@ -21,6 +21,7 @@ import org.kframework.kore.VisitK;
 import org.kframework.parser.TreeNodesToKORE;
 import org.kframework.parser.concrete2kore.ParseInModule;
 import org.kframework.parser.concrete2kore.generator.RuleGrammarGenerator;
+import org.kframework.parser.concrete2kore.kernel.Scanner;
 import org.kframework.parser.outer.Outer;
 import org.kframework.utils.errorsystem.KEMException;
 import org.kframework.utils.errorsystem.KExceptionManager;
@@ -30,6 +31,7 @@ import scala.Option;
 import scala.Tuple2;
 import scala.util.Either;
 
+import java.io.File;
 import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Map;
@@ -115,9 +117,11 @@ public class CompiledDefinition implements Serializable {
 
     /**
      * A function that takes a string and the source of that string and parses it as a program into KAST.
+     * The scanner of the program grammar is cached in the kompiled directory of {@code files}.
      */
-    public BiFunction<String, Source, K> getProgramParser(KExceptionManager kem) {
-        return getParser(programParsingModuleFor(mainSyntaxModuleName(), kem).get(), programStartSymbol, kem);
+    public BiFunction<String, Source, K> getProgramParser(FileUtil files, KExceptionManager kem) {
+        return getParser(programParsingModuleFor(mainSyntaxModuleName(), kem).get(), programStartSymbol,
+                files.resolveKompiled("scanners"), kem);
     }
 
     /**
@@ -170,10 +174,21 @@ public class CompiledDefinition implements Serializable {
      */
 
     public BiFunction<String, Source, K> getParser(Module module, Sort programStartSymbol, KExceptionManager kem) {
+        return getParser(module, programStartSymbol, null, kem);
+    }
+
+    /**
+     * @param scannerCacheDirectory the directory in which the scanner of the parser is cached, or {@code null}
+     */
+    public BiFunction<String, Source, K> getParser(Module module, Sort programStartSymbol, File scannerCacheDirectory, KExceptionManager kem) {
         ParseInModule parseInModule = RuleGrammarGenerator.getCombinedGrammar(module, kompileOptions.strict());
+        boolean inJvmScanner = kompileOptions.experimental.inJvmScanner;
 
         return (BiFunction<String, Source, K> & Serializable) (s, source) -> {
-            Tuple2<Either<Set<ParseFailedException>, K>, Set<ParseFailedException>> res = parseInModule.parseString(s, programStartSymbol, source);
+            Tuple2<Either<Set<ParseFailedException>, K>, Set<ParseFailedException>> res;
+            try (Scanner scanner = parseInModule.getScanner(scannerCacheDirectory, inJvmScanner)) {
+                res = parseInModule.parseString(s, programStartSymbol, scanner, source, 1, 1, true);
+            }
             kem.addAllKException(res._2().stream().map(e -> e.getKException()).collect(Collectors.toSet()));
             if (res._1().isLeft()) {
                 throw res._1().left().get().iterator().next();
@@ -23,10 +23,10 @@ import org.kframework.parser.concrete2kore.ParseCache;
 import org.kframework.parser.concrete2kore.ParseCache.ParsedSentence;
 import org.kframework.parser.concrete2kore.ParseInModule;
 import org.kframework.parser.concrete2kore.ParserUtils;
+import org.kframework.parser.concrete2kore.PersistentParseCache;
 import org.kframework.parser.concrete2kore.generator.RuleGrammarGenerator;
 import org.kframework.parser.concrete2kore.kernel.Scanner;
 import org.kframework.parser.outer.Outer;
-import org.kframework.utils.BinaryLoader;
 import org.kframework.utils.StringUtil;
 import org.kframework.utils.errorsystem.KEMException;
 import org.kframework.utils.errorsystem.KExceptionManager;
@@ -38,8 +38,6 @@ import scala.collection.Set;
 import scala.util.Either;
 
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.IOException;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -66,12 +64,13 @@ public class DefinitionParsing {
     private final KExceptionManager kem;
     private final ParserUtils parser;
     private final boolean cacheParses;
-    private final BinaryLoader loader;
 
     public final AtomicInteger parsedBubbles = new AtomicInteger(0);
     public final AtomicInteger cachedBubbles = new AtomicInteger(0);
     private final boolean isStrict;
     private final List<File> lookupDirectories;
+    private final File scannerCacheDirectory;
+    private final boolean inJvmScanner;
 
     public DefinitionParsing(
             List<File> lookupDirectories,
@@ -81,7 +80,9 @@ public class DefinitionParsing {
             boolean cacheParses,
             File cacheFile,
             boolean autoImportDomains,
-            boolean kore) {
+            boolean kore,
+            File scannerCacheDirectory,
+            boolean inJvmScanner) {
         this.lookupDirectories = lookupDirectories;
         this.kem = kem;
         this.parser = parser;
@@ -89,8 +90,9 @@ public class DefinitionParsing {
         this.cacheFile = cacheFile;
         this.autoImportDomains = autoImportDomains;
         this.kore = kore;
-        this.loader = new BinaryLoader(this.kem);
         this.isStrict = isStrict;
+        this.scannerCacheDirectory = scannerCacheDirectory;
+        this.inJvmScanner = inJvmScanner;
     }
 
     public java.util.Set<Module> parseModules(CompiledDefinition definition, String mainModule, File definitionFile) {
@@ -106,15 +108,8 @@ public class DefinitionParsing {
 
         errors = java.util.Collections.synchronizedSet(Sets.newHashSet());
         caches = new HashMap<>();
-
-        if (cacheParses) {
-            try {
-                caches = loader.load(Map.class, cacheFile);
-            } catch (FileNotFoundException e) {
-            } catch (IOException | ClassNotFoundException e) {
-                kem.registerInternalHiddenWarning("Invalidating serialized cache due to corruption.", e);
-            }
-        }
+        parses = new PersistentParseCache(cacheParses ? cacheFile : null, kem);
+        parses.load();
 
         Module modWithConfig;
         ResolveConfig resolveConfig = new ResolveConfig(definition.getParsedDefinition(), isStrict, this::parseBubble, this::getParser);
@@ -140,7 +135,7 @@ public class DefinitionParsing {
 
     private void saveCaches() {
         if (cacheParses) {
-            loader.saveOrDie(cacheFile, caches);
+            parses.save();
         }
     }
 
@@ -210,15 +205,8 @@ public class DefinitionParsing {
 
         errors = java.util.Collections.synchronizedSet(Sets.newHashSet());
         caches = new HashMap<>();
-
-        if (cacheParses) {
-            try {
-                caches = loader.load(Map.class, cacheFile);
-            } catch (FileNotFoundException e) {
-            } catch (IOException | ClassNotFoundException e) {
-                kem.registerInternalHiddenWarning("Invalidating serialized cache due to corruption.", e);
-            }
-        }
+        parses = new PersistentParseCache(cacheParses ? cacheFile : null, kem);
+        parses.load();
 
         ResolveConfig resolveConfig = new ResolveConfig(definitionWithConfigBubble, isStrict, this::parseBubble, this::getParser);
         gen = new RuleGrammarGenerator(definitionWithConfigBubble);
@@ -234,6 +222,7 @@ public class DefinitionParsing {
     }
 
     Map<String, ParseCache> caches;
+    private PersistentParseCache parses;
     private java.util.Set<KEMException> errors;
     RuleGrammarGenerator gen;
 
@@ -245,7 +234,7 @@ public class DefinitionParsing {
         Module ruleParserModule = gen.getRuleGrammar(defWithConfig.mainModule());
         ParseCache cache = loadCache(ruleParserModule);
         ParseInModule parser = RuleGrammarGenerator.getCombinedGrammar(cache.getModule(), isStrict);
-        try (Scanner scanner = parser.getScanner()) {
+        try (Scanner scanner = parser.getScanner(scannerCacheDirectory, inJvmScanner)) {
             return DefinitionTransformer.from(m -> this.resolveNonConfigBubbles(m, scanner, gen), "parsing rules").apply(defWithConfig);
         }
     }
@@ -264,14 +253,14 @@ public class DefinitionParsing {
 
         // this scanner is not good for this module, so we must generate a new scanner.
         boolean needNewScanner = !scanner.getModule().importedModuleNames().contains(module.name());
-        final Scanner realScanner = needNewScanner ? parser.getScanner() : scanner;
+        final Scanner realScanner = needNewScanner ? parser.getScanner(scannerCacheDirectory, inJvmScanner) : scanner;
 
         Set<Sentence> ruleSet = stream(module.localSentences())
                 .parallel()
                 .filter(s -> s instanceof Bubble)
                 .map(b -> (Bubble) b)
                 .filter(b -> b.sentenceType().equals("rule"))
-                .flatMap(b -> performParse(cache.getCache(), parser, realScanner, b))
+                .flatMap(b -> performParse(cache, parser, realScanner, b))
                 .map(this::upRule)
                 .collect(Collections.toSet());
 
@@ -280,7 +269,7 @@ public class DefinitionParsing {
                 .filter(s -> s instanceof Bubble)
                 .map(b -> (Bubble) b)
                 .filter(b -> b.sentenceType().equals("context"))
-                .flatMap(b -> performParse(cache.getCache(), parser, realScanner, b))
+                .flatMap(b -> performParse(cache, parser, realScanner, b))
                 .map(this::upContext)
                 .collect(Collections.toSet());
 
@@ -297,8 +286,8 @@ public class DefinitionParsing {
         gen = new RuleGrammarGenerator(compiledDef.kompiledDefinition);
         ParseInModule parser = RuleGrammarGenerator
                 .getCombinedGrammar(gen.getRuleGrammar(compiledDef.executionModule()), isStrict);
-        try (Scanner scanner = parser.getScanner()) { //required for Windows.
-            java.util.Set<K> res = performParse(new HashMap<>(), parser, scanner,
+        try (Scanner scanner = parser.getScanner(scannerCacheDirectory, inJvmScanner)) { //required for Windows.
+            java.util.Set<K> res = performParse(null, parser, scanner,
                     new Bubble("rule", contents, Att().add("contentStartLine", Integer.class, 1)
                             .add("contentStartColumn", Integer.class, 1).add(Source.class, source)))
                     .collect(Collectors.toSet());
@@ -342,7 +331,7 @@ public class DefinitionParsing {
     private ParseCache loadCache(Module parser) {
         ParseCache cachedParser = caches.get(parser.name());
         if (cachedParser == null || !equalsSyntax(cachedParser.getModule(), parser) || cachedParser.isStrict() != isStrict) {
-            cachedParser = new ParseCache(parser, isStrict, java.util.Collections.synchronizedMap(new HashMap<>()));
+            cachedParser = new ParseCache(parser, isStrict, parses);
             caches.put(parser.name(), cachedParser);
         }
         return cachedParser;
@@ -359,8 +348,8 @@ public class DefinitionParsing {
     private Stream<? extends K> parseBubble(Module module, Bubble b) {
         ParseCache cache = loadCache(gen.getConfigGrammar(module));
         ParseInModule parser = RuleGrammarGenerator.getCombinedGrammar(cache.getModule(), isStrict);
-        try (Scanner scanner = parser.getScanner()) {
-            return performParse(cache.getCache(), parser, scanner, b);
+        try (Scanner scanner = parser.getScanner(scannerCacheDirectory, inJvmScanner)) {
+            return performParse(cache, parser, scanner, b);
         }
     }
 
@@ -369,24 +358,28 @@ public class DefinitionParsing {
         return RuleGrammarGenerator.getCombinedGrammar(cache.getModule(), isStrict);
     }
 
-    private Stream<? extends K> performParse(Map<String, ParsedSentence> cache, ParseInModule parser, Scanner scanner, Bubble b) {
+    private Stream<? extends K> performParse(ParseCache cache, ParseInModule parser, Scanner scanner, Bubble b) {
         int startLine = b.att().get("contentStartLine", Integer.class);
         int startColumn = b.att().get("contentStartColumn", Integer.class);
         Source source = b.att().get(Source.class);
+        boolean inferSortChecks = !b.att().contains("macro") && !b.att().contains("alias");
+        String key = cache == null ? null : cache.key(b, inferSortChecks);
+        ParsedSentence parse = key == null ? null : cache.getCache().get(key);
         Tuple2<Either<java.util.Set<ParseFailedException>, K>, java.util.Set<ParseFailedException>> result;
-        if (cache.containsKey(b.contents())) {
-            ParsedSentence parse = cache.get(b.contents());
+        if (parse != null) {
             cachedBubbles.getAndIncrement();
             kem.addAllKException(parse.getWarnings().stream().map(e -> e.getKException()).collect(Collectors.toList()));
             return Stream.of(parse.getParse());
         } else {
-            result = parser.parseString(b.contents(), START_SYMBOL, scanner, source, startLine, startColumn, !b.att().contains("macro") && !b.att().contains("alias"));
+            result = parser.parseString(b.contents(), START_SYMBOL, scanner, source, startLine, startColumn, inferSortChecks);
             parsedBubbles.getAndIncrement();
             kem.addAllKException(result._2().stream().map(e -> e.getKException()).collect(Collectors.toList()));
             if (result._1().isRight()) {
                 KApply k = (KApply) new TreeNodesToKORE(Outer::parseSort).down(result._1().right().get());
                 k = KApply(k.klabel(), k.klist(), k.att().addAll(b.att().remove("contentStartLine").remove("contentStartColumn").remove(Source.class).remove(Location.class)));
-                cache.put(b.contents(), new ParsedSentence(k, new HashSet<>(result._2())));
+                if (key != null) {
+                    cache.getCache().put(key, new ParsedSentence(k, new HashSet<>(result._2())));
+                }
                 return Stream.of(k);
             } else {
                 errors.addAll(result._1().left().get());
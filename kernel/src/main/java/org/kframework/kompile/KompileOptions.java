@@ -119,5 +119,9 @@ public class KompileOptions implements Serializable {
 
         @Parameter(names="--kore-prove", description="Compile with the KORE pipeline for proving.")
         public boolean koreProve = false;
+
+        @Parameter(names="--in-jvm-scanner", description="Tokenize with an automaton running in the JVM rather than "
+                + "with a scanner generated by flex and compiled by gcc, when parsing rules and when parsing programs with kast.")
+        public boolean inJvmScanner = false;
     }
 }
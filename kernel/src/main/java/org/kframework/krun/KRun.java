@@ -2,6 +2,7 @@
 package org.kframework.krun;
 
 import com.davekoelle.AlphanumComparator;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.kframework.attributes.Att;
 import org.kframework.attributes.Source;
@@ -44,11 +45,14 @@ import org.kframework.utils.errorsystem.KExceptionManager;
 import org.kframework.utils.errorsystem.ParseFailedException;
 import org.kframework.utils.file.FileUtil;
 import org.kframework.utils.file.TTYInfo;
+import scala.Option;
 import scala.Tuple2;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
@@ -106,7 +110,11 @@ public class KRun {
 
 
         if (result != null) {
-            prettyPrint(compiledDef.getParsedDefinition(), compiledDef.languageParsingModule(), files, compiledDef.kompileOptions, options.prettyPrint.output, s -> outputFile(s, options.prettyPrint, files), result._1(), options.prettyPrint.color(tty.stdout, files.getEnv()));
+            if (options.prettyPrint.output == OutputModes.BINARY) {
+                outputBinary(result._1(), options.prettyPrint, files);
+            } else {
+                prettyPrint(compiledDef.getParsedDefinition(), compiledDef.languageParsingModule(), files, compiledDef.kompileOptions, options.prettyPrint.output, s -> outputFile(s, options.prettyPrint, files), result._1(), options.prettyPrint.color(tty.stdout, files.getEnv()));
+            }
             return result._2();
         }
         return 0;
@@ -161,6 +169,24 @@ public class KRun {
         }
     }
 
+    /**
+     * Writes the given term in the KAST binary format, with structural sharing, to the output file or to the standard
+     * output. The binary term is written as it is generated, rather than built in memory first. As with the other
+     * output modes, the missing parent directories of the output file are created.
+     */
+    public static void outputBinary(K result, PrettyPrintOptions options, FileUtil files) {
+        if (options.outputFile == null) {
+            ToBinary.apply(System.out, result, true);
+        } else {
+            File file = files.resolveWorkingDirectory(options.outputFile);
+            try (OutputStream out = FileUtils.openOutputStream(file)) {
+                ToBinary.apply(out, result, true);
+            } catch (IOException e) {
+                throw KEMException.criticalError("Could not write to file " + file.getAbsolutePath(), e);
+            }
+        }
+    }
+
     /**
      * Function to compile the String Pattern, if the pattern is not present in the cache. Note the difference between
      * compilation and parsing. Compilation is the result of resolving anonymous variables, semantic casts, and concretizing
@@ -189,7 +215,7 @@ public class KRun {
     public static void prettyPrint(Definition def, Module module, FileUtil files, KompileOptions kompile, OutputModes output, Consumer<byte[]> print, K result, ColorSetting colorize) {
         switch (output) {
         case KAST:
-            print.accept((ToKast.apply(result) + "\n").getBytes());
+            print.accept((ToKast.apply(sortCollections(result, module, ToKast::apply)) + "\n").getBytes());
             break;
         case NONE:
             print.accept("".getBytes());
@@ -282,20 +308,27 @@ public class KRun {
         return KApply(compiledDef.topCellInitializer, output.entrySet().stream().map(e -> KApply(KLabel("_|->_"), e.getKey(), e.getValue())).reduce(KApply(KLabel(".Map")), (a, b) -> KApply(KLabel("_Map_"), a, b)));
     }
 
-    public static String unparseTerm(K input, Module test, ColorSetting colorize, FileUtil files, KompileOptions kompile) {
-        K sortedComm = new TransformK() {
+    /**
+     * Sorts the elements of the associative, commutative collections with a unit (maps, sets, bags and #Or) by
+     * their printed form, so that the output does not depend on the order in which the backend stores them.
+     */
+    private static K sortCollections(K input, Module module, Function<K, String> print) {
+        return new TransformK() {
             @Override
             public K apply(KApply k) {
                 if (k.klabel() instanceof KVariable) {
                     return super.apply(k);
                 }
-                Att att = test.attributesFor().apply(KLabel(k.klabel().name()));
+                Option<Att> optionalAtt = module.attributesFor().get(KLabel(k.klabel().name()));
+                if (optionalAtt.isEmpty()) {
+                    return super.apply(k);
+                }
+                Att att = optionalAtt.get();
                 if (att.contains("comm") && att.contains("assoc") && att.contains("unit")) {
                     List<K> items = new ArrayList<>(Assoc.flatten(k.klabel(), k.klist().items(), KLabel(att.get("unit"))));
                     List<Tuple2<String, K>> printed = new ArrayList<>();
                     for (K item : items) {
-                        String s = unparseInternal(test, ColorSetting.OFF, apply(item), files, kompile);
-                        printed.add(Tuple2.apply(s, item));
+                        printed.add(Tuple2.apply(print.apply(apply(item)), item));
                     }
                     printed.sort(Comparator.comparing(Tuple2::_1, new AlphanumComparator()));
                     items = printed.stream().map(Tuple2::_2).map(this::apply).collect(Collectors.toList());
@@ -304,6 +337,10 @@ public class KRun {
                 return super.apply(k);
             }
         }.apply(input);
+    }
+
+    public static String unparseTerm(K input, Module test, ColorSetting colorize, FileUtil files, KompileOptions kompile) {
+        K sortedComm = sortCollections(input, test, k -> unparseInternal(test, ColorSetting.OFF, k, files, kompile));
         K alphaRenamed = new TransformK() {
             Map<KVariable, KVariable> renames = new HashMap<>();
             int newCount = 0;
@@ -262,5 +262,9 @@ public final class KRunOptions {
 
         @Parameter(names="--profile", description="Run krun multiple times to gather better performance metrics.")
         public int profile = 1;
+
+        @Parameter(names="--profile-allocation", description="Report the memory allocated and the time spent in "
+                + "garbage collection by the rewriting, per rewrite step.")
+        public boolean profileAllocation = false;
     }
 }
@@ -10,7 +10,6 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
-import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 
 /**
@@ -25,16 +24,14 @@ public class BinaryToText {
         FileUtil files = new FileUtil(null,null,new File(context.getWorkingDirectory()),null,null,null);
         File f = files.resolveWorkingDirectory(context.getArgs()[0]);
         FileChannel channel = FileChannel.open(f.toPath());
-        ByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
-        K result = BinaryParser.parse(buf);
+        K result = BinaryParser.parse(channel);
         ToKast.apply(result, new PrintStream(new FileOutputStream(files.resolveWorkingDirectory(context.getArgs()[1]))));
     }
 
     public static void main(String[] args) throws IOException {
         File f = new File(args[0]);
         FileChannel channel = FileChannel.open(f.toPath());
-        ByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
-        K result = BinaryParser.parse(buf);
+        K result = BinaryParser.parse(channel);
         ToKast.apply(result, new PrintStream(new FileOutputStream(new File(args[1]))));
     }
 }
@@ -12,8 +12,13 @@ import org.kframework.kore.mini.KVariable;
 import org.kframework.parser.outer.Outer;
 import org.kframework.utils.errorsystem.KEMException;
 
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -60,6 +65,9 @@ import java.util.Map;
  * simply by concatenating the terms together after stripping their MAGIC prefix and suffix. This will not be as
  * space-compact as if the term was outputted all at once, but can be done in constant time without requiring the terms
  * to be modified internally, and will still deserialze correctly.
+ *
+ * A term can be parsed from an array or a buffer holding all of its bytes, or incrementally from an input stream or a
+ * file channel, in which case only a window of {@link #WINDOW_SIZE} bytes of the term is held in memory at a time.
  */
 public class BinaryParser {
 
@@ -68,7 +76,16 @@ public class BinaryParser {
     public static final int BEGIN = 0, KTOKEN = 1, KAPPLY = 2, KSEQUENCE = 3, KVARIABLE = 4, KREWRITE = 5,
             INJECTEDKLABEL = 6, END = 7, BACK_REFERENCE = 8;
 
+    /**
+     * The number of bytes read at once from a channel.
+     */
+    public static final int WINDOW_SIZE = 1 << 16;
+
     private final ByteBuffer data;
+    /**
+     * The channel from which {@link #data} is refilled, or null if the buffer holds the whole term.
+     */
+    private final ReadableByteChannel channel;
     private final List<String> interns = new ArrayList<>();
     private final List<K> kInterns = new ArrayList<>();
 
@@ -76,6 +93,39 @@ public class BinaryParser {
 
     private BinaryParser(ByteBuffer data) {
         this.data = data;
+        this.channel = null;
+    }
+
+    private BinaryParser(ReadableByteChannel channel) {
+        this.data = ByteBuffer.allocate(WINDOW_SIZE);
+        this.data.flip();
+        this.channel = channel;
+    }
+
+    /**
+     * Ensures that the next {@code n} bytes of the term are in the buffer, refilling it from the channel if needed.
+     */
+    private void ensure(int n) throws IOException {
+        if (channel == null || data.remaining() >= n) {
+            return;
+        }
+        data.compact();
+        while (data.position() < n) {
+            if (channel.read(data) < 0) {
+                throw new EOFException("Unexpected end of KAST binary term");
+            }
+        }
+        data.flip();
+    }
+
+    private byte readByte() throws IOException {
+        ensure(1);
+        return data.get();
+    }
+
+    private int readInt() throws IOException {
+        ensure(4);
+        return data.getInt();
     }
 
     private K read400(boolean _401) throws IOException {
@@ -83,7 +133,7 @@ public class BinaryParser {
         Deque<K> stack = new ArrayDeque<>();
         int type = 0;
         while(type != END) {
-            type = data.get();
+            type = readByte();
             K[] items;
             int arity;
             switch (type) {
@@ -96,7 +146,7 @@ public class BinaryParser {
                 break;
             case KAPPLY:
                 KLabel lbl = readKLabel();
-                arity = data.getInt();
+                arity = readInt();
                 if (arity == 0)
                     items = EMPTY_KLIST;
                 else
@@ -107,7 +157,7 @@ public class BinaryParser {
                 stack.push(KApply.of(lbl, items));
                 break;
             case KSEQUENCE:
-                arity = data.getInt();
+                arity = readInt();
                 if (arity == 0)
                     items = EMPTY_KLIST;
                 else
@@ -133,7 +183,7 @@ public class BinaryParser {
             case BACK_REFERENCE:
                 if (!_401)
                     throw KEMException.criticalError("Unexpected code found in KAST binary term: " + type);
-                int idx = data.getInt();
+                int idx = readInt();
                 stack.push(kInterns.get(kInterns.size() - idx));
                 break;
             default:
@@ -154,17 +204,18 @@ public class BinaryParser {
 
     private KLabel readKLabel() throws IOException {
         String lbl = readString();
-        if (data.get() != 0)
+        if (readByte() != 0)
             return new KVariable(lbl);
         return klabelCache.computeIfAbsent(lbl, org.kframework.kore.KORE::KLabel);
     }
 
     private String readString() throws IOException {
-        int idx = data.getInt();
+        int idx = readInt();
         if (idx == 0) {
-            int len = data.getInt();
+            int len = readInt();
             char[] buf = new char[len];
             for (int i = 0; i < len; i++) {
+                ensure(2);
                 buf[i] = data.getChar();
             }
             String s = new String(buf);
@@ -184,19 +235,39 @@ public class BinaryParser {
     }
 
     public static K parse(ByteBuffer data) {
+        return parse(new BinaryParser(data));
+    }
+
+    /**
+     * Parses a term from the given input stream, reading it incrementally.
+     */
+    public static K parse(InputStream in) {
+        return parse(new BinaryParser(Channels.newChannel(in)));
+    }
+
+    /**
+     * Parses a term from the given file channel, from its current position, reading it incrementally. The file is
+     * not mapped into memory, as a mapping fails with a SIGBUS rather than an exception if the file is truncated
+     * while it is read.
+     */
+    public static K parse(FileChannel channel) {
+        return parse(new BinaryParser(channel));
+    }
+
+    private static K parse(BinaryParser parser) {
         try {
-            byte[] magic = new byte[5];
-            data.get(magic);
-            if (!Arrays.equals(magic, MAGIC)) {
-                throw KEMException.compilerError("Reading binary data from input source which is not a KAST term.");
+            for (byte b : MAGIC) {
+                if (parser.readByte() != b) {
+                    throw KEMException.compilerError("Reading binary data from input source which is not a KAST term.");
+                }
             }
-            int major = data.get();
-            int minor = data.get();
-            int build = data.get();
+            int major = parser.readByte();
+            int minor = parser.readByte();
+            int build = parser.readByte();
             if (major == 4 && minor == 0 && build == 0) {
-                return new BinaryParser(data).read400(false);
+                return parser.read400(false);
             } else if (major == 4 && minor == 0 && build == 1) {
-                return new BinaryParser(data).read400(true);
+                return parser.read400(true);
             } else {
                 throw KEMException.compilerError("Unsupported version of KAST binary file: " + major + "." + minor + "." + build);
             }
@@ -1,29 +1,173 @@
 // Copyright (c) 2015-2018 K Team. All Rights Reserved.
 package org.kframework.parser.concrete2kore;
 
+import org.bouncycastle.jcajce.provider.digest.SHA3;
+import org.bouncycastle.util.encoders.Hex;
+import org.kframework.attributes.Att;
+import org.kframework.attributes.Location;
+import org.kframework.attributes.Source;
+import org.kframework.definition.Bubble;
 import org.kframework.definition.Module;
+import org.kframework.definition.Production;
+import org.kframework.definition.ProductionItem;
+import org.kframework.definition.RegexTerminal;
+import org.kframework.definition.Tag;
+import org.kframework.definition.Terminal;
 import org.kframework.kore.K;
 import org.kframework.utils.errorsystem.ParseFailedException;
+import scala.Tuple2;
 
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.kframework.Collections.*;
 
 /**
  * Created by dwightguth on 4/20/15.
+ *
+ * The parses of the bubbles of a grammar. A parse is keyed by a fingerprint of the part of the grammar which could
+ * affect it, and by the text of its bubble. A production whose terminals do not all occur in the text of a bubble
+ * cannot be used to parse it, so the fingerprint of a bubble only covers the productions whose terminals occur in it,
+ * along with the productions without terminals, the priorities, associativities and sort declarations. Changing a
+ * production thus only invalidates the parses of the bubbles which could use it.
  */
-public class ParseCache implements Serializable {
+public class ParseCache {
     private final Module module;
     private final boolean strict;
-    private final Map<String, ParsedSentence> cache;
+    private final PersistentParseCache cache;
+
+    private final byte[] grammarDigest;
+    private final String[] terminals;
+    private final byte[][] productionDigests;
+    private final int[][] productionTerminals;
+    private final List<List<Integer>> productionsByTerminal;
 
-    public ParseCache(Module module, boolean strict, Map<String, ParsedSentence> cache) {
+    public ParseCache(Module module, boolean strict, PersistentParseCache cache) {
         this.module = module;
         this.strict = strict;
         this.cache = cache;
+
+        List<String> unguarded = new ArrayList<>();
+        Map<String, List<String>> guarded = new HashMap<>();
+        for (Production p : iterable(module.productions())) {
+            List<String> values = terminals(p);
+            String text = p.klabel() + " " + p + " " + withoutPositions(p.att());
+            if (values == null) {
+                unguarded.add(text);
+            } else {
+                guarded.put(text, values);
+            }
+        }
+        for (Tuple2<Tag, scala.collection.immutable.Set<Tag>> relation : iterable(module.priorities().relations())) {
+            for (Tag lower : iterable(relation._2())) {
+                unguarded.add("priority " + relation._1().name() + " > " + lower.name());
+            }
+        }
+        for (Tuple2<Tag, Tag> assoc : iterable(module.leftAssoc())) {
+            unguarded.add("left " + assoc._1().name() + " " + assoc._2().name());
+        }
+        for (Tuple2<Tag, Tag> assoc : iterable(module.rightAssoc())) {
+            unguarded.add("right " + assoc._1().name() + " " + assoc._2().name());
+        }
+        stream(module.sortDeclarations())
+                .map(s -> "syntax " + s.sort() + " " + withoutPositions(s.att()))
+                .forEach(unguarded::add);
+        unguarded.sort(null);
+        unguarded.add("strict " + strict);
+        grammarDigest = digest(String.join("\n", unguarded));
+
+        List<String> texts = guarded.keySet().stream().sorted().collect(Collectors.toList());
+        terminals = guarded.values().stream().flatMap(List::stream).distinct().toArray(String[]::new);
+        Map<String, Integer> terminalIndices = new HashMap<>();
+        productionsByTerminal = new ArrayList<>();
+        for (int i = 0; i < terminals.length; i++) {
+            terminalIndices.put(terminals[i], i);
+            productionsByTerminal.add(new ArrayList<>());
+        }
+        productionDigests = new byte[texts.size()][];
+        productionTerminals = new int[texts.size()][];
+        for (int i = 0; i < texts.size(); i++) {
+            List<String> values = guarded.get(texts.get(i));
+            productionDigests[i] = digest(texts.get(i));
+            productionTerminals[i] = values.stream().mapToInt(terminalIndices::get).toArray();
+            String longest = values.stream().max((t1, t2) -> Integer.compare(t1.length(), t2.length())).get();
+            productionsByTerminal.get(terminalIndices.get(longest)).add(i);
+        }
+    }
+
+    /**
+     * Returns the terminals of a production, or {@code null} if the production could be used to parse a bubble
+     * regardless of its text.
+     */
+    private static List<String> terminals(Production p) {
+        List<String> values = new ArrayList<>();
+        for (ProductionItem item : iterable(p.items())) {
+            if (item instanceof RegexTerminal) {
+                return null;
+            } else if (item instanceof Terminal) {
+                values.add(((Terminal) item).value());
+            }
+        }
+        return values.isEmpty() ? null : values;
+    }
+
+    private static Att withoutPositions(Att att) {
+        return att.remove(Location.class).remove(Source.class);
+    }
+
+    private static byte[] digest(String text) {
+        return new SHA3.Digest256().digest(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the key of the parse of a bubble with this grammar in {@link #getCache()}. The location of the bubble is
+     * not part of the key, so that moving a sentence does not invalidate its parse.
+     */
+    public String key(Bubble b, boolean inferSortChecks) {
+        String contents = b.contents();
+        BitSet present = new BitSet(terminals.length);
+        for (int i = 0; i < terminals.length; i++) {
+            if (contents.contains(terminals[i])) {
+                present.set(i);
+            }
+        }
+        BitSet relevant = new BitSet(productionDigests.length);
+        for (int t = present.nextSetBit(0); t >= 0; t = present.nextSetBit(t + 1)) {
+            for (int p : productionsByTerminal.get(t)) {
+                if (allPresent(productionTerminals[p], present)) {
+                    relevant.set(p);
+                }
+            }
+        }
+        SHA3.Digest256 digest = new SHA3.Digest256();
+        digest.update(grammarDigest);
+        for (int p = relevant.nextSetBit(0); p >= 0; p = relevant.nextSetBit(p + 1)) {
+            digest.update(productionDigests[p]);
+        }
+        Att att = b.att().remove(Location.class).remove("contentStartLine", Integer.class)
+                .remove("contentStartColumn", Integer.class);
+        digest.update((b.sentenceType() + " " + inferSortChecks + " " + att + "\n" + contents)
+                .getBytes(StandardCharsets.UTF_8));
+        return Hex.toHexString(digest.digest());
+    }
+
+    private static boolean allPresent(int[] terminals, BitSet present) {
+        for (int t : terminals) {
+            if (!present.get(t)) {
+                return false;
+            }
+        }
+        return true;
     }
 
-    public Map<String, ParsedSentence> getCache() {
+    public PersistentParseCache getCache() {
         return cache;
     }
 
@@ -21,6 +21,7 @@ import scala.util.Either;
 import scala.util.Left;
 import scala.util.Right;
 
+import java.io.File;
 import java.io.Serializable;
 import java.util.Collections;
 import java.util.Set;
@@ -106,6 +107,13 @@ public class ParseInModule implements Serializable {
         return new Scanner(this);
     }
 
+    /**
+     * @see Scanner#Scanner(ParseInModule, File, boolean)
+     */
+    public Scanner getScanner(File cacheDirectory, boolean inJvm) {
+        return new Scanner(this, cacheDirectory, inJvm);
+    }
+
     public Tuple2<Either<Set<ParseFailedException>, K>, Set<ParseFailedException>>
         parseString(String input, Sort startSymbol, Scanner scanner, Source source, int startLine, int startColumn, boolean inferSortChecks) {
         final Tuple2<Either<Set<ParseFailedException>, Term>, Set<ParseFailedException>> result
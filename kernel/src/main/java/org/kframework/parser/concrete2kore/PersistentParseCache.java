@@ -0,0 +1,213 @@
+// Copyright (c) 2018 K Team. All Rights Reserved.
+package org.kframework.parser.concrete2kore;
+
+import org.kframework.parser.concrete2kore.ParseCache.ParsedSentence;
+import org.kframework.utils.BinaryLoader;
+import org.kframework.utils.errorsystem.KEMException;
+import org.kframework.utils.errorsystem.KExceptionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The parses of bubbles, keyed by the keys computed by {@link ParseCache#key}, and stored in an append-only file
+ * which can be shared by several definitions and by concurrent kompile processes.
+ *
+ * The file starts with a header followed by segments. Each segment is the length of its contents followed by the
+ * serialized map of the parses added by one process. Segments are only read under a shared lock and appended under
+ * an exclusive lock, and a segment left incomplete by a process which died while writing it is truncated by the next
+ * process to write to the file. When the file grows past {@link #MAX_FILE_SIZE}, it is rewritten with only the parses
+ * used or added by the process writing it.
+ *
+ * File locks are held on behalf of the whole JVM, and locking a file already locked by another thread of the JVM
+ * throws {@link java.nio.channels.OverlappingFileLockException}. The caches of the same file, for instance in
+ * concurrent kserver requests, thus also take a lock of the file within the process.
+ */
+public class PersistentParseCache {
+
+    private static final byte[] HEADER = "K parse cache 1\n".getBytes(StandardCharsets.US_ASCII);
+    private static final long MAX_FILE_SIZE = 1 << 26;
+    private static final ConcurrentMap<Path, Object> PROCESS_LOCKS = new ConcurrentHashMap<>();
+
+    private final File file;
+    private final BinaryLoader loader;
+    private final KExceptionManager kem;
+    private final Map<String, ParsedSentence> parses = new ConcurrentHashMap<>();
+    private final Map<String, ParsedSentence> added = new ConcurrentHashMap<>();
+    private final Set<String> used = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates a cache stored in the given file, or only in memory if the file is {@code null}.
+     */
+    public PersistentParseCache(File file, KExceptionManager kem) {
+        this.file = file;
+        this.kem = kem;
+        this.loader = new BinaryLoader(kem);
+    }
+
+    public ParsedSentence get(String key) {
+        ParsedSentence parse = parses.get(key);
+        if (parse != null) {
+            used.add(key);
+        }
+        return parse;
+    }
+
+    public void put(String key, ParsedSentence parse) {
+        parses.put(key, parse);
+        added.put(key, parse);
+    }
+
+    /**
+     * Reads the parses stored in the file. A corrupted segment is skipped, and a file without the expected header
+     * is ignored and overwritten by the next call to {@link #save}.
+     */
+    public void load() {
+        if (file == null) {
+            return;
+        }
+        synchronized (processLock()) {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+                 FileLock ignored = channel.lock(0, Long.MAX_VALUE, true)) {
+                if (!hasHeader(channel)) {
+                    return;
+                }
+                long position = HEADER.length;
+                while (true) {
+                    byte[] segment = readSegment(channel, position);
+                    if (segment == null) {
+                        return;
+                    }
+                    position += Integer.BYTES + segment.length;
+                    try {
+                        @SuppressWarnings("unchecked")
+                        Map<String, ParsedSentence> stored = loader.load(Map.class, new ByteArrayInputStream(segment));
+                        parses.putAll(stored);
+                    } catch (IOException | ClassNotFoundException | ClassCastException e) {
+                        kem.registerInternalHiddenWarning("Invalidating serialized cache due to corruption.", e);
+                    }
+                }
+            } catch (NoSuchFileException e) {
+            } catch (IOException e) {
+                kem.registerInternalHiddenWarning("Invalidating serialized cache due to corruption.", e);
+            }
+        }
+    }
+
+    /**
+     * Appends the parses added since the cache was loaded to the file.
+     */
+    public void save() {
+        if (file == null || added.isEmpty()) {
+            return;
+        }
+        File dir = file.getAbsoluteFile().getParentFile();
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw KEMException.criticalError("Could not create directory " + dir);
+        }
+        synchronized (processLock()) {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+                 FileLock ignored = channel.lock()) {
+                long end = hasHeader(channel) ? validEnd(channel) : 0;
+                Map<String, ParsedSentence> segment = new HashMap<>(added);
+                if (end == 0 || end > MAX_FILE_SIZE) {
+                    for (String key : used) {
+                        segment.putIfAbsent(key, parses.get(key));
+                    }
+                    end = 0;
+                }
+                channel.truncate(end);
+                if (end == 0) {
+                    writeFully(channel, ByteBuffer.wrap(HEADER), 0);
+                    end = HEADER.length;
+                }
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                loader.save(bytes, segment);
+                ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + bytes.size());
+                buffer.putInt(bytes.size()).put(bytes.toByteArray()).flip();
+                writeFully(channel, buffer, end);
+                added.clear();
+            } catch (IOException e) {
+                throw KEMException.criticalError("Could not write to " + file, e);
+            }
+        }
+    }
+
+    /**
+     * Returns the object on which the caches of the file synchronize within the process.
+     */
+    private Object processLock() {
+        return PROCESS_LOCKS.computeIfAbsent(file.getAbsoluteFile().toPath().normalize(), path -> new Object());
+    }
+
+    private static boolean hasHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER.length);
+        return readFully(channel, header, 0) && Arrays.equals(header.array(), HEADER);
+    }
+
+    /**
+     * Returns the position following the last complete segment of the file.
+     */
+    private static long validEnd(FileChannel channel) throws IOException {
+        long position = HEADER.length;
+        ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+        while (true) {
+            length.clear();
+            if (!readFully(channel, length, position)) {
+                return position;
+            }
+            long next = position + Integer.BYTES + length.getInt(0);
+            if (length.getInt(0) < 0 || next > channel.size()) {
+                return position;
+            }
+            position = next;
+        }
+    }
+
+    /**
+     * Returns the contents of the segment at the given position, or {@code null} if there is no complete segment
+     * there.
+     */
+    private static byte[] readSegment(FileChannel channel, long position) throws IOException {
+        ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+        if (!readFully(channel, length, position) || length.getInt(0) < 0
+                || position + Integer.BYTES + length.getInt(0) > channel.size()) {
+            return null;
+        }
+        ByteBuffer segment = ByteBuffer.allocate(length.getInt(0));
+        return readFully(channel, segment, position + Integer.BYTES) ? segment.array() : null;
+    }
+
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                return false;
+            }
+            position += read;
+        }
+        return true;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+// Copyright (c) 2018 K Team. All Rights Reserved.
+package org.kframework.parser.concrete2kore.kernel;
+
+import com.google.common.collect.ImmutableMap;
+import dk.brics.automaton.RegExp;
+import dk.brics.automaton.RunAutomaton;
+import org.kframework.utils.errorsystem.KEMException;
+
+import java.util.Map;
+
+/**
+ * Translates the regular expressions of the tokens and of the layout, which are written for flex, into the syntax of
+ * dk.brics regular expressions, so that {@link ScannerAutomaton} tokenizes like the flex scanner.
+ * <p>
+ * The two syntaxes share their operators, but differ on escapes: flex reads {@code \n} as a newline, while dk.brics
+ * reads it as the letter n. dk.brics also gives a special meaning to characters which are literal in flex
+ * ({@code "}, {@code <}, {@code >}, {@code &}, {@code ~}, {@code @} and {@code #}), and its {@code .} matches newlines.
+ * The translation thus decodes the characters of the flex expression and quotes all of them but letters and digits.
+ * Start conditions, anchors and trailing contexts have no equivalent and are rejected.
+ */
+final class FlexRegex {
+
+    private static final Map<String, String> CHARACTER_CLASSES = ImmutableMap.<String, String>builder()
+            .put("alnum", "0-9A-Za-z")
+            .put("alpha", "A-Za-z")
+            .put("blank", " \t")
+            .put("cntrl", "\u0000-\u001f\u007f")
+            .put("digit", "0-9")
+            .put("graph", "!-~")
+            .put("lower", "a-z")
+            .put("print", " -~")
+            .put("punct", "!-/:-@[-`{-~")
+            .put("space", " \t\n\u000b\f\r")
+            .put("upper", "A-Z")
+            .put("xdigit", "0-9A-Fa-f")
+            .build();
+
+    private final String regex;
+    private final StringBuilder brics = new StringBuilder();
+    private int pos;
+
+    private FlexRegex(String regex) {
+        this.regex = regex;
+    }
+
+    static RunAutomaton compile(String regex) {
+        return new RunAutomaton(new RegExp(toBrics(regex), RegExp.NONE).toAutomaton(), false);
+    }
+
+    static String toBrics(String regex) {
+        FlexRegex translation = new FlexRegex(regex);
+        translation.translate();
+        return translation.brics.toString();
+    }
+
+    private KEMException unsupported(String construct) {
+        return KEMException.criticalError("The in-JVM scanner does not support " + construct
+                + " in regular expression " + regex + ". Use the flex scanner instead.");
+    }
+
+    private void translate() {
+        if (regex.startsWith("^")) {
+            throw unsupported("the anchor ^");
+        }
+        if (regex.startsWith("<")) {
+            throw unsupported("start conditions");
+        }
+        while (pos < regex.length()) {
+            char c = regex.charAt(pos++);
+            switch (c) {
+            case '\\':
+                quote(escape());
+                break;
+            case '"':
+                brics.append('(');
+                while (pos < regex.length() && regex.charAt(pos) != '"') {
+                    c = regex.charAt(pos++);
+                    quote(c == '\\' ? escape() : c);
+                }
+                if (pos++ == regex.length()) {
+                    throw unsupported("an unterminated string");
+                }
+                brics.append(')');
+                break;
+            case '.':
+                brics.append("[^\\\n]");
+                break;
+            case '[':
+                characterClass();
+                break;
+            case '{':
+                int end = regex.indexOf('}', pos);
+                if (end < 0 || !regex.substring(pos, end).matches("[0-9]+(,[0-9]*)?")) {
+                    throw unsupported("definitions");
+                }
+                brics.append(regex, pos - 1, end + 1);
+                pos = end + 1;
+                break;
+            case '(':
+                if (pos < regex.length() && regex.charAt(pos) == '?') {
+                    throw unsupported("pattern options");
+                }
+                brics.append(c);
+                break;
+            case ')':
+            case '|':
+            case '*':
+            case '+':
+            case '?':
+                brics.append(c);
+                break;
+            case '/':
+                throw unsupported("trailing contexts");
+            case '$':
+                if (pos == regex.length()) {
+                    throw unsupported("the anchor $");
+                }
+                quote(c);
+                break;
+            default:
+                quote(c);
+            }
+        }
+    }
+
+    private void characterClass() {
+        brics.append('[');
+        if (pos < regex.length() && regex.charAt(pos) == '^') {
+            brics.append('^');
+            pos++;
+        }
+        boolean first = true;
+        while (true) {
+            if (pos == regex.length()) {
+                throw unsupported("an unterminated character class");
+            }
+            char c = regex.charAt(pos++);
+            if (c == ']' && !first) {
+                break;
+            }
+            first = false;
+            if (c == '[' && regex.startsWith(":", pos)) {
+                int end = regex.indexOf(":]", pos + 1);
+                String ranges = end < 0 ? null : CHARACTER_CLASSES.get(regex.substring(pos + 1, end));
+                if (ranges == null) {
+                    throw unsupported("the character class expression at offset " + (pos - 1));
+                }
+                for (int i = 0; i < ranges.length(); i++) {
+                    if (ranges.charAt(i) == '-' && i > 0) {
+                        brics.append('-');
+                    } else {
+                        quote(ranges.charAt(i));
+                    }
+                }
+                pos = end + 2;
+                continue;
+            }
+            quote(c == '\\' ? escape() : c);
+            if (pos + 1 < regex.length() && regex.charAt(pos) == '-' && regex.charAt(pos + 1) != ']') {
+                brics.append('-');
+                pos++;
+                c = regex.charAt(pos++);
+                quote(c == '\\' ? escape() : c);
+            }
+        }
+        brics.append(']');
+    }
+
+    /**
+     * Decodes the escape sequence following a backslash.
+     */
+    private char escape() {
+        if (pos == regex.length()) {
+            throw unsupported("a trailing backslash");
+        }
+        char c = regex.charAt(pos++);
+        switch (c) {
+        case 'a': return '\u0007';
+        case 'b': return '\b';
+        case 'f': return '\f';
+        case 'n': return '\n';
+        case 'r': return '\r';
+        case 't': return '\t';
+        case 'v': return '\u000b';
+        case 'x':
+            return (char) number(16, 2);
+        default:
+            if (c >= '0' && c <= '7') {
+                pos--;
+                return (char) number(8, 3);
+            }
+            return c;
+        }
+    }
+
+    private int number(int radix, int maxDigits) {
+        int value = 0;
+        int digits = 0;
+        while (digits < maxDigits && pos < regex.length() && Character.digit(regex.charAt(pos), radix) >= 0) {
+            value = value * radix + Character.digit(regex.charAt(pos++), radix);
+            digits++;
+        }
+        if (digits == 0) {
+            throw unsupported("the escape sequence at offset " + pos);
+        }
+        return value;
+    }
+
+    /**
+     * Appends a literal character, quoted unless it is a letter or a digit, which are never special in dk.brics.
+     */
+    private void quote(char c) {
+        if (c < 0x80 && Character.isLetterOrDigit(c)) {
+            brics.append(c);
+        } else {
+            brics.append('\\').append(c);
+        }
+    }
+}
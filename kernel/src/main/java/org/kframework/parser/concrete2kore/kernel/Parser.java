@@ -25,11 +25,11 @@ import org.kframework.utils.errorsystem.KException.KExceptionGroup;
 import org.kframework.utils.errorsystem.ParseFailedException;
 import org.pcollections.ConsPStack;
 
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.Map;
+import java.util.List;
+import java.util.PriorityQueue;
 import java.util.Set;
-import java.util.TreeSet;
 
 /**
  * This is the main code for running the parser.
@@ -42,9 +42,12 @@ import java.util.TreeSet;
  * {@link StateCall} and {@link StateReturn} records. These tables are stored
  * in ParseState and are keyed by {@link NonTerminalCall.Key},
  * {@link StateCall.Key} and {@link StateReturn.Key}. For any given Key, there is
- * a single value that can be looked up in an {@link AutoVivifyingBiMap}.
- * If no value exists for a given Key, then the {@link AutoVivifyingBiMap}
- * will create one.
+ * a single value that can be looked up with {@link ParseState#ntCall},
+ * {@link ParseState#stateCall} and {@link ParseState#stateReturn}.
+ * If no value exists for a given Key, then these methods will create one.
+ * The tables are bucketed by position and keyed by the unique id of the
+ * {@link NonTerminal} or {@link State} in a {@link UniqueTable}, so that looking
+ * up a record does not allocate a Key.
  *
  * In addition to these tables, a work queue of {@link StateReturn}s
  * to be processed is kept in {@link StateReturnWorkList}.
@@ -102,6 +105,8 @@ public class Parser {
     public static class StateCall {
         /** The {@link Function} storing the AST parsed so far */
         final Function function = Function.empty();
+        /** The next StateCall for the same state and begin position, in a different {@link NonTerminalCall} */
+        private StateCall nextInBucket;
 
         public static class Key {
             /** The {@link NonTerminalCall} containing this StateCall */
@@ -172,6 +177,10 @@ public class Parser {
     public static class StateReturn implements Comparable<StateReturn> {
         /** The {@link Function} storing the AST parsed so far */
         final Function function = Function.empty();
+        /** The next StateReturn for the same state and end position, for a different {@link StateCall} */
+        private StateReturn nextInBucket;
+        /** Whether this StateReturn is in the {@link StateReturnWorkList} */
+        private boolean queued;
 
         private final int[] orderingInfo = new int[5];
 
@@ -369,24 +378,114 @@ public class Parser {
 
     ////////////////
 
+    /**
+     * A bucket queue of {@link StateReturn}s ordered by {@link StateReturn#compareTo(StateReturn)}.
+     * The first component of that order is the begin position of the {@link NonTerminalCall}
+     * (contravariantly), so there is one bucket per position, holding a heap of the StateReturns
+     * of the NonTerminalCalls beginning at that position.
+     */
     private static class StateReturnWorkList {
-        private final HashSet<StateReturn> contains = new HashSet<>();
-        private final TreeSet<StateReturn> ordering = new TreeSet<>();
-        public void enqueue(StateReturn stateReturn) {
-            if (!contains.add(stateReturn)) return;
-            ordering.add(stateReturn);
+        private final PriorityQueue<StateReturn>[] buckets;
+        /** The greatest position which may have a nonempty bucket */
+        private int current = -1;
+
+        @SuppressWarnings("unchecked")
+        StateReturnWorkList(int positions) {
+            buckets = (PriorityQueue<StateReturn>[]) new PriorityQueue[positions];
         }
-        public void addAll(Set<? extends StateReturn> c) {
-            if (!contains.addAll(c)) return;
-            ordering.addAll(c);
+
+        public void enqueue(StateReturn stateReturn) {
+            if (stateReturn.queued) return;
+            stateReturn.queued = true;
+            int ntBegin = stateReturn.key.stateCall.key.ntCall.key.ntBegin;
+            if (buckets[ntBegin] == null) {
+                buckets[ntBegin] = new PriorityQueue<>();
+            }
+            buckets[ntBegin].add(stateReturn);
+            current = Math.max(current, ntBegin);
         }
+
         public StateReturn dequeue() {
-            StateReturn next = ordering.pollFirst();
-            contains.remove(next);
+            while (current >= 0 && (buckets[current] == null || buckets[current].isEmpty())) {
+                current--;
+            }
+            if (current < 0) {
+                return null;
+            }
+            StateReturn next = buckets[current].poll();
+            next.queued = false;
             return next;
         }
     }
 
+    /**
+     * The records of one position of the input, keyed by the unique id of their {@link NonTerminal} or
+     * {@link State}. The table is open-addressed, so that its size depends on the number of records at the
+     * position rather than on the number of states of the grammar.
+     */
+    private static final class UniqueTable<T> {
+        // the unique ids plus one, so that 0 marks an empty slot
+        private int[] keys = new int[8];
+        private Object[] values = new Object[8];
+        private int size = 0;
+
+        @SuppressWarnings("unchecked")
+        T get(int unique) {
+            int mask = keys.length - 1;
+            for (int i = slot(unique, mask); keys[i] != 0; i = (i + 1) & mask) {
+                if (keys[i] == unique + 1) {
+                    return (T) values[i];
+                }
+            }
+            return null;
+        }
+
+        void put(int unique, T value) {
+            if (2 * (size + 1) > keys.length) {
+                int[] oldKeys = keys;
+                Object[] oldValues = values;
+                keys = new int[2 * oldKeys.length];
+                values = new Object[2 * oldKeys.length];
+                size = 0;
+                for (int i = 0; i < oldKeys.length; i++) {
+                    if (oldKeys[i] != 0) {
+                        insert(oldKeys[i], oldValues[i]);
+                    }
+                }
+            }
+            insert(unique + 1, value);
+        }
+
+        private void insert(int key, Object value) {
+            int mask = keys.length - 1;
+            int i = slot(key - 1, mask);
+            while (keys[i] != 0 && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if (keys[i] == 0) {
+                keys[i] = key;
+                size++;
+            }
+            values[i] = value;
+        }
+
+        private static int slot(int unique, int mask) {
+            int h = unique * 0x9E3779B9;
+            return (h ^ (h >>> 16)) & mask;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<T> values() {
+            List<T> result = new ArrayList<>(size);
+            for (Object value : values) {
+                if (value != null) {
+                    result.add((T) value);
+                }
+            }
+            return result;
+        }
+    }
+
     /**
      * The state used internally by the parser.
      */
@@ -395,7 +494,7 @@ public class Parser {
         final Scanner.Token[] input;
         final String originalInput;
         // a priority queue containing the return states to be processed
-        final StateReturnWorkList stateReturnWorkList = new StateReturnWorkList();
+        final StateReturnWorkList stateReturnWorkList;
         // a preprocessed correspondence from index to line and column in the input string
         // TODO: replace lines and columns with Location class
         // TODO: extract Location class into it's own file
@@ -403,10 +502,14 @@ public class Parser {
         final int[] columns;
         private int maxPosition = 0;
         private final Source source;
-        Map<NonTerminalCall.Key, NonTerminalCall> ntCalls = new HashMap<>();
-        Map<StateCall.Key, StateCall> stateCalls = new HashMap<>();
-        Map<StateReturn.Key, StateReturn> stateReturns = new HashMap<>();
-
+        // the NonTerminalCalls by begin position and NonTerminal
+        final UniqueTable<NonTerminalCall>[] ntCalls;
+        // the StateCalls by begin position and State, chained by NonTerminalCall
+        final UniqueTable<StateCall>[] stateCalls;
+        // the StateReturns by end position and State, chained by StateCall
+        final UniqueTable<StateReturn>[] stateReturns;
+
+        @SuppressWarnings("unchecked")
         public ParseState(String input, Scanner scanner, Source source, int startLine, int startColumn) {
             /**
              * Create arrays corresponding to the index in the input CharSequence and the line and
@@ -457,6 +560,57 @@ public class Parser {
             lines[utf8.length] = l;
             columns[utf8.length] = c;
             this.input = scanner.tokenize(input, source, lines, columns);
+            this.stateReturnWorkList = new StateReturnWorkList(this.input.length + 1);
+            this.ntCalls = new UniqueTable[this.input.length + 1];
+            this.stateCalls = new UniqueTable[this.input.length + 1];
+            this.stateReturns = new UniqueTable[this.input.length + 1];
+        }
+
+        NonTerminalCall ntCall(NonTerminal nt, int ntBegin) {
+            UniqueTable<NonTerminalCall> bucket = bucket(ntCalls, ntBegin);
+            NonTerminalCall ntCall = bucket.get(nt.unique);
+            if (ntCall == null) {
+                ntCall = new NonTerminalCall.Key(nt, ntBegin).create();
+                bucket.put(nt.unique, ntCall);
+            }
+            return ntCall;
+        }
+
+        StateCall stateCall(NonTerminalCall ntCall, int stateBegin, State state) {
+            UniqueTable<StateCall> bucket = bucket(stateCalls, stateBegin);
+            StateCall first = bucket.get(state.unique);
+            for (StateCall stateCall = first; stateCall != null; stateCall = stateCall.nextInBucket) {
+                if (stateCall.key.ntCall == ntCall) {
+                    return stateCall;
+                }
+            }
+            StateCall stateCall = new StateCall.Key(ntCall, stateBegin, state).create();
+            stateCall.nextInBucket = first;
+            bucket.put(state.unique, stateCall);
+            return stateCall;
+        }
+
+        StateReturn stateReturn(StateCall stateCall, int stateEnd) {
+            int unique = stateCall.key.state.unique;
+            UniqueTable<StateReturn> bucket = bucket(stateReturns, stateEnd);
+            StateReturn first = bucket.get(unique);
+            for (StateReturn stateReturn = first; stateReturn != null; stateReturn = stateReturn.nextInBucket) {
+                if (stateReturn.key.stateCall == stateCall) {
+                    return stateReturn;
+                }
+            }
+            StateReturn stateReturn = new StateReturn.Key(stateCall, stateEnd).create();
+            stateReturn.nextInBucket = first;
+            bucket.put(unique, stateReturn);
+            return stateReturn;
+        }
+
+        private static <T> UniqueTable<T> bucket(UniqueTable<T>[] buckets, int position) {
+            UniqueTable<T> bucket = buckets[position];
+            if (bucket == null) {
+                bucket = buckets[position] = new UniqueTable<>();
+            }
+            return bucket;
         }
     }
 
@@ -568,9 +722,7 @@ public class Parser {
      */
     public Term parse(NonTerminal nt, int position) {
         assert nt != null : "Start symbol cannot be null.";
-        activateStateCall(s.stateCalls.computeIfAbsent(new StateCall.Key(s.ntCalls.computeIfAbsent(
-            new NonTerminalCall.Key(nt, position), NonTerminalCall.Key::create), position, nt.entryState), StateCall.Key::create),
-            Function.IDENTITY);
+        activateStateCall(s.stateCall(s.ntCall(nt, position), position, nt.entryState), Function.IDENTITY);
 
         for (StateReturn stateReturn;
              (stateReturn = s.stateReturnWorkList.dequeue()) != null;) {
@@ -578,7 +730,7 @@ public class Parser {
         }
 
         Set<Term> resultSet = new HashSet<>();
-        for(StateReturn stateReturn : s.ntCalls.computeIfAbsent(new NonTerminalCall.Key(nt, position), NonTerminalCall.Key::create).exitStateReturns) {
+        for(StateReturn stateReturn : s.ntCall(nt, position).exitStateReturns) {
             if (stateReturn.key.stateEnd == s.input.length) {
                 resultSet.add(KList.apply(ConsPStack.singleton(Ambiguity.apply(stateReturn.function.values))));
             }
@@ -609,18 +761,22 @@ public class Parser {
      */
     public ParseError getErrors() {
         int current = 0;
-        for (StateCall.Key key : s.stateCalls.keySet()) {
-            if (key.state instanceof PrimitiveState)
-                current = Math.max(current, key.stateBegin);
-        }
-        current = Math.max(current, s.maxPosition);
         Set<Pair<Production, RegExState>> tokens = new HashSet<>();
-        for (StateCall.Key key : s.stateCalls.keySet()) {
-            if (key.state instanceof RegExState && key.stateBegin == s.maxPosition) {
-                tokens.add(new ImmutablePair<>(
-                    null, ((RegExState) key.state)));
+        for (UniqueTable<StateCall> bucket : s.stateCalls) {
+            if (bucket == null) continue;
+            for (StateCall stateCall : bucket.values()) {
+                for (; stateCall != null; stateCall = stateCall.nextInBucket) {
+                    StateCall.Key key = stateCall.key;
+                    if (key.state instanceof PrimitiveState)
+                        current = Math.max(current, key.stateBegin);
+                    if (key.state instanceof RegExState && key.stateBegin == s.maxPosition) {
+                        tokens.add(new ImmutablePair<>(
+                            null, ((RegExState) key.state)));
+                    }
+                }
             }
         }
+        current = Math.max(current, s.maxPosition);
         if (s.input.length == 0) {
             return new ParseError(s.source, current, s.lines[0], s.columns[0],
                     s.lines[0], s.columns[0] + 1, tokens);
@@ -669,14 +825,11 @@ public class Parser {
             State state = stateReturn.key.stateCall.key.state;
             if (state instanceof ExitState) {
                 for (StateCall stateCall : stateReturn.key.stateCall.key.ntCall.callers) {
-                    s.stateReturnWorkList.enqueue(
-                        s.stateReturns.computeIfAbsent(
-                                new StateReturn.Key(stateCall, stateReturn.key.stateEnd), StateReturn.Key::create));
+                    s.stateReturnWorkList.enqueue(s.stateReturn(stateCall, stateReturn.key.stateEnd));
                 }
             } else if (state instanceof NextableState) {
                 for (State nextState : ((NextableState) state).next) {
-                    activateStateCall(s.stateCalls.computeIfAbsent(new StateCall.Key(
-                        stateReturn.key.stateCall.key.ntCall, stateReturn.key.stateEnd, nextState), StateCall.Key::create),
+                    activateStateCall(s.stateCall(stateReturn.key.stateCall.key.ntCall, stateReturn.key.stateEnd, nextState),
                         stateReturn.function);
                 }
             } else { throw unknownStateType(); }
@@ -713,14 +866,14 @@ public class Parser {
         } else if (stateReturn.key.stateCall.key.state instanceof NonTerminalState) {
             return stateReturn.function.addNTCall(
                 stateReturn.key.stateCall.function,
-                s.stateReturns.computeIfAbsent(new StateReturn.Key(
-                    s.stateCalls.computeIfAbsent(new StateCall.Key(
-                        s.ntCalls.computeIfAbsent(new NonTerminalCall.Key(
+                s.stateReturn(
+                    s.stateCall(
+                        s.ntCall(
                                 ((Grammar.NonTerminalState) stateReturn.key.stateCall.key.state).child,
-                                stateReturn.key.stateCall.key.stateBegin), NonTerminalCall.Key::create),
+                                stateReturn.key.stateCall.key.stateBegin),
                         stateReturn.key.stateEnd,
-                        ((Grammar.NonTerminalState) stateReturn.key.stateCall.key.state).child.exitState), StateCall.Key::create),
-                    stateReturn.key.stateEnd), StateReturn.Key::create).function);
+                        ((Grammar.NonTerminalState) stateReturn.key.stateCall.key.state).child.exitState),
+                    stateReturn.key.stateEnd).function);
         } else { throw unknownStateType(); }
     }
 
@@ -733,32 +886,24 @@ public class Parser {
         if (nextState instanceof EntryState ||
             nextState instanceof ExitState ||
             nextState instanceof RuleState) {
-            s.stateReturnWorkList.enqueue(
-                s.stateReturns.computeIfAbsent(
-                    new StateReturn.Key(stateCall, stateCall.key.stateBegin), StateReturn.Key::create));
+            s.stateReturnWorkList.enqueue(s.stateReturn(stateCall, stateCall.key.stateBegin));
         } else if (nextState instanceof PrimitiveState) {
             if (((PrimitiveState)nextState).matches(s.input, stateCall.key.stateBegin)) {
-                s.stateReturnWorkList.enqueue(
-                    s.stateReturns.computeIfAbsent(
-                            new StateReturn.Key(stateCall, stateCall.key.stateBegin + 1), StateReturn.Key::create));
+                s.stateReturnWorkList.enqueue(s.stateReturn(stateCall, stateCall.key.stateBegin + 1));
             }
         // not instanceof SimpleState
         } else if (nextState instanceof NonTerminalState) {
             // add to the ntCall
             NonTerminal nt = ((NonTerminalState)nextState).child;
             if (nt.nullable() || (stateCall.key.stateBegin < s.input.length && nt.lookahead(s.input[stateCall.key.stateBegin].kind))) {
-                NonTerminalCall ntCall = s.ntCalls.computeIfAbsent(new NonTerminalCall.Key(
-                        nt, stateCall.key.stateBegin), NonTerminalCall.Key::create);
+                NonTerminalCall ntCall = s.ntCall(nt, stateCall.key.stateBegin);
                 ntCall.callers.add(stateCall);
                 // activate the entry state call (almost like activateStateCall but we have no stateReturn)
-                StateCall entryStateCall = s.stateCalls.computeIfAbsent(new StateCall.Key(
-                        ntCall, stateCall.key.stateBegin, ntCall.key.nt.entryState), StateCall.Key::create);
+                StateCall entryStateCall = s.stateCall(ntCall, stateCall.key.stateBegin, ntCall.key.nt.entryState);
                 activateStateCall(entryStateCall, Function.IDENTITY);
                 // process existStateReturns already done in the ntCall
                 for (StateReturn exitStateReturn : ntCall.exitStateReturns) {
-                    s.stateReturnWorkList.enqueue(
-                            s.stateReturns.computeIfAbsent(
-                                    new StateReturn.Key(stateCall, exitStateReturn.key.stateEnd), StateReturn.Key::create));
+                    s.stateReturnWorkList.enqueue(s.stateReturn(stateCall, exitStateReturn.key.stateEnd));
                 }
             } else {
                 // we don't create an entry in the map for this statecall, so we need to track its location another way.
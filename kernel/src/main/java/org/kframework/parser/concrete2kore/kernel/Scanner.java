@@ -3,6 +3,8 @@ package org.kframework.parser.concrete2kore.kernel;
 
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ListMultimap;
+import com.google.common.hash.Hashing;
+import dk.brics.automaton.RunAutomaton;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.kframework.attributes.Location;
@@ -24,6 +26,9 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -37,15 +42,34 @@ import java.util.stream.Collectors;
 public class Scanner implements AutoCloseable {
 
     private final Map<TerminalLike, Tuple2<Integer, Integer>> tokens;
+    private final File cacheDirectory;
     private final File scanner;
+    private final ScannerAutomaton automaton;
     private final Module module;
 
     private static final String EXE_EXTENSION = OS.current().equals(OS.WINDOWS) ? ".exe" : "";
 
     public Scanner(ParseInModule module) {
+        this(module, null, false);
+    }
+
+    /**
+     * @param cacheDirectory the directory in which the scanners built by flex and gcc are saved, named after the hash
+     *                       of their flex source, so that they are only built once for each set of tokens. If
+     *                       {@code null}, the scanner is built in a temporary file.
+     * @param inJvm          tokenize with a {@link ScannerAutomaton} in the JVM rather than with a scanner process
+     */
+    public Scanner(ParseInModule module, File cacheDirectory, boolean inJvm) {
         this.tokens  = KSyntax2GrammarStatesFilter.getTokens(module.getParsingModule());
         this.module  = module.seedModule();
-        this.scanner = getScanner();
+        this.cacheDirectory = cacheDirectory;
+        if (inJvm) {
+            this.scanner = null;
+            this.automaton = getAutomaton();
+        } else {
+            this.scanner = getScanner();
+            this.automaton = null;
+        }
     }
 
     public Module getModule() {
@@ -57,80 +81,135 @@ public class Scanner implements AutoCloseable {
         return tokens.entrySet().stream().filter(e -> e.getValue()._1() == kind).findAny().get().getKey();
     }
 
+    /**
+     * The tokens in the order of the rules of the scanner: by decreasing precedence.
+     */
+    private List<TerminalLike> orderedTokens() {
+        return tokens.keySet().stream().sorted((t1, t2) -> tokens.get(t2)._2() - tokens.get(t1)._2()).collect(Collectors.toList());
+    }
+
+    private ScannerAutomaton getAutomaton() {
+        List<RunAutomaton> rules = new ArrayList<>();
+        List<Integer> kinds = new ArrayList<>();
+        if (this.module.definedSorts().contains(Sorts.Layout())) {
+            rules.add(FlexRegex.compile(this.module.layout()));
+            kinds.add(ScannerAutomaton.LAYOUT);
+        }
+        for (TerminalLike key : orderedTokens()) {
+            if (key instanceof Terminal) {
+                rules.add(ScannerAutomaton.string(((Terminal) key).value()));
+            } else {
+                rules.add(FlexRegex.compile(((RegexTerminal) key).regex()));
+            }
+            kinds.add(tokens.get(key)._1());
+        }
+        return new ScannerAutomaton(rules, kinds);
+    }
+
     public File getScanner() {
+        String flex = getScannerSource();
+        if (cacheDirectory == null) {
+            return buildScanner(flex, null);
+        }
+        File cached = new File(cacheDirectory, "scanner-"
+                + Hashing.sha256().hashString(flex, StandardCharsets.UTF_8) + EXE_EXTENSION);
+        if (cached.canExecute()) {
+            return cached;
+        }
+        if (!cacheDirectory.isDirectory() && !cacheDirectory.mkdirs()) {
+            return buildScanner(flex, null);
+        }
+        File scanner = buildScanner(flex, cacheDirectory);
+        try {
+            // concurrent builds of the same scanner produce the same file, so the last one wins
+            Files.move(scanner.toPath(), cached.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return cached;
+        } catch (IOException e) {
+            // the cached scanner may be running in another process on Windows, so use the new one instead
+            return scanner;
+        }
+    }
+
+    private String getScannerSource() {
+        StringBuilder flex = new StringBuilder();
+        flex.append("%{\n" +
+                "#include<stdio.h>\n" +
+                "#include<stddef.h>\n" +
+                "#include <fcntl.h>\n" +
+                "#define ECHO do " +
+                " {" +
+                "   long long start_pos = yytext - buffer;" +
+                "   long long end_pos = start_pos + yyleng;" +
+                "   fwrite(&start_pos, sizeof(start_pos), 1, stdout);" +
+                "   fwrite(&end_pos, sizeof(end_pos), 1, stdout);" +
+                "   int kind = -1;" +
+                "   fwrite(&kind, sizeof(kind), 1, stdout);" +
+                "   int len = strlen(yytext);" +
+                "   fwrite(&len, sizeof(len), 1, stdout);" +
+                "   fwrite(yytext, 1, len, stdout);" +
+                " } while (0) \n" +
+                "char *buffer;\n" +
+                "%}\n\n" +
+                "%%\n\n");
+        if (this.module.definedSorts().contains(Sorts.Layout())) {
+            flex.append(this.module.layout() + " ;\n");
+        }
+        for (TerminalLike key : orderedTokens()) {
+            if (key instanceof Terminal) {
+                Terminal t = (Terminal) key;
+                flex.append(StringUtil.enquoteCString(t.value()));
+            } else {
+                RegexTerminal t = (RegexTerminal) key;
+                flex.append(t.regex());
+            }
+            writeAction(flex, key);
+        }
+        //WIN32 fix for line terminator issue: https://sourceforge.net/p/mingw/mailman/message/11374534/
+        flex.append("\n\n%%\n\n" +
+                "int main(int argc, char **argv) {\n" +
+                "  freopen(NULL, \"rb\", stdin);\n" +
+                "  freopen(NULL, \"wb\", stdout);\n" +
+                "# ifdef WIN32\n" +
+                "    if ( -1 == _setmode( _fileno( stdout ), _O_BINARY ) ) {\n" +
+                "        perror ( \"generated scanner: Cannot set BINARY mode for stdout\" );\n" +
+                "        exit(1);\n" +
+                "    }\n" +
+                "    if ( -1 == _setmode( _fileno( stdin ), _O_BINARY ) ) {\n" +
+                "        perror ( \"generated scanner: Cannot set BINARY mode for stdin\" );\n" +
+                "        exit(1);\n" +
+                "    }\n" +
+                "# endif  /* WIN32 */\n" +
+                "\n" +
+                "  while(1) {\n" +
+                "    int length;\n" +
+                "    size_t nread = fread(&length, sizeof(length), 1, stdin);\n" +
+                "    if (nread < 1) exit(0);\n" +
+                "    buffer = malloc(length + 2);\n" +
+                "    buffer[length] = 0;\n" +
+                "    buffer[length+1] = 0;\n" +
+                "    fread(buffer, length, 1, stdin);\n" +
+                "    YY_BUFFER_STATE bs = yy_scan_buffer(buffer, length + 2);\n" +
+                "    yy_switch_to_buffer(bs);\n" +
+                "    yylex();\n" +
+                "    long long exit = -1;\n" +
+                "    fwrite(&exit, sizeof(exit), 1, stdout);\n" +
+                "    fwrite(&exit, sizeof(exit), 1, stdout);\n" +
+                "    fwrite(&exit, sizeof(exit), 1, stdout);\n" +
+                "    fflush(stdout);\n" +
+                "  }\n" +
+                "}");
+        return flex.toString();
+    }
+
+    /**
+     * Builds the scanner with flex and gcc.
+     * @param directory the directory of the scanner, or {@code null} to build it in a temporary file
+     */
+    private File buildScanner(String flex, File directory) {
         File scanner;
-        // tokenization
         try {
             File scannerSource = File.createTempFile("tmp-kompile-", ".l");
             scannerSource.deleteOnExit();
-            StringBuilder flex = new StringBuilder();
-            flex.append("%{\n" +
-                    "#include<stdio.h>\n" +
-                    "#include<stddef.h>\n" +
-                    "#include <fcntl.h>\n" +
-                    "#define ECHO do " +
-                    " {" +
-                    "   long long start_pos = yytext - buffer;" +
-                    "   long long end_pos = start_pos + yyleng;" +
-                    "   fwrite(&start_pos, sizeof(start_pos), 1, stdout);" +
-                    "   fwrite(&end_pos, sizeof(end_pos), 1, stdout);" +
-                    "   int kind = -1;" +
-                    "   fwrite(&kind, sizeof(kind), 1, stdout);" +
-                    "   int len = strlen(yytext);" +
-                    "   fwrite(&len, sizeof(len), 1, stdout);" +
-                    "   fwrite(yytext, 1, len, stdout);" +
-                    " } while (0) \n" +
-                    "char *buffer;\n" +
-                    "%}\n\n" +
-                    "%%\n\n");
-            if (this.module.definedSorts().contains(Sorts.Layout())) {
-                flex.append(this.module.layout() + " ;\n");
-            }
-            List<TerminalLike> ordered = tokens.keySet().stream().sorted((t1, t2) -> tokens.get(t2)._2() - tokens.get(t1)._2()).collect(Collectors.toList());
-            for (TerminalLike key : ordered) {
-                if (key instanceof Terminal) {
-                    Terminal t = (Terminal) key;
-                    flex.append(StringUtil.enquoteCString(t.value()));
-                } else {
-                    RegexTerminal t = (RegexTerminal) key;
-                    flex.append(t.regex());
-                }
-                writeAction(flex, key);
-            }
-            //WIN32 fix for line terminator issue: https://sourceforge.net/p/mingw/mailman/message/11374534/
-            flex.append("\n\n%%\n\n" +
-                    "int main(int argc, char **argv) {\n" +
-                    "  freopen(NULL, \"rb\", stdin);\n" +
-                    "  freopen(NULL, \"wb\", stdout);\n" +
-                    "# ifdef WIN32\n" +
-                    "    if ( -1 == _setmode( _fileno( stdout ), _O_BINARY ) ) {\n" +
-                    "        perror ( \"generated scanner: Cannot set BINARY mode for stdout\" );\n" +
-                    "        exit(1);\n" +
-                    "    }\n" +
-                    "    if ( -1 == _setmode( _fileno( stdin ), _O_BINARY ) ) {\n" +
-                    "        perror ( \"generated scanner: Cannot set BINARY mode for stdin\" );\n" +
-                    "        exit(1);\n" +
-                    "    }\n" +
-                    "# endif  /* WIN32 */\n" +
-                    "\n" +
-                    "  while(1) {\n" +
-                    "    int length;\n" +
-                    "    size_t nread = fread(&length, sizeof(length), 1, stdin);\n" +
-                    "    if (nread < 1) exit(0);\n" +
-                    "    buffer = malloc(length + 2);\n" +
-                    "    buffer[length] = 0;\n" +
-                    "    buffer[length+1] = 0;\n" +
-                    "    fread(buffer, length, 1, stdin);\n" +
-                    "    YY_BUFFER_STATE bs = yy_scan_buffer(buffer, length + 2);\n" +
-                    "    yy_switch_to_buffer(bs);\n" +
-                    "    yylex();\n" +
-                    "    long long exit = -1;\n" +
-                    "    fwrite(&exit, sizeof(exit), 1, stdout);\n" +
-                    "    fwrite(&exit, sizeof(exit), 1, stdout);\n" +
-                    "    fwrite(&exit, sizeof(exit), 1, stdout);\n" +
-                    "    fflush(stdout);\n" +
-                    "  }\n" +
-                    "}");
             FileUtils.write(scannerSource, flex);
             File scannerCSource = File.createTempFile("tmp-kompile-", ".c");
             scannerCSource.deleteOnExit();
@@ -143,7 +222,7 @@ public class Scanner implements AutoCloseable {
                 throw KEMException.internalError(
                         "Flex returned nonzero exit code. See output for details. flex command: " + pb.command());
             }
-            scanner = File.createTempFile("tmp-kompile-", EXE_EXTENSION);
+            scanner = File.createTempFile("tmp-kompile-", EXE_EXTENSION, directory);
             scanner.deleteOnExit();
             //Option -lfl unnecessary. Same effect achieved by --noyywrap above.
             pb = new ProcessBuilder("gcc", scannerCSource.getAbsolutePath(), "-o", scanner.getAbsolutePath());
@@ -243,6 +322,13 @@ public class Scanner implements AutoCloseable {
     };
 
     public Token[] tokenize(String input, Source source, int[] lines, int[] columns) {
+        if (automaton != null) {
+            Token[] result = automaton.tokenize(input);
+            if (result.length > 0 && result[result.length - 1].kind == -1) {
+                throw scannerError(result[result.length - 1], source, lines, columns);
+            }
+            return result;
+        }
         try {
             runningScanners.acquire();
 
@@ -297,11 +383,7 @@ public class Scanner implements AutoCloseable {
                 String value = new String(bytes, "UTF-8");
                 Token t = new Token(kind, value, startLoc, endLoc);
                 if (kind == -1) {
-                    String msg = "Scanner error: unexpected character sequence '" + value + "'.";
-                    Location loc = new Location(lines[t.startLoc], columns[t.startLoc],
-                            lines[t.endLoc], columns[t.endLoc]);
-                    throw new ParseFailedException(new KException(
-                            KException.ExceptionType.ERROR, KException.KExceptionGroup.INNER_PARSER, msg, source, loc));
+                    throw scannerError(t, source, lines, columns);
                 }
                 result.add(t);
             }
@@ -324,4 +406,11 @@ public class Scanner implements AutoCloseable {
         }
     }
 
+    private static ParseFailedException scannerError(Token t, Source source, int[] lines, int[] columns) {
+        String msg = "Scanner error: unexpected character sequence '" + t.value + "'.";
+        Location loc = new Location(lines[t.startLoc], columns[t.startLoc],
+                lines[t.endLoc], columns[t.endLoc]);
+        return new ParseFailedException(new KException(
+                KException.ExceptionType.ERROR, KException.KExceptionGroup.INNER_PARSER, msg, source, loc));
+    }
 }
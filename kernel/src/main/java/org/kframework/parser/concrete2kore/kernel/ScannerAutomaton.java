@@ -0,0 +1,192 @@
+// Copyright (c) 2018 K Team. All Rights Reserved.
+package org.kframework.parser.concrete2kore.kernel;
+
+import dk.brics.automaton.BasicAutomata;
+import dk.brics.automaton.RunAutomaton;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A tokenizer running in the JVM which follows the same rules as the flex scanner generated by {@link Scanner}:
+ * at each position, the longest match wins, and among the rules matching the longest prefix, the first one wins.
+ * <p>
+ * Each rule is compiled into its own {@link RunAutomaton}, and the rules are run together by a DFA over their
+ * product. The states of the product are built lazily, the first time the tokenizer reaches them, so only the
+ * states reachable on the actual inputs are ever built.
+ */
+class ScannerAutomaton {
+
+    /**
+     * The kind of the layout rule, whose matches are skipped.
+     */
+    static final int LAYOUT = -2;
+
+    private final RunAutomaton[] rules;
+    private final int[] kinds;
+    /**
+     * The first character of each character class, where two characters are in the same class if all the rules
+     * have the same transitions on them.
+     */
+    private final char[] points;
+    private final ConcurrentHashMap<State, State> states = new ConcurrentHashMap<>();
+    private final State initial;
+    private final State dead;
+
+    private final class State {
+        final int[] ruleStates;
+        /**
+         * The index of the first rule accepting in this state, or -1.
+         */
+        final int accept;
+        /**
+         * The successors of this state, indexed by character class and built lazily.
+         */
+        final State[] next;
+
+        State(int[] ruleStates) {
+            this.ruleStates = ruleStates;
+            int accept = -1;
+            for (int i = 0; i < ruleStates.length; i++) {
+                if (ruleStates[i] >= 0 && rules[i].isAccept(ruleStates[i])) {
+                    accept = i;
+                    break;
+                }
+            }
+            this.accept = accept;
+            this.next = new State[points.length];
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof State && Arrays.equals(ruleStates, ((State) o).ruleStates);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(ruleStates);
+        }
+    }
+
+    /**
+     * @param rules the rules in order of priority
+     * @param kinds the kind of the tokens matched by each rule, or {@link #LAYOUT}
+     */
+    ScannerAutomaton(List<RunAutomaton> rules, List<Integer> kinds) {
+        this.rules = rules.toArray(new RunAutomaton[rules.size()]);
+        this.kinds = kinds.stream().mapToInt(Integer::intValue).toArray();
+        TreeSet<Character> points = new TreeSet<>();
+        points.add(Character.MIN_VALUE);
+        for (RunAutomaton rule : rules) {
+            for (char c : rule.getCharIntervals()) {
+                points.add(c);
+            }
+        }
+        this.points = new char[points.size()];
+        int i = 0;
+        for (char c : points) {
+            this.points[i++] = c;
+        }
+
+        int[] deadStates = new int[this.rules.length];
+        Arrays.fill(deadStates, -1);
+        this.dead = intern(new State(deadStates));
+        int[] initialStates = new int[this.rules.length];
+        for (i = 0; i < initialStates.length; i++) {
+            initialStates[i] = this.rules[i].getInitialState();
+        }
+        this.initial = intern(new State(initialStates));
+    }
+
+    static RunAutomaton string(String value) {
+        return new RunAutomaton(BasicAutomata.makeString(value), false);
+    }
+
+    private State intern(State state) {
+        State canonical = states.putIfAbsent(state, state);
+        return canonical == null ? state : canonical;
+    }
+
+    private State step(State state, char c) {
+        int charClass = Arrays.binarySearch(points, c);
+        if (charClass < 0) {
+            charClass = -charClass - 2;
+        }
+        State next = state.next[charClass];
+        if (next == null) {
+            int[] ruleStates = new int[rules.length];
+            for (int i = 0; i < rules.length; i++) {
+                ruleStates[i] = state.ruleStates[i] < 0 ? -1 : rules[i].step(state.ruleStates[i], points[charClass]);
+            }
+            next = intern(new State(ruleStates));
+            // racing threads store the same canonical state
+            state.next[charClass] = next;
+        }
+        return next;
+    }
+
+    /**
+     * Tokenizes the input. Token locations are offsets in the UTF-8 encoding of the input, like those of the flex
+     * scanner. An unexpected character is returned as a token of kind -1.
+     */
+    Scanner.Token[] tokenize(String input) {
+        int[] offsets = utf8Offsets(input);
+        List<Scanner.Token> result = new ArrayList<>();
+        int pos = 0;
+        while (pos < input.length()) {
+            State state = initial;
+            int rule = -1;
+            int end = pos + 1;
+            for (int i = pos; i < input.length(); i++) {
+                state = step(state, input.charAt(i));
+                if (state == dead) {
+                    break;
+                }
+                if (state.accept >= 0) {
+                    rule = state.accept;
+                    end = i + 1;
+                }
+            }
+            if (rule < 0) {
+                result.add(new Scanner.Token(-1, input.substring(pos, end), offsets[pos], offsets[end]));
+                break;
+            }
+            if (kinds[rule] != LAYOUT) {
+                result.add(new Scanner.Token(kinds[rule], input.substring(pos, end), offsets[pos], offsets[end]));
+            }
+            pos = end;
+        }
+        return result.toArray(new Scanner.Token[result.size()]);
+    }
+
+    /**
+     * Returns the offset in the UTF-8 encoding of the string of each of its characters.
+     */
+    private static int[] utf8Offsets(String input) {
+        int[] offsets = new int[input.length() + 1];
+        int offset = 0;
+        for (int i = 0; i < input.length(); i++) {
+            offsets[i] = offset;
+            char c = input.charAt(i);
+            if (c < 0x80) {
+                offset += 1;
+            } else if (c < 0x800) {
+                offset += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < input.length()
+                    && Character.isLowSurrogate(input.charAt(i + 1))) {
+                offset += 4;
+                offsets[++i] = offset;
+            } else if (Character.isSurrogate(c)) {
+                // unpaired surrogates are encoded as '?'
+                offset += 1;
+            } else {
+                offset += 3;
+            }
+        }
+        offsets[input.length()] = offset;
+        return offsets;
+    }
+}
@@ -11,22 +11,37 @@ import org.kframework.kore.KVariable;
 import org.kframework.parser.binary.BinaryParser;
 import org.kframework.utils.errorsystem.KEMException;
 
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
  * Writes a KAST term to the KAST binary format. For details of that format, see {@link BinaryParser}.
+ *
+ * The term is written to the output stream as it is traversed. Each term written again is replaced by a back reference
+ * to its first occurrence; by default only the same objects are recognized, while with structural sharing, the terms
+ * equal to one of the last {@link #MAX_STRUCTURAL_INTERNS} terms written are too.
  */
 public class ToBinary {
 
+    /**
+     * The maximal number of terms kept for the back references of the structural sharing.
+     */
+    public static final int MAX_STRUCTURAL_INTERNS = 1 << 16;
+
     public static void apply(OutputStream out, K k) {
+        apply(out, k, false);
+    }
+
+    public static void apply(OutputStream out, K k, boolean structuralSharing) {
         try {
-            DataOutputStream data = new DataOutputStream(out);
+            DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
             //magic
             data.writeByte(0x7f);
             data.writeBytes("KAST");
@@ -34,8 +49,9 @@ public class ToBinary {
             data.writeByte(4);
             data.writeByte(0);
             data.writeByte(1);
-            new ToBinary(data).traverse(k);
+            new ToBinary(data, structuralSharing).traverse(k);
             data.writeByte(BinaryParser.END);
+            data.flush();
         } catch (IOException e) {
             throw KEMException.criticalError("Could not write K term to binary", e, k);
         }
@@ -50,17 +66,28 @@ public class ToBinary {
 
     private DataOutputStream data;
     private Map<String, Integer> interns = new HashMap<>();
-    private Map<K, Integer> kInterns = new IdentityHashMap<>();
+    private Map<K, Integer> kInterns;
     private int numTermsWritten;
 
-    private ToBinary(DataOutputStream data) {
+    private ToBinary(DataOutputStream data, boolean structuralSharing) {
         this.data = data;
+        if (structuralSharing) {
+            this.kInterns = new LinkedHashMap<K, Integer>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, Integer> eldest) {
+                    return size() > MAX_STRUCTURAL_INTERNS;
+                }
+            };
+        } else {
+            this.kInterns = new IdentityHashMap<>();
+        }
     }
 
     private void traverse(K k) throws IOException {
-        if (kInterns.containsKey(k)) {
+        Integer intern = kInterns.get(k);
+        if (intern != null) {
             data.writeByte(BinaryParser.BACK_REFERENCE);
-            data.writeInt(numTermsWritten - kInterns.get(k));
+            data.writeInt(numTermsWritten - intern);
             add_intern(k);
             return;
         }
@@ -121,10 +121,10 @@ public class KExceptionManager {
     }
 
     public void print() {
-        Collections.sort(exceptions, (arg0, arg1) ->
-                arg0.toString(options.verbose).compareTo(arg1.toString(options.verbose)));
         KException last = null;
         synchronized (exceptions) {
+            Collections.sort(exceptions, (arg0, arg1) ->
+                    arg0.toString(options.verbose).compareTo(arg1.toString(options.verbose)));
             for (KException e : exceptions) {
                 if (last != null && last.toString(options.verbose).equals(e.toString(options.verbose))) {
                     continue;
@@ -44,6 +44,18 @@ public class SMTOptions implements Serializable {
     @Parameter(names="--z3-executable", description="Invokes Z3 as an external process.")
     public boolean z3Executable = false;
 
+    @Parameter(names="--z3-incremental", description="Keep Z3 alive across queries, asserting the SMT prelude once and checking each query in its own push/pop scope.")
+    public boolean z3Incremental = false;
+
+    @Parameter(names="--z3-instances", validateValueWith=PositiveInteger.class, description="The maximum number of Z3 instances checking queries concurrently. Defaults to the number of available processors.")
+    public int z3Instances = Runtime.getRuntime().availableProcessors();
+
+    @Parameter(names="--z3-cache-size", description="The number of SMT query results to cache. Queries which only differ in the names of their variables share an entry. 0, the default, disables the cache.")
+    public int z3CacheSize = 0;
+
+    @Parameter(names="--z3-persistent-cache", description="Save the SMT query cache in the kompiled directory and reuse it in later runs.")
+    public boolean z3PersistentCache = false;
+
     @Parameter(names="--z3-cnstr-timeout", description="The default soft timeout (in milli seconds) of Z3 for checking constraint satisfiability.")
     public int z3CnstrTimeout = 50;
 
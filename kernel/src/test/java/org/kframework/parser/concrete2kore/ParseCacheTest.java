@@ -0,0 +1,61 @@
+// Copyright (c) 2018 K Team. All Rights Reserved.
+package org.kframework.parser.concrete2kore;
+
+import org.junit.Test;
+import org.kframework.attributes.Att;
+import org.kframework.attributes.Location;
+import org.kframework.attributes.Source;
+import org.kframework.definition.Bubble;
+import org.kframework.definition.Module;
+
+import static org.junit.Assert.*;
+
+public class ParseCacheTest {
+
+    private static final String SYNTAX = "syntax Exp ::= Exp \"+\" Exp\n"
+            + "syntax Exp ::= Exp \"*\" Exp\n"
+            + "syntax Exp ::= \"(\" Exp \")\" [bracket]\n";
+
+    private static ParseCache parseCache(String syntax) {
+        Module module = ParserUtils.parseMainModuleOuterSyntax("module TEST\n" + syntax + "endmodule\n",
+                Source.apply("generated by ParseCacheTest"), "TEST");
+        return new ParseCache(module, true, null);
+    }
+
+    private static String key(String syntax, String contents) {
+        return parseCache(syntax).key(new Bubble("rule", contents, Att.empty()), true);
+    }
+
+    @Test
+    public void testEditedProductionInvalidatesBubblesWithItsTerminals() {
+        String edited = SYNTAX.replace("Exp \"*\" Exp", "Exp \"*\" Exp [klabel(times)]");
+        assertEquals(key(SYNTAX, "A + B"), key(edited, "A + B"));
+        assertEquals(key(SYNTAX, "(A + B)"), key(edited, "(A + B)"));
+        assertNotEquals(key(SYNTAX, "A * B"), key(edited, "A * B"));
+        assertNotEquals(key(SYNTAX, "(A * B) + C"), key(edited, "(A * B) + C"));
+    }
+
+    @Test
+    public void testProductionNeedsAllItsTerminals() {
+        String edited = SYNTAX.replace("\"(\" Exp \")\" [bracket]", "\"(\" Exp \")\" [bracket, klabel(paren)]");
+        assertEquals(key(SYNTAX, "(A + B"), key(edited, "(A + B"));
+        assertNotEquals(key(SYNTAX, "(A + B)"), key(edited, "(A + B)"));
+    }
+
+    @Test
+    public void testProductionWithoutTerminalsInvalidatesAllBubbles() {
+        String edited = SYNTAX + "syntax Exp ::= r\"[0-9]+\" [token]\n";
+        assertNotEquals(key(SYNTAX, "A + B"), key(edited, "A + B"));
+        assertNotEquals(key(SYNTAX, "A * B"), key(edited, "A * B"));
+    }
+
+    @Test
+    public void testKeyIgnoresLocation() {
+        ParseCache cache = parseCache(SYNTAX);
+        Bubble bubble = new Bubble("rule", "A + B", Att.empty().add(Location.class, new Location(1, 1, 1, 6)));
+        Bubble moved = new Bubble("rule", "A + B", Att.empty().add(Location.class, new Location(7, 3, 7, 8)));
+        assertEquals(cache.key(bubble, true), cache.key(moved, true));
+        assertNotEquals(cache.key(bubble, true), cache.key(bubble, false));
+        assertNotEquals(cache.key(bubble, true), cache.key(new Bubble("rule", "A + C", Att.empty()), true));
+    }
+}
@@ -0,0 +1,139 @@
+// Copyright (c) 2018 K Team. All Rights Reserved.
+package org.kframework.parser.concrete2kore;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.kframework.main.GlobalOptions;
+import org.kframework.parser.concrete2kore.ParseCache.ParsedSentence;
+import org.kframework.utils.errorsystem.KExceptionManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+import static org.kframework.kore.KORE.*;
+
+public class PersistentParseCacheTest {
+
+    private static final int HEADER_LENGTH = "K parse cache 1\n".getBytes(StandardCharsets.US_ASCII).length;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private KExceptionManager kem;
+    private File file;
+
+    @Before
+    public void setUp() {
+        kem = new KExceptionManager(new GlobalOptions());
+        file = new File(folder.getRoot(), "cache.bin");
+    }
+
+    private static ParsedSentence parse(String value) {
+        return new ParsedSentence(KToken(value, Sort("Int")), Collections.emptySet());
+    }
+
+    private PersistentParseCache load() {
+        PersistentParseCache cache = new PersistentParseCache(file, kem);
+        cache.load();
+        return cache;
+    }
+
+    private void save(String... keys) {
+        PersistentParseCache cache = load();
+        for (String key : keys) {
+            cache.put(key, parse(key));
+        }
+        cache.save();
+    }
+
+    private static void assertParsed(PersistentParseCache cache, String key) {
+        assertNotNull(key, cache.get(key));
+        assertEquals(KToken(key, Sort("Int")), cache.get(key).getParse());
+    }
+
+    @Test
+    public void testSaveAndLoad() {
+        save("1", "2");
+        save("3");
+        PersistentParseCache cache = load();
+        assertParsed(cache, "1");
+        assertParsed(cache, "2");
+        assertParsed(cache, "3");
+        assertNull(cache.get("4"));
+    }
+
+    @Test
+    public void testTruncatedSegment() throws IOException {
+        save("1");
+        save("2");
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 3);
+        }
+        PersistentParseCache cache = load();
+        assertParsed(cache, "1");
+        assertNull(cache.get("2"));
+
+        // the next save drops the incomplete segment before appending its own
+        save("3");
+        cache = load();
+        assertParsed(cache, "1");
+        assertNull(cache.get("2"));
+        assertParsed(cache, "3");
+    }
+
+    @Test
+    public void testCorruptedSegment() throws IOException {
+        save("1");
+        save("2");
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            // overwrites the serialization header of the first segment
+            raf.seek(HEADER_LENGTH + Integer.BYTES);
+            raf.write(new byte[]{0, 0});
+        }
+        PersistentParseCache cache = load();
+        assertNull(cache.get("1"));
+        assertParsed(cache, "2");
+    }
+
+    @Test
+    public void testFileWithoutHeader() throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.write("not a parse cache".getBytes(StandardCharsets.US_ASCII));
+        }
+        assertNull(load().get("1"));
+        save("1");
+        assertParsed(load(), "1");
+    }
+
+    @Test
+    public void testConcurrentCachesInOneProcess() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                String key = Integer.toString(i);
+                futures.add(executor.submit(() -> save(key)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        PersistentParseCache cache = load();
+        for (int i = 0; i < 32; i++) {
+            assertParsed(cache, Integer.toString(i));
+        }
+    }
+}
@@ -20,6 +20,7 @@ import org.kframework.kore.convertors.KILtoKORE;
 import org.kframework.main.GlobalOptions;
 import org.kframework.main.GlobalOptions.Warnings;
 import org.kframework.parser.concrete2kore.generator.RuleGrammarGenerator;
+import org.kframework.parser.concrete2kore.kernel.Scanner;
 import org.kframework.utils.errorsystem.KExceptionManager;
 import org.kframework.utils.errorsystem.ParseFailedException;
 import org.kframework.utils.file.FileUtil;
@@ -472,4 +473,29 @@ public class RuleGrammarTest {
         parseProgram("0 (; some text ;) + 3", customLayout, "Int", 0, false);
         parseProgram("0 + 3 // some text"   , customLayout, "Int", 0, true);
     }
+
+    // test that the scanner running in the JVM tokenizes like the flex scanner
+    @Test
+    public void testInJvmScanner() {
+        String def = "" +
+                "module TEST " +
+                "syntax #Layout ::= r\"(;;[^\\\\n\\\\r]*)\"" +
+                                 "| r\"([\\\\ \\\\n\\\\r\\\\t])\"" +
+                "syntax Int ::= Int \"+\" Int [klabel('Plus), left] " +
+                "syntax Int ::= Int \"++\" Int [klabel('PlusPlus), left] " +
+                "syntax Int ::= r\"[0-9]+\" [token] " +
+                "syntax Int ::= r\"@[0-9]+\" [token] " +
+                "endmodule";
+        Module test = ParserUtils.parseMainModuleOuterSyntax(def, Source.apply("generated by RuleGrammarTest"), "TEST");
+        ParseInModule parser = RuleGrammarGenerator.getCombinedGrammar(gen.getProgramsGrammar(test), true);
+        for (String input : new String[] {"0 + 3 ;; some text", "10++2+3", "1 +\n2 ;; +3", "@1\t+ @2"}) {
+            try (Scanner flex = parser.getScanner(null, false); Scanner jvm = parser.getScanner(null, true)) {
+                Source source = Source.apply("generated by RuleGrammarTest");
+                Either<Set<ParseFailedException>, K> expected =
+                        parser.parseString(input, Sort("Int"), flex, source, 1, 1, true)._1();
+                Assert.assertTrue(input, expected.isRight());
+                Assert.assertEquals(expected, parser.parseString(input, Sort("Int"), jvm, source, 1, 1, true)._1());
+            }
+        }
+    }
 }
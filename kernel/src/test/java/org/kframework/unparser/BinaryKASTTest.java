@@ -13,7 +13,10 @@ import org.kframework.kore.mini.KVariable;
 import org.kframework.parser.binary.BinaryParser;
 import org.kframework.utils.file.FileUtil;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.nio.channels.FileChannel;
 
 import static org.junit.Assert.*;
 import static org.kframework.kore.KORE.*;
@@ -48,6 +51,51 @@ public class BinaryKASTTest {
         assertEquals(new KRewrite(term, term), result2);
     }
 
+    @Test
+    public void testStructuralSharing() throws Exception {
+        K copy = KApply.of(KLabel("_|->_"), new KToken("x", Sort("Id")), new KToken("1", Sort("Int")));
+        K map = KApply.of(KLabel("_Map_"), sharedTerm, copy);
+        ByteArrayOutputStream shared = new ByteArrayOutputStream();
+        ToBinary.apply(shared, map, true);
+        assertTrue(shared.size() < ToBinary.apply(map).length);
+        assertEquals(map, BinaryParser.parse(shared.toByteArray()));
+    }
+
+    @Test
+    public void testReadFromStream() throws Exception {
+        K result = BinaryParser.parse(new ByteArrayInputStream(ToBinary.apply(term)));
+        assertEquals(term, result);
+    }
+
+    @Test
+    public void testReadFromFileChannel() throws Exception {
+        File tmp = File.createTempFile("tmp", null);
+        tmp.deleteOnExit();
+        FileUtil.save(tmp, ToBinary.apply(term));
+        try (FileChannel channel = FileChannel.open(tmp.toPath())) {
+            assertEquals(term, BinaryParser.parse(channel));
+        }
+    }
+
+    @Test
+    public void testReadLargerThanWindowFromStream() throws Exception {
+        // the characters of the first token start at the odd offset 17, so that one of them straddles the end of the
+        // first window, and the rest of the term spans a few more windows
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < BinaryParser.WINDOW_SIZE / 2 + 1000; i++) {
+            sb.append((char) ('a' + i % 26));
+        }
+        K[] items = new K[10000];
+        items[0] = new KToken(sb.toString(), Sort("String"));
+        for (int i = 1; i < items.length; i++) {
+            items[i] = new KToken(Integer.toString(i), Sort("Int"));
+        }
+        K large = new KSequence(items);
+        byte[] bytes = ToBinary.apply(large);
+        assertTrue(bytes.length > 2 * BinaryParser.WINDOW_SIZE);
+        assertEquals(large, BinaryParser.parse(new ByteArrayInputStream(bytes)));
+    }
+
     @Test @Ignore
     public void testLarger() throws Exception {
         byte[] kast = FileUtil.testFileUtil().loadBytes(new File("/home/dwightguth/c-semantics/tmp-kcc-FzjROvt"));
@@ -18,46 +18,124 @@ class POSet[T](directRelations: Set[(T, T)]) extends Serializable {
   lazy val elements: Set[T] = directRelations.flatMap(a => Set(a._1, a._2))
 
   /**
-   * Internal private method. Computes the transitive closer of the initial relations.
+   * The elements numbered densely from 0, and the number of each element. The relations are stored as bitsets over
+   * these numbers, of `words` longs each.
+   */
+  private val indexedElements: IndexedSeq[T] = directRelations.toIndexedSeq.flatMap(a => Seq(a._1, a._2)).distinct
+  private val indices: Map[T, Int] = indexedElements.zipWithIndex.toMap
+  private val words = (indexedElements.size + 63) >>> 6
+
+  private def index(x: T): Int = indices.getOrElse(x, -1)
+
+  private def bit(bits: Array[Long], i: Int): Boolean = (bits(i >>> 6) & (1L << i)) != 0
+
+  private def setBit(bits: Array[Long], i: Int): Unit = bits(i >>> 6) |= 1L << i
+
+  private def intersects(bits: Array[Long], otherBits: Array[Long]): Boolean = {
+    var w = 0
+    while (w < words) {
+      if ((bits(w) & otherBits(w)) != 0)
+        return true
+      w += 1
+    }
+    false
+  }
+
+  private def bitsOf(xs: Iterable[T]): Array[Long] = {
+    val bits = new Array[Long](words)
+    xs foreach { x =>
+      val i = index(x)
+      if (i >= 0)
+        setBit(bits, i)
+    }
+    bits
+  }
+
+  private def elementsOf(bits: Array[Long]): Set[T] =
+    indexedElements.indices.filter(bit(bits, _)).map(indexedElements).toSet
+
+  /**
+   * Internal private method. Computes the transitive closure of the initial relations with Warshall's algorithm,
+   * as the bitset of the successors of each element.
    * It also checks for cycles during construction and throws an exception if it finds any.
-   *
-   * The implementation is simple. It links each element to the successors of its successors.
-   * TODO: there may be a more efficient algorithm (low priority)
    */
-  private def transitiveClosure(relations: Map[T, Set[T]]): Map[T, Set[T]] = {
-    val newRelations = relations map {
-      case (start, succ) =>
-        val newSucc = succ flatMap { relations.getOrElse(_, Set()) }
-        if (newSucc.contains(start))
-          constructAndThrowCycleException(start, start, Seq())
-        (start, succ | newSucc)
+  private def transitiveClosure(): Array[Array[Long]] = {
+    val n = indexedElements.size
+    val closure = Array.fill(n)(new Array[Long](words))
+    for ((start, succ) <- directRelationsMap; end <- succ)
+      setBit(closure(indices(start)), indices(end))
+
+    for (k <- 0 until n) {
+      val succOfK = closure(k)
+      var i = 0
+      while (i < n) {
+        val succOfI = closure(i)
+        if (bit(succOfI, k)) {
+          var w = 0
+          while (w < words) {
+            succOfI(w) |= succOfK(w)
+            w += 1
+          }
+        }
+        i += 1
+      }
     }
-    if (relations != newRelations) transitiveClosure(newRelations) else relations
+
+    for (i <- 0 until n if bit(closure(i), i))
+      constructAndThrowCycleException(indexedElements(i), indexedElements(i), Seq(), closure)
+    closure
   }
 
   /**
    * Recursive method constructing and throwing and the cycle exception.
+   * It only follows the successors which are not on the path yet and from which the start element is reachable.
    *
    * @param start (or tail) element to look for when constructing the cycle
    * @param current element
    * @param path so far
+   * @param closure the transitive closure of the relations
    */
-  private def constructAndThrowCycleException(start: T, current: T, path: Seq[T]) {
+  private def constructAndThrowCycleException(start: T, current: T, path: Seq[T], closure: Array[Array[Long]]) {
     val currentPath = path :+ current
     val succs = directRelationsMap.getOrElse(current, Set())
     if (succs.contains(start))
       throw new CircularityException(currentPath :+ start)
 
-    succs foreach { constructAndThrowCycleException(start, _, currentPath) }
+    succs filter { s => !currentPath.contains(s) && bit(closure(indices(s)), indices(start)) } foreach {
+      constructAndThrowCycleException(start, _, currentPath, closure)
+    }
   }
 
   /**
-   * All the relations of the POSet, including the transitive ones.
+   * The successors of each element, including the transitive ones, as bitsets over the element numbers.
+   */
+  private val closure: Array[Array[Long]] = transitiveClosure()
+
+  /**
+   * The predecessors of each element, including the transitive ones, as bitsets over the element numbers.
    */
-  val relations = transitiveClosure(directRelationsMap)
+  private lazy val inverseClosure: Array[Array[Long]] = {
+    val inverse = Array.fill(indexedElements.size)(new Array[Long](words))
+    for (i <- indexedElements.indices; j <- indexedElements.indices if bit(closure(i), j))
+      setBit(inverse(j), i)
+    inverse
+  }
 
-  def <(x: T, y: T): Boolean = relations.get(x).exists(_.contains(y))
-  def >(x: T, y: T): Boolean = relations.get(y).exists(_.contains(x))
+  /**
+   * All the relations of the POSet, including the transitive ones.
+   */
+  lazy val relations: Map[T, Set[T]] =
+    indexedElements.indices
+      .filter(i => closure(i).exists(_ != 0))
+      .map(i => (indexedElements(i), elementsOf(closure(i))))
+      .toMap
+
+  def <(x: T, y: T): Boolean = {
+    val i = index(x)
+    val j = index(y)
+    i >= 0 && j >= 0 && bit(closure(i), j)
+  }
+  def >(x: T, y: T): Boolean = <(y, x)
   def ~(x: T, y: T) = <(x, y) || <(y, x)
 
   /**
@@ -87,21 +165,22 @@ class POSet[T](directRelations: Set[(T, T)]) extends Serializable {
   }
 
   lazy val lub: Option[T] = {
-    val candidates = relations.values reduce { (a, b) => a & b }
-
-    if (candidates.size == 0)
+    val succs = closure filter { _ exists { _ != 0 } }
+    if (succs.isEmpty)
       None
-    else if (candidates.size == 1)
-      Some(candidates.head)
     else {
-      val allPairs = for (a <- candidates; b <- candidates) yield { (a, b) }
-      if (allPairs exists { case (a, b) => ! ~(a, b) })
+      val candidateBits = succs reduce { (a, b) => Array.tabulate(words)(w => a(w) & b(w)) }
+      val candidates = indexedElements.indices filter { bit(candidateBits, _) }
+      def comparable(a: Int, b: Int) = a == b || bit(closure(a), b) || bit(closure(b), a)
+
+      if (candidates.size == 0)
+        None
+      else if (candidates.size == 1)
+        Some(indexedElements(candidates.head))
+      else if (candidates exists { a => candidates exists { b => !comparable(a, b) } })
         None
       else
-        Some(
-          candidates.min(new Ordering[T]() {
-            def compare(x: T, y: T) = if (x < y) -1 else if (x > y) 1 else 0
-          }))
+        candidates find { a => candidates forall { b => a == b || bit(closure(a), b) } } map indexedElements
     }
   }
 
@@ -111,8 +190,10 @@ class POSet[T](directRelations: Set[(T, T)]) extends Serializable {
     * Return the subset of items from the argument which are not
     * less than any other item.
     */
-  def maximal(sorts : Iterable[T]) : Set[T] =
-    sorts.filter(s1 => !sorts.exists(s2 => lessThan(s1,s2))).toSet
+  def maximal(sorts : Iterable[T]) : Set[T] = {
+    val bits = bitsOf(sorts)
+    sorts.filter(s => { val i = index(s); i < 0 || !intersects(closure(i), bits) }).toSet
+  }
 
   def maximal(sorts : util.Collection[T]) : util.Set[T] = {
     import scala.collection.JavaConversions._
@@ -123,8 +204,10 @@ class POSet[T](directRelations: Set[(T, T)]) extends Serializable {
     * Return the subset of items from the argument which are not
     * greater than any other item.
     */
-  def minimal(sorts : Iterable[T]) : Set[T] =
-    sorts.filter(s1 => !sorts.exists(s2 => >(s1,s2))).toSet
+  def minimal(sorts : Iterable[T]) : Set[T] = {
+    val bits = bitsOf(sorts)
+    sorts.filter(s => { val i = index(s); i < 0 || !intersects(inverseClosure(i), bits) }).toSet
+  }
 
   def minimal(sorts : util.Collection[T]) : util.Set[T] = {
     import scala.collection.JavaConversions._
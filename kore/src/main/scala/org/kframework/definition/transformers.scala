@@ -2,6 +2,7 @@
 
 package org.kframework.definition
 
+import java.util.concurrent.{ForkJoinTask, RecursiveTask}
 import java.util.function.BiFunction
 
 import org.kframework.attributes.{Source, Location}
@@ -16,7 +17,19 @@ object ModuleTransformer {
     fromSentenceTransformer((m: Module, s: Sentence) => f(s), name)
 
   def fromSentenceTransformer(f: (Module, Sentence) => Sentence, name: String): ModuleTransformer =
-    ModuleTransformer(m => {
+    ModuleTransformer(sentenceFunction(f, name), name)
+
+  /**
+   * Like fromSentenceTransformer, but transforming independent modules in parallel, see parallel.
+   */
+  def parallelFromSentenceTransformer(f: java.util.function.UnaryOperator[Sentence], name: String): ModuleTransformer =
+    parallelFromSentenceTransformer((m: Module, s: Sentence) => f(s), name)
+
+  def parallelFromSentenceTransformer(f: (Module, Sentence) => Sentence, name: String): ModuleTransformer =
+    parallel(sentenceFunction(f, name), name)
+
+  private def sentenceFunction(f: (Module, Sentence) => Sentence, name: String): Module => Module =
+    m => {
       val newSentences = m.localSentences map { s =>
         try {
           f(m, s)
@@ -33,7 +46,7 @@ object ModuleTransformer {
         Module(m.name, m.imports, newSentences, m.att)
       else
         m
-    }, name)
+    }
 
   def fromRuleBodyTransformer(f: K => K, name: String): ModuleTransformer =
     fromRuleBodyTransformerWithRule((rule, k) => f(k), name)
@@ -57,23 +70,69 @@ object ModuleTransformer {
     case f: ModuleTransformer => f
     case _ => new ModuleTransformer(f, name)
   }
+
+  /**
+   * Returns a transformer which transforms the imports of each module in parallel in the common ForkJoin pool, so
+   * that the modules which do not import each other are transformed concurrently. The f function must be thread-safe.
+   */
+  def parallel(f: Module => Module, name: String): ModuleTransformer = new ModuleTransformer(f, name, true)
 }
 
 /**
   * Transform all modules, transforming each module after its imports.
   * The f function take a module with all the imported modules already transformed, and changes the current module.
+  * If parallel is true, each module is transformed by a ForkJoin task, which forks the tasks of all its imports
+  * before joining them.
   */
-class ModuleTransformer(f: Module => Module, name: String) extends (Module => Module) {
+class ModuleTransformer(f: Module => Module, name: String, parallel: Boolean) extends (Module => Module) {
+  def this(f: Module => Module, name: String) = this(f, name, false)
+
   val memoization = collection.concurrent.TrieMap[Module, Module]()
 
+  private val tasks = collection.concurrent.TrieMap[Module, ForkJoinTask[Module]]()
+
   override def apply(input: Module): Module = {
-    memoization.getOrElseUpdate(input, {
-      var newImports = input.imports map this
-      if (newImports != input.imports)
-        f(Module(input.name, newImports, input.localSentences, input.att))
-      else
-        f(input)
-    })
+    if (parallel)
+      memoization.getOrElse(input, task(input).join())
+    else
+      memoization.getOrElseUpdate(input, transform(input, input.imports map this))
+  }
+
+  /**
+   * Starts transforming the given modules, if this transformer is parallel.
+   */
+  def schedule(inputs: Iterable[Module]): Unit = {
+    if (parallel)
+      inputs foreach task
+  }
+
+  private def transform(input: Module, newImports: Set[Module]): Module = {
+    if (newImports != input.imports)
+      f(Module(input.name, newImports, input.localSentences, input.att))
+    else
+      f(input)
+  }
+
+  /**
+   * Returns the task transforming the given module, creating and forking it if there is none yet.
+   */
+  private def task(input: Module): ForkJoinTask[Module] = tasks.get(input) match {
+    case Some(existing) => existing
+    case None =>
+      val newTask = new RecursiveTask[Module] {
+        override def compute(): Module = {
+          val importTasks = input.imports.toSeq map task
+          val result = transform(input, (importTasks map { _.join() }).toSet)
+          memoization.put(input, result)
+          result
+        }
+      }
+      tasks.putIfAbsent(input, newTask) match {
+        case Some(existing) => existing
+        case None =>
+          newTask.fork()
+          newTask
+      }
   }
 }
 
@@ -98,6 +157,17 @@ object DefinitionTransformer {
 
   def from(f: Module => Module, name: String): DefinitionTransformer = DefinitionTransformer(f, name)
 
+  /**
+   * Returns a transformer transforming independent modules in parallel, see ModuleTransformer.parallel.
+   * The f function must be thread-safe.
+   */
+  def parallel(f: Module => Module, name: String): DefinitionTransformer =
+    new DefinitionTransformer(ModuleTransformer.parallel(f, name))
+
+  def parallelFromSentenceTransformer(f: java.util.function.UnaryOperator[Sentence],
+                                      name: String): DefinitionTransformer =
+    new DefinitionTransformer(ModuleTransformer.parallelFromSentenceTransformer(f, name))
+
   def apply(f: Module => Module): DefinitionTransformer = new DefinitionTransformer(f)
 
   def apply(f: Module => Module, name: String): DefinitionTransformer = new DefinitionTransformer(ModuleTransformer(f, name))
@@ -105,6 +175,10 @@ object DefinitionTransformer {
 
 class DefinitionTransformer(moduleTransformer: Module => Module) extends (Definition => Definition) {
   override def apply(d: Definition): Definition = {
+    moduleTransformer match {
+      case t: ModuleTransformer => t.schedule(d.entryModules)
+      case _ =>
+    }
     definition.Definition(
       moduleTransformer(d.mainModule),
       d.entryModules map moduleTransformer,
@@ -39,6 +39,24 @@ class POSetTest {
     }
   }
 
+  @Test def transitivenessOverManyElements() {
+    val bars = (0 until 200) map Bar
+    val p = POSet((bars zip bars.tail).toSet)
+
+    assertTrue(p.lessThan(bars(0), bars(199)))
+    assertTrue(p.greaterThan(bars(130), bars(65)))
+    assertFalse(p.lessThan(bars(199), bars(0)))
+    assertEquals(199, p.relations(bars(0)).size)
+  }
+
+  @Test def maximalMinimal() {
+    val p = POSet(b1 -> b2, b2 -> b3, b4 -> b5)
+
+    assertEquals(Set(b3, b5), p.maximal(Seq(b1, b3, b4, b5)))
+    assertEquals(Set(b1, b4), p.minimal(Seq(b1, b3, b4, b5)))
+    assertEquals(Set(b2, Bar(6)), p.maximal(Seq(b1, b2, Bar(6))))
+  }
+
   @Test def lub() {
     assertEquals(Some(b2), POSet(b1 -> b2).lub)
     assertEquals(Some(b3), POSet(b1 -> b3, b2 -> b3).lub)
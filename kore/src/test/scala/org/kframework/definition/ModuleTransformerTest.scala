@@ -0,0 +1,69 @@
+// Copyright (c) 2018 K Team. All Rights Reserved.
+
+package org.kframework.definition
+
+import java.util.concurrent.atomic.AtomicInteger
+
+import org.junit.{Assert, Test}
+import org.kframework.attributes.Att
+
+class ModuleTransformerTest {
+  val layers = 4
+  val width = 8
+
+  /**
+   * Modules in layers, each module importing all the modules of the previous layer, so that the modules of a layer
+   * are independent of each other. The main module imports the last layer.
+   */
+  val main: Module = {
+    var previous = Set[Module]()
+    for (layer <- 0 until layers) {
+      previous = (0 until width).map({ i =>
+        Module("M" + layer + "_" + i, previous, Set[Sentence](ModuleComment("layer " + layer)), Att.empty)
+      }).toSet
+    }
+    Module("MAIN", previous, Set(), Att.empty)
+  }
+
+  val transformed = new AtomicInteger()
+
+  /**
+   * Adds to a module a comment with the number of sentences it sees, which depends on its imports having been
+   * transformed before it.
+   */
+  def summarize(m: Module): Module = {
+    transformed.incrementAndGet()
+    Module(m.name, m.imports, m.localSentences + ModuleComment(m.name + ": " + m.sentences.size), m.att)
+  }
+
+  def identityCount(modules: Iterable[Module]): Int = {
+    val distinct = java.util.Collections.newSetFromMap(new java.util.IdentityHashMap[Module, java.lang.Boolean]())
+    modules foreach { m => distinct.add(m) }
+    distinct.size
+  }
+
+  @Test def parallelMatchesSequential(): Unit = {
+    val sequential = ModuleTransformer(summarize _, "summarize")(main)
+    Assert.assertEquals(layers * width + 1, transformed.getAndSet(0))
+
+    val parallel = ModuleTransformer.parallel(summarize _, "summarize")(main)
+    Assert.assertEquals(layers * width + 1, transformed.get())
+
+    Assert.assertEquals(sequential, parallel)
+    Assert.assertEquals(sequential.sentences, parallel.sentences)
+    Assert.assertEquals(sequential.importedModules, parallel.importedModules)
+    // each module is transformed once, and shared by all the modules importing it
+    val shared = parallel.importedModules.toSeq flatMap { m => m.imports.toSeq :+ m }
+    Assert.assertEquals(layers * width, identityCount(shared))
+  }
+
+  @Test def parallelDefinitionMatchesSequential(): Unit = {
+    val definition = Definition(main, main.importedModules + main, Att.empty)
+    val sequential = DefinitionTransformer.from(summarize _, "summarize")(definition)
+    val parallel = DefinitionTransformer.parallel(summarize _, "summarize")(definition)
+
+    Assert.assertEquals(sequential.mainModule, parallel.mainModule)
+    Assert.assertEquals(sequential.entryModules, parallel.entryModules)
+    Assert.assertEquals(sequential.entryModules.map(_.sentences), parallel.entryModules.map(_.sentences))
+  }
+}
@@ -76,7 +76,7 @@ public class KTreeViewer {
                         new Source(file.getName()));
             } catch (KEMException e) {
                 FileChannel input = FileChannel.open(file.toPath(), StandardOpenOption.READ);
-                return BinaryParser.parse(input.map(FileChannel.MapMode.READ_ONLY, 0, input.size()));
+                return BinaryParser.parse(input);
             }
         } catch (KEMException e) {
             throw new IOException("Parse Error", e);